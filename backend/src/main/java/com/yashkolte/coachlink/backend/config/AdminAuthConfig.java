@@ -0,0 +1,51 @@
+package com.yashkolte.coachlink.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashkolte.coachlink.backend.filter.AdminAuthFilter;
+import com.yashkolte.coachlink.backend.service.LogSamplingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+
+/**
+ * Authentication for the admin API
+ *
+ * Everything under /api/admin, and the bulk /api/coaches/batch-status
+ * endpoint, which can fan out to a hundred Stripe calls per request, requires
+ * the bearer token configured in app.admin.token. The filter is registered at
+ * the highest precedence, so an unauthenticated request is refused before any
+ * controller, MongoDB or Stripe work is done.
+ */
+@Configuration
+@Slf4j
+public class AdminAuthConfig {
+
+    /**
+     * Register the admin authentication filter
+     *
+     * @param token Admin bearer token; empty refuses all admin requests
+     * @param objectMapper Mapper used to render the rejection body
+     * @param logSampler Sampler for rejection logs
+     * @return Filter registration
+     * @throws IOException if the rejection body cannot be rendered
+     */
+    @Bean
+    public FilterRegistrationBean<AdminAuthFilter> adminAuthFilter(
+            @Value("${app.admin.token:}") String token,
+            ObjectMapper objectMapper,
+            LogSamplingService logSampler) throws IOException {
+        if (token.isEmpty()) {
+            log.warn("app.admin.token is not set; all /api/admin requests will be refused");
+        }
+        FilterRegistrationBean<AdminAuthFilter> registration = new FilterRegistrationBean<>(
+                new AdminAuthFilter(token, objectMapper, logSampler));
+        registration.addUrlPatterns("/api/admin/*", "/api/coaches/batch-status");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,129 @@
+package com.yashkolte.coachlink.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashkolte.coachlink.backend.filter.ClientRateLimitFilter;
+import com.yashkolte.coachlink.backend.filter.ClientRateLimiter;
+import com.yashkolte.coachlink.backend.service.LogSamplingService;
+import com.yashkolte.coachlink.backend.service.WarmupService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-client rate limiting configuration for public coach endpoints
+ *
+ * Every endpoint listed in app.ratelimit.endpoints (names of paths under
+ * /api/coaches) gets its own limiter, configured with
+ * app.ratelimit.&lt;endpoint&gt;.per-second and
+ * app.ratelimit.&lt;endpoint&gt;.burst. batch-status defaults to a much
+ * tighter limit than the other endpoints because one request can refresh
+ * hundreds of accounts from Stripe. The filter runs before the concurrency
+ * limiter so abusive clients never take concurrency slots, and after Spring's
+ * ForwardedHeaderFilter (server.forward-headers-strategy=framework) so the
+ * remote address it limits by is the client's, not the proxy's. Tracked
+ * clients and rejections are published as coachlink.ratelimit.clients and
+ * coachlink.ratelimit.rejected, tagged with the endpoint name.
+ */
+@Configuration
+@Slf4j
+public class ClientRateLimitConfig {
+
+    private static final String PATH_PREFIX = "/api/coaches/";
+
+    /**
+     * Built-in limits of endpoints that need tighter defaults than
+     * app.ratelimit.default
+     */
+    private static final Map<String, Limit> ENDPOINT_DEFAULTS = Map.of(
+            "batch-status", new Limit(0.2, 2));
+
+    private final Map<String, ClientRateLimiter> limitersByPath = new HashMap<>();
+
+    /**
+     * Register the rate limit filter for the configured endpoints
+     *
+     * @param endpoints Endpoint names under /api/coaches
+     * @param defaultPerSecond Sustained rate for endpoints without their own
+     * @param defaultBurst Burst for endpoints without their own
+     * @param maxClients Clients tracked individually per endpoint
+     * @param clientHeader Header identifying clients, empty to use the remote
+     * address only; must be set by a gateway that every request passes
+     * through, since clients could otherwise pick a new key per request
+     * @param environment Source of per-endpoint limits
+     * @param objectMapper Mapper used to render the rejection body
+     * @param logSampler Sampler for rejection logs
+     * @param meterRegistry Registry for rate limit metrics
+     * @param warmupService Identifies synthetic warm-up requests, which bypass
+     * the limit
+     * @return Filter registration
+     * @throws IOException if the rejection body cannot be rendered
+     */
+    @Bean
+    public FilterRegistrationBean<ClientRateLimitFilter> clientRateLimitFilter(
+            @Value("${app.ratelimit.endpoints:check-email,create-account,batch-status}") List<String> endpoints,
+            @Value("${app.ratelimit.default.per-second:1}") double defaultPerSecond,
+            @Value("${app.ratelimit.default.burst:10}") int defaultBurst,
+            @Value("${app.ratelimit.max-clients:100000}") int maxClients,
+            @Value("${app.ratelimit.client-header:}") String clientHeader,
+            Environment environment,
+            ObjectMapper objectMapper,
+            LogSamplingService logSampler,
+            MeterRegistry meterRegistry,
+            WarmupService warmupService) throws IOException {
+        for (String endpoint : endpoints) {
+            String prefix = "app.ratelimit." + endpoint;
+            Limit fallback = ENDPOINT_DEFAULTS.getOrDefault(endpoint, new Limit(defaultPerSecond, defaultBurst));
+            double perSecond = environment.getProperty(prefix + ".per-second", Double.class, fallback.perSecond());
+            int burst = environment.getProperty(prefix + ".burst", Integer.class, fallback.burst());
+            ClientRateLimiter limiter = new ClientRateLimiter(endpoint, perSecond, burst, maxClients);
+            Gauge.builder("coachlink.ratelimit.clients", limiter, ClientRateLimiter::getTrackedClients)
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            FunctionCounter.builder("coachlink.ratelimit.rejected", limiter, ClientRateLimiter::getRejected)
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            limitersByPath.put(PATH_PREFIX + endpoint, limiter);
+            log.info("Rate limiting {}{} to {}/s per client (burst {})", PATH_PREFIX, endpoint, perSecond, burst);
+        }
+
+        FilterRegistrationBean<ClientRateLimitFilter> registration = new FilterRegistrationBean<>(
+                new ClientRateLimitFilter(Map.copyOf(limitersByPath), clientHeader.isEmpty() ? null : clientHeader,
+                        objectMapper, logSampler, warmupService::isWarmupRequest));
+        registration.addUrlPatterns("/api/*");
+        // Directly after ForwardedHeaderFilter, which Spring Boot registers at HIGHEST_PRECEDENCE
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * Drop the buckets of idle clients
+     */
+    @Scheduled(fixedDelayString = "${app.ratelimit.evict-interval-ms:10000}")
+    public void evictIdleClients() {
+        for (ClientRateLimiter limiter : limitersByPath.values()) {
+            int evicted = limiter.evictIdle();
+            if (evicted > 0) {
+                log.debug("Evicted {} idle clients from the {} rate limiter", evicted, limiter.getName());
+            }
+        }
+    }
+
+    /**
+     * Sustained rate and burst of one endpoint
+     */
+    private record Limit(double perSecond, int burst) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.yashkolte.coachlink.backend.config;
+
+import com.yashkolte.coachlink.backend.service.CoachExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command-line entry point for the coach roster export
+ *
+ * Active only in the cli profile and when app.export.path is set. Writes the
+ * export to that file and exits, so finance can run it as a one-off job away
+ * from serving nodes. The profile starts no web server, schedulers or
+ * background checks (see application-cli.properties):
+ *
+ * java -jar backend.jar --spring.profiles.active=cli
+ * --app.export.path=/tmp/coaches.csv.gz
+ *
+ * The file is gzip-compressed when its name ends in ".gz".
+ */
+@Component
+@Profile("cli")
+@ConditionalOnProperty(name = "app.export.path")
+@Slf4j
+public class CoachExportCommand implements ApplicationRunner {
+
+    private final CoachExportService coachExportService;
+
+    private final ConfigurableApplicationContext context;
+
+    /**
+     * Destination file of the export
+     */
+    @Value("${app.export.path}")
+    private String exportPath;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param coachExportService Service producing the CSV
+     * @param context Application context to close once the export is written
+     */
+    public CoachExportCommand(CoachExportService coachExportService, ConfigurableApplicationContext context) {
+        this.coachExportService = coachExportService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path path = Path.of(exportPath);
+        boolean gzip = path.getFileName().toString().endsWith(".gz");
+        log.info("Exporting coaches to {}", path.toAbsolutePath());
+
+        long rows;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 64 * 1024)) {
+            rows = coachExportService.exportCsv(out, gzip);
+        }
+
+        log.info("Export finished: {} coaches written to {}", rows, path.toAbsolutePath());
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,118 @@
+package com.yashkolte.coachlink.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashkolte.coachlink.backend.filter.AdaptiveConcurrencyLimiter;
+import com.yashkolte.coachlink.backend.filter.ConcurrencyLimitFilter;
+import com.yashkolte.coachlink.backend.service.LogSamplingService;
+import com.yashkolte.coachlink.backend.service.WarmupService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Adaptive concurrency limiting configuration for the API
+ *
+ * Registers the load-shedding filter on /api/* right after the per-client rate
+ * limit and creates one limiter per lane (API and Stripe webhooks). Each
+ * lane's limit, in-flight count and rejections are published as metrics:
+ * coachlink.limiter.limit, coachlink.limiter.inflight and
+ * coachlink.limiter.rejected, tagged with the lane name.
+ */
+@Configuration
+@Slf4j
+public class ConcurrencyLimitConfig {
+
+    /**
+     * Create the limiter for general API requests
+     *
+     * @param initial Starting limit
+     * @param min Lowest limit
+     * @param max Highest limit
+     * @param meterRegistry Registry for limiter metrics
+     * @return API lane limiter
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter apiConcurrencyLimiter(
+            @Value("${app.limiter.api.initial:20}") int initial,
+            @Value("${app.limiter.api.min:4}") int min,
+            @Value("${app.limiter.api.max:200}") int max,
+            MeterRegistry meterRegistry) {
+        return register(new AdaptiveConcurrencyLimiter("api", initial, min, max), meterRegistry);
+    }
+
+    /**
+     * Create the limiter for Stripe webhook deliveries
+     *
+     * @param initial Starting limit
+     * @param min Lowest limit
+     * @param max Highest limit
+     * @param meterRegistry Registry for limiter metrics
+     * @return Webhook lane limiter
+     */
+    @Bean
+    public AdaptiveConcurrencyLimiter webhookConcurrencyLimiter(
+            @Value("${app.limiter.webhook.initial:10}") int initial,
+            @Value("${app.limiter.webhook.min:2}") int min,
+            @Value("${app.limiter.webhook.max:50}") int max,
+            MeterRegistry meterRegistry) {
+        return register(new AdaptiveConcurrencyLimiter("webhook", initial, min, max), meterRegistry);
+    }
+
+    /**
+     * Register the load-shedding filter for all API paths
+     *
+     * @param apiConcurrencyLimiter API lane limiter
+     * @param webhookConcurrencyLimiter Webhook lane limiter
+     * @param excludedPaths Path prefixes that bypass limiting
+     * @param retryAfterSeconds Retry-After value sent with 503 responses
+     * @param objectMapper Mapper used to render the rejection body
+     * @param logSampler Sampler for rejection logs
+     * @param warmupService Identifies synthetic warm-up requests, which bypass
+     * the limiter
+     * @return Filter registration
+     * @throws IOException if the rejection body cannot be rendered
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            AdaptiveConcurrencyLimiter apiConcurrencyLimiter,
+            AdaptiveConcurrencyLimiter webhookConcurrencyLimiter,
+            @Value("${app.limiter.excluded-paths:/api/health,/api/coaches/status-stream,/api/admin/coaches/export,/api/admin/coaches/import,/api/admin/stripe/events/backfill,/api/admin/coaches/schema/migrate,/api/admin/profiling/recording/dump}")
+            List<String> excludedPaths,
+            @Value("${app.limiter.retry-after-seconds:1}") int retryAfterSeconds,
+            ObjectMapper objectMapper,
+            LogSamplingService logSampler,
+            WarmupService warmupService) throws IOException {
+        log.info("Registering adaptive concurrency limit filter (excluded paths: {})", excludedPaths);
+
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(apiConcurrencyLimiter, webhookConcurrencyLimiter,
+                        excludedPaths, retryAfterSeconds, objectMapper, logSampler,
+                        warmupService::isWarmupRequest));
+        registration.addUrlPatterns("/api/*");
+        // Directly after the per-client rate limit filter
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    private AdaptiveConcurrencyLimiter register(AdaptiveConcurrencyLimiter limiter, MeterRegistry meterRegistry) {
+        Gauge.builder("coachlink.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("lane", limiter.getName())
+                .register(meterRegistry);
+        Gauge.builder("coachlink.limiter.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("lane", limiter.getName())
+                .register(meterRegistry);
+        FunctionCounter.builder("coachlink.limiter.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                .tag("lane", limiter.getName())
+                .register(meterRegistry);
+        return limiter;
+    }
+}
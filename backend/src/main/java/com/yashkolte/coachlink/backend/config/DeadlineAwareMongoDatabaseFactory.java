@@ -0,0 +1,43 @@
+package com.yashkolte.coachlink.backend.config;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import com.yashkolte.coachlink.backend.service.Deadline;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MongoDB database factory that applies the current thread's deadline
+ *
+ * MongoTemplate and the repositories obtain the database from the factory for
+ * every operation, including session-bound ones, so this is the single point
+ * where the remaining request budget becomes the driver's client-side
+ * operation timeout (timeoutMS). That timeout covers server selection,
+ * connection checkout and the operation itself, replacing the separate socket
+ * and pool timeouts. An operation started after the deadline has passed fails
+ * without contacting the server. Outside a deadline scope (scheduled jobs,
+ * exports) the database is returned unchanged.
+ */
+public class DeadlineAwareMongoDatabaseFactory extends SimpleMongoClientDatabaseFactory {
+
+    /**
+     * Create a factory for a database
+     *
+     * @param mongoClient Shared client
+     * @param databaseName Database name
+     */
+    public DeadlineAwareMongoDatabaseFactory(MongoClient mongoClient, String databaseName) {
+        super(mongoClient, databaseName);
+    }
+
+    @Override
+    protected MongoDatabase doGetMongoDatabase(String dbName) {
+        MongoDatabase database = super.doGetMongoDatabase(dbName);
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return database;
+        }
+        return database.withTimeout(deadline.remainingMillis("MongoDB operation"), TimeUnit.MILLISECONDS);
+    }
+}
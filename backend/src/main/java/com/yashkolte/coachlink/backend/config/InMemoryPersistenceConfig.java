@@ -0,0 +1,46 @@
+package com.yashkolte.coachlink.backend.config;
+
+import com.yashkolte.coachlink.backend.repository.CoachRepository;
+import com.yashkolte.coachlink.backend.repository.InMemoryCoachRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * In-memory persistence profile
+ *
+ * Activated with spring.profiles.active=inmemory. Coaches are stored in
+ * InMemoryCoachRepository instead of MongoDB: lookups (check-email and
+ * account status), coach creation, status compare-and-set updates and search
+ * all run against it, which lets the application start without a database
+ * for tests, load tests and benchmark baselines.
+ * application-inmemory.properties turns off the startup and scheduled work
+ * that would reach MongoDB (index creation, schema migration, outbox polling,
+ * funnel counters, status history, warm-up).
+ *
+ * Features built on their own collections (the account creation outbox, the
+ * ledger, webhook deduplication, exports and imports) still need a MongoDB
+ * server, and the MongoDB health check reports it as down without one.
+ */
+@Configuration
+@Profile("inmemory")
+@Slf4j
+public class InMemoryPersistenceConfig {
+
+    /**
+     * Coach repository backed by concurrent maps, preferred over the MongoDB
+     * repository wherever CoachRepository is injected
+     *
+     * @param eventPublisher Publisher for save and delete events
+     * @return In-memory coach repository
+     */
+    @Bean
+    @Primary
+    public CoachRepository inMemoryCoachRepository(ApplicationEventPublisher eventPublisher) {
+        log.warn("Using in-memory coach persistence; coaches are lost on shutdown");
+        return new InMemoryCoachRepository(eventPublisher);
+    }
+}
@@ -0,0 +1,42 @@
+package com.yashkolte.coachlink.backend.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.yashkolte.coachlink.backend.dto.AccountStatusResponse;
+import com.yashkolte.coachlink.backend.dto.ApiResponse;
+import com.yashkolte.coachlink.backend.dto.CoachResponse;
+import com.yashkolte.coachlink.backend.json.AccountStatusResponseSerializer;
+import com.yashkolte.coachlink.backend.json.ApiResponseSerializer;
+import com.yashkolte.coachlink.backend.json.CoachResponseSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * JSON serialization configuration for API responses
+ *
+ * Registers hand-written serializers for the types written on every hot
+ * response: the ApiResponse wrapper, CoachResponse and AccountStatusResponse.
+ * Spring Boot adds Module beans to the shared ObjectMapper, so controllers,
+ * SSE streams and the limit filters all use them. Output is identical to the
+ * default bean serializers (see JsonConfigTest). Generator buffers come from
+ * Jackson's per-thread BufferRecycler pool, so request threads reuse them
+ * across responses. ResponseSerializationBenchmark in the test sources
+ * compares time and allocation per response with JMH.
+ */
+@Configuration
+public class JsonConfig {
+
+    /**
+     * Create the module holding the hand-written serializers
+     *
+     * @return Jackson module registered on the application ObjectMapper
+     */
+    @Bean
+    public Module coachLinkJsonModule() {
+        SimpleModule module = new SimpleModule("CoachLinkJsonModule");
+        module.addSerializer(ApiResponse.class, new ApiResponseSerializer());
+        module.addSerializer(CoachResponse.class, new CoachResponseSerializer());
+        module.addSerializer(AccountStatusResponse.class, new AccountStatusResponseSerializer());
+        return module;
+    }
+}
@@ -2,12 +2,16 @@ package com.yashkolte.coachlink.backend.config;
 
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.ReadPreference;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.yashkolte.coachlink.backend.profiling.MongoCommandProfiler;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
 import org.springframework.data.mongodb.core.MongoTemplate;
 
@@ -44,6 +48,13 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
     @Value("${spring.data.mongodb.uri}")
     private String connectionString;
 
+    /**
+     * Whether to force TLS with the Atlas settings below; disable for local
+     * development against a plain replica set
+     */
+    @Value("${app.mongo.ssl:true}")
+    private boolean sslEnabled;
+
     /**
      * Database name for the CoachLink application All collections will be
      * created under this database
@@ -94,11 +105,14 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
             // Build MongoDB client settings with optimizations
             MongoClientSettings settings = MongoClientSettings.builder()
                     .applyConnectionString(new ConnectionString(connectionString))
-                    // SSL Configuration for Atlas
+                    // SSL Configuration for Atlas; when disabled (e.g. a local replica
+                    // set) TLS follows the connection string
                     .applyToSslSettings(builder -> {
-                        builder.enabled(true)
-                                .invalidHostNameAllowed(true) // Required for Atlas
-                                .context(sslContext);
+                        if (sslEnabled) {
+                            builder.enabled(true)
+                                    .invalidHostNameAllowed(true) // Required for Atlas
+                                    .context(sslContext);
+                        }
                     })
                     // Connection Pool Configuration for Performance
                     .applyToConnectionPoolSettings(builder -> {
@@ -113,6 +127,8 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
                         builder.connectTimeout(10, TimeUnit.SECONDS) // Connection timeout
                                 .readTimeout(10, TimeUnit.SECONDS);    // Read timeout
                     })
+                    // JFR events for every command, whichever API issued it
+                    .addCommandListener(new MongoCommandProfiler())
                     .build();
 
             log.info("MongoDB client configured successfully");
@@ -121,10 +137,27 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
         } catch (Exception e) {
             log.warn("Failed to configure SSL MongoDB client, falling back to default: {}", e.getMessage());
             // Fallback to default client if SSL configuration fails
-            return MongoClients.create(connectionString);
+            return MongoClients.create(MongoClientSettings.builder()
+                    .applyConnectionString(new ConnectionString(connectionString))
+                    .addCommandListener(new MongoCommandProfiler())
+                    .build());
         }
     }
 
+    /**
+     * Create the database factory used by both templates
+     *
+     * Applies the current request deadline to every operation; see
+     * DeadlineAwareMongoDatabaseFactory.
+     *
+     * @return Deadline-aware database factory
+     */
+    @Bean
+    @Override
+    public MongoDatabaseFactory mongoDbFactory() {
+        return new DeadlineAwareMongoDatabaseFactory(mongoClient(), getDatabaseName());
+    }
+
     /**
      * Create MongoTemplate bean for database operations
      *
@@ -134,8 +167,28 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
      * @return Configured MongoTemplate instance
      */
     @Bean
+    @Primary
     public MongoTemplate mongoTemplate() {
         log.info("Creating MongoTemplate for database: {}", getDatabaseName());
-        return new MongoTemplate(mongoClient(), getDatabaseName());
+        return new MongoTemplate(mongoDbFactory());
+    }
+
+    /**
+     * Create read-optimized MongoTemplate for read-only paths
+     *
+     * Shares the client and connection pool with the primary template but
+     * reads with secondaryPreferred, moving read load off the primary. Use it
+     * only where slightly stale data is acceptable, or together with a
+     * causally consistent session (see CoachReadService). Against a standalone
+     * server all reads still go to that server.
+     *
+     * @return MongoTemplate reading from secondaries when available
+     */
+    @Bean
+    public MongoTemplate secondaryMongoTemplate() {
+        log.info("Creating secondary-preferred MongoTemplate for database: {}", getDatabaseName());
+        MongoTemplate template = new MongoTemplate(mongoDbFactory());
+        template.setReadPreference(ReadPreference.secondaryPreferred());
+        return template;
     }
 }
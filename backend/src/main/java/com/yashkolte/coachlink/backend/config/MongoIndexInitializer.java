@@ -0,0 +1,100 @@
+package com.yashkolte.coachlink.backend.config;
+
+import com.yashkolte.coachlink.backend.entity.AccountCreationJob;
+import com.yashkolte.coachlink.backend.entity.LedgerBalance;
+import com.yashkolte.coachlink.backend.entity.LedgerDailyRollup;
+import com.yashkolte.coachlink.backend.entity.LedgerEntry;
+import com.yashkolte.coachlink.backend.entity.ProcessedStripeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared on entities with @Indexed and @CompoundIndex
+ *
+ * The templates in MongoConfig are built with their own mapping context, which
+ * never creates annotated indexes automatically. Several features depend on
+ * them for correctness, not just speed (e.g. the unique email index on
+ * AccountCreationJob rejects a second active job for the same coach, and the
+ * TTL index on ProcessedStripeEvent keeps that collection bounded) and the
+ * ledger reads and rebuilds filter by accountId, so they
+ * are created explicitly before the web server starts. If MongoDB is not
+ * reachable then, creation is retried until it succeeds.
+ *
+ * Coach indexes are managed by CoachSchemaMigrationService, which has to
+ * coordinate them with the legacy schema.
+ */
+@Component
+@Slf4j
+public class MongoIndexInitializer implements SmartInitializingSingleton {
+
+    /**
+     * Entities whose annotated indexes are created at startup
+     */
+    private static final List<Class<?>> INDEXED_ENTITIES = List.of(AccountCreationJob.class,
+            ProcessedStripeEvent.class, LedgerEntry.class, LedgerBalance.class, LedgerDailyRollup.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile boolean created;
+
+    @Value("${app.mongo.create-indexes:true}")
+    private boolean enabled;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Primary template whose mapping context resolves the
+     * index annotations
+     */
+    public MongoIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        createIndexes();
+    }
+
+    /**
+     * Retry index creation after a failed startup attempt
+     */
+    @Scheduled(initialDelayString = "${app.mongo.index-retry-ms:60000}",
+            fixedDelayString = "${app.mongo.index-retry-ms:60000}")
+    public void retryIfMissing() {
+        if (!created) {
+            createIndexes();
+        }
+    }
+
+    /**
+     * Create every annotated index; existing identical indexes are left as
+     * they are
+     *
+     * @return true if all indexes exist
+     */
+    public synchronized boolean createIndexes() {
+        if (!enabled || created) {
+            return true;
+        }
+        IndexResolver resolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        try {
+            for (Class<?> type : INDEXED_ENTITIES) {
+                IndexOperations indexOps = mongoTemplate.indexOps(type);
+                resolver.resolveIndexFor(type).forEach(indexOps::createIndex);
+            }
+            created = true;
+            log.info("Ensured MongoDB indexes for {} entities", INDEXED_ENTITIES.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to create MongoDB indexes, retrying later: {}", e.getMessage(), e);
+        }
+        return created;
+    }
+}
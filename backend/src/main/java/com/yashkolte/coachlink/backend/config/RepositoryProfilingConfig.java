@@ -0,0 +1,90 @@
+package com.yashkolte.coachlink.backend.config;
+
+import com.yashkolte.coachlink.backend.entity.Coach;
+import com.yashkolte.coachlink.backend.profiling.RepositoryCallEvent;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.Repository;
+import org.springframework.util.ClassUtils;
+
+import java.util.Optional;
+
+/**
+ * Emits a RepositoryCallEvent for every call to an application repository
+ *
+ * Repository beans are wrapped in a proxy that times each method call. The
+ * event names the repository interface and method and carries the Stripe
+ * account of a returned coach, or of a lookup by Stripe account ID.
+ */
+@Configuration
+public class RepositoryProfilingConfig {
+
+    private static final String APPLICATION_PACKAGE = "com.yashkolte.coachlink";
+
+    /**
+     * Post-processor wrapping repository beans; static so it is registered
+     * before the repositories are created
+     *
+     * @return Bean post-processor
+     */
+    @Bean
+    public static BeanPostProcessor repositoryProfilingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof Repository<?, ?>)) {
+                    return bean;
+                }
+                String repository = repositoryName(bean);
+                if (repository == null) {
+                    return bean;
+                }
+                ProxyFactory factory = new ProxyFactory(bean);
+                factory.addAdvice((MethodInterceptor) invocation -> {
+                    RepositoryCallEvent event = RepositoryCallEvent.start(repository,
+                            invocation.getMethod().getName());
+                    try {
+                        Object result = invocation.proceed();
+                        event.setAccountId(accountIdOf(invocation.getMethod().getName(),
+                                invocation.getArguments(), result));
+                        event.succeeded();
+                        return result;
+                    } catch (Throwable e) {
+                        event.failed(e);
+                        throw e;
+                    } finally {
+                        event.finish();
+                    }
+                });
+                return factory.getProxy();
+            }
+        };
+    }
+
+    /**
+     * Name of the application repository interface a bean implements, or
+     * null for framework repositories
+     */
+    private static String repositoryName(Object bean) {
+        for (Class<?> type : ClassUtils.getAllInterfacesForClassAsSet(bean.getClass())) {
+            if (Repository.class.isAssignableFrom(type) && type.getName().startsWith(APPLICATION_PACKAGE)) {
+                return type.getSimpleName();
+            }
+        }
+        return null;
+    }
+
+    private static String accountIdOf(String method, Object[] arguments, Object result) {
+        Object value = result instanceof Optional<?> optional ? optional.orElse(null) : result;
+        if (value instanceof Coach coach) {
+            return coach.getStripeAccountId();
+        }
+        if (method.contains("StripeAccountId") && arguments.length > 0 && arguments[0] instanceof String id) {
+            return id;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.yashkolte.coachlink.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables the @Scheduled jobs of the application
+ *
+ * On by default. The cli profile sets app.scheduling.enabled=false, so a
+ * one-off command never polls the outbox, flushes history or recounts the
+ * funnel while it runs.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "app.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
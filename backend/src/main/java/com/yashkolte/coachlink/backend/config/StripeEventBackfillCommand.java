@@ -0,0 +1,64 @@
+package com.yashkolte.coachlink.backend.config;
+
+import com.yashkolte.coachlink.backend.dto.StripeBackfillReport;
+import com.yashkolte.coachlink.backend.service.StripeEventBackfillService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Command-line entry point for the Stripe event backfill
+ *
+ * Active only in the cli profile and when app.backfill.run=true. Replays
+ * missed Stripe events and exits with status 1 if any event failed, so it can
+ * run as a one-off job after a webhook outage. The profile starts no web
+ * server, schedulers or background checks (see application-cli.properties):
+ *
+ * java -jar backend.jar --spring.profiles.active=cli
+ * --app.backfill.run=true [--app.backfill.from=2025-01-31T08:00:00Z]
+ *
+ * Without app.backfill.from the run continues from the stored checkpoint.
+ */
+@Component
+@Profile("cli")
+@ConditionalOnProperty(name = "app.backfill.run", havingValue = "true")
+@Slf4j
+public class StripeEventBackfillCommand implements ApplicationRunner {
+
+    private final StripeEventBackfillService backfillService;
+
+    private final ConfigurableApplicationContext context;
+
+    /**
+     * Optional ISO-8601 start of the replayed window
+     */
+    @Value("${app.backfill.from:}")
+    private String from;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param backfillService Service replaying the events
+     * @param context Application context to close once the run finishes
+     */
+    public StripeEventBackfillCommand(StripeEventBackfillService backfillService,
+            ConfigurableApplicationContext context) {
+        this.backfillService = backfillService;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        StripeBackfillReport report = backfillService.backfill(from.isBlank() ? null : Instant.parse(from));
+        int exitCode = report.getFailed() > 0 ? 1 : 0;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+}
@@ -0,0 +1,401 @@
+package com.yashkolte.coachlink.backend.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.yashkolte.coachlink.backend.dto.ApiResponse;
+import com.yashkolte.coachlink.backend.dto.CoachImportReport;
+import com.yashkolte.coachlink.backend.dto.CoachSchemaBenchmark;
+import com.yashkolte.coachlink.backend.dto.CoachSchemaMigrationReport;
+import com.yashkolte.coachlink.backend.dto.FunnelStatsResponse;
+import com.yashkolte.coachlink.backend.dto.TimeToOnboardStats;
+import com.yashkolte.coachlink.backend.entity.CoachStatusTransition;
+import com.yashkolte.coachlink.backend.entity.FunnelStats;
+import com.yashkolte.coachlink.backend.entity.LedgerBalance;
+import com.yashkolte.coachlink.backend.service.CoachExportService;
+import com.yashkolte.coachlink.backend.service.CoachImportService;
+import com.yashkolte.coachlink.backend.service.CoachSchemaMigrationService;
+import com.yashkolte.coachlink.backend.service.CoachSearchIndex;
+import com.yashkolte.coachlink.backend.service.FunnelStatsService;
+import com.yashkolte.coachlink.backend.service.LedgerService;
+import com.yashkolte.coachlink.backend.service.StatusHistoryService;
+
+import lombok.RequiredArgsConstructor;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST Controller for internal coach administration
+ *
+ * This controller serves support and finance tooling: - Onboarding funnel
+ * statistics - Funnel counter recount - Partial name and email search -
+ * Streaming roster export - Bulk roster import - Storage schema migration and
+ * size benchmark - Per-coach transfer and payout ledger totals - Per-coach
+ * status timelines and time-to-onboard percentiles
+ *
+ * All endpoints return responses wrapped in ApiResponse<T> for consistency.
+ */
+@RestController
+@RequestMapping("/api/admin/coaches")
+@RequiredArgsConstructor
+@Slf4j
+public class CoachAdminController {
+
+    private final FunnelStatsService funnelStatsService;
+
+    private final CoachSearchIndex coachSearchIndex;
+
+    private final CoachExportService coachExportService;
+
+    private final CoachImportService coachImportService;
+
+    private final CoachSchemaMigrationService schemaMigrationService;
+
+    private final LedgerService ledgerService;
+
+    private final StatusHistoryService statusHistoryService;
+
+    /**
+     * Largest page size accepted by the search endpoint
+     */
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    /**
+     * Largest sample accepted by the schema benchmark
+     */
+    private static final int MAX_BENCHMARK_SAMPLE = 10000;
+
+    /**
+     * Longest date range accepted by the ledger and status history endpoints,
+     * in days
+     */
+    private static final int MAX_RANGE_DAYS = 366;
+
+    /**
+     * Most transitions returned by one status timeline request
+     */
+    private static final int MAX_TIMELINE_ENTRIES = 1000;
+
+    /**
+     * Get onboarding funnel statistics
+     *
+     * Served from precomputed counters with a single lookup, independent of
+     * the number of coaches.
+     *
+     * @return ApiResponse containing registered, onboarded and payout-enabled
+     * counts
+     */
+    @GetMapping("/funnel")
+    public ResponseEntity<ApiResponse<FunnelStatsResponse>> getFunnel() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success(toResponse(funnelStatsService.getStats())));
+        } catch (Exception e) {
+            log.error("Failed to read funnel statistics: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Failed to read funnel statistics"));
+        }
+    }
+
+    /**
+     * Recompute funnel statistics from the coaches collection
+     *
+     * Scans the coaches collection, so use it to correct drift rather than for
+     * routine reads.
+     *
+     * @return ApiResponse containing the recomputed counts
+     */
+    @PostMapping("/funnel/recount")
+    public ResponseEntity<ApiResponse<FunnelStatsResponse>> recountFunnel() {
+        try {
+            log.info("Recounting onboarding funnel statistics");
+            return ResponseEntity.ok(ApiResponse.success("Funnel statistics recounted",
+                    toResponse(funnelStatsService.recount())));
+        } catch (Exception e) {
+            log.error("Failed to recount funnel statistics: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Failed to recount funnel statistics"));
+        }
+    }
+
+    /**
+     * Search coaches by partial name or email
+     *
+     * Served from the in-memory search index. Results are ranked by match
+     * quality (exact email, email prefix, name prefix, substring) and
+     * paginated.
+     *
+     * @param q Case-insensitive search text
+     * @param page Zero-based page number
+     * @param size Page size (1-100)
+     * @return ApiResponse containing the total match count and the page of hits
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> search(@RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (q.trim().isEmpty() || page < 0 || size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Query must not be blank, page >= 0 and size between 1 and "
+                            + MAX_SEARCH_PAGE_SIZE));
+        }
+
+        CoachSearchIndex.Page result = coachSearchIndex.search(q, page, size);
+        return ResponseEntity.ok(ApiResponse.success(Map.of(
+                "total", result.total(),
+                "page", page,
+                "size", size,
+                "results", result.hits()
+        )));
+    }
+
+    /**
+     * Export all coaches as CSV
+     *
+     * Rows are streamed from a MongoDB cursor directly into the response, so
+     * the export does not load the roster into memory. The response is written
+     * synchronously on the request thread and is not subject to async request
+     * timeouts.
+     *
+     * @param gzip Whether to gzip-compress the CSV (default true)
+     * @param response Servlet response the CSV is written to
+     * @throws IOException if the client connection fails mid-export
+     */
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "true") boolean gzip, HttpServletResponse response)
+            throws IOException {
+        log.info("Starting coach export (gzip={})", gzip);
+        response.setContentType(gzip ? "application/gzip" : "text/csv; charset=UTF-8");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"coaches.csv" + (gzip ? ".gz" : "") + "\"");
+        coachExportService.exportCsv(response.getOutputStream(), gzip);
+        response.flushBuffer();
+    }
+
+    /**
+     * Import coaches from a CSV request body
+     *
+     * The body is parsed as a stream (no multipart size limit applies) and
+     * must start with a header row containing email and name columns. Valid,
+     * previously unknown emails are inserted in unordered batches; every other
+     * row is reported with the reason it was skipped.
+     *
+     * @param createStripeAccounts Whether to queue Stripe account creation for
+     * imported coaches (rate-limited, processed by the outbox workers)
+     * @param request Servlet request whose body is the CSV
+     * @return ApiResponse containing the import report
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ApiResponse<CoachImportReport>> importCoaches(
+            @RequestParam(defaultValue = "false") boolean createStripeAccounts,
+            HttpServletRequest request) {
+        try {
+            CoachImportReport report = coachImportService.importCsv(request.getInputStream(), createStripeAccounts);
+            return ResponseEntity.ok(ApiResponse.success("Imported " + report.getImported() + " coaches", report));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected coach import: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Coach import failed: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Coach import failed"));
+        }
+    }
+
+    /**
+     * Migrate coach documents to the compact storage schema
+     *
+     * Runs synchronously in throttled batches next to regular traffic and is
+     * safe to repeat; nodes also start it on their own at startup.
+     *
+     * @return ApiResponse containing the migration report with collection
+     * statistics before and after
+     */
+    @PostMapping("/schema/migrate")
+    public ResponseEntity<ApiResponse<CoachSchemaMigrationReport>> migrateSchema() {
+        try {
+            CoachSchemaMigrationReport report = schemaMigrationService.migrate();
+            return ResponseEntity.ok(ApiResponse.success("Migrated " + report.getMigrated() + " coaches", report));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Coach schema migration failed: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Coach schema migration failed"));
+        }
+    }
+
+    /**
+     * Compare coach document sizes in the legacy and compact schemas
+     *
+     * @param sample Number of documents to sample (1-10000)
+     * @return ApiResponse containing average and projected sizes
+     */
+    @GetMapping("/schema/benchmark")
+    public ResponseEntity<ApiResponse<CoachSchemaBenchmark>> benchmarkSchema(
+            @RequestParam(defaultValue = "1000") int sample) {
+        if (sample < 1 || sample > MAX_BENCHMARK_SAMPLE) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error("Sample must be between 1 and " + MAX_BENCHMARK_SAMPLE));
+        }
+        try {
+            return ResponseEntity.ok(ApiResponse.success(schemaMigrationService.benchmark(sample)));
+        } catch (Exception e) {
+            log.error("Coach schema benchmark failed: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Coach schema benchmark failed"));
+        }
+    }
+
+    /**
+     * Get a coach's ledger balances and daily totals
+     *
+     * Served from pre-aggregated documents maintained as transfer and payout
+     * events arrive, without calling Stripe.
+     *
+     * @param accountId Stripe account ID of the coach
+     * @param from First UTC day (yyyy-MM-dd), defaults to 30 days before to
+     * @param to Last UTC day (yyyy-MM-dd), defaults to today
+     * @return ApiResponse containing per-currency balances and daily rollups
+     */
+    @GetMapping("/ledger/{accountId}")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getLedger(@PathVariable String accountId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        LocalDate[] range;
+        try {
+            range = parseRange(from, to, 30);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+
+        try {
+            return ResponseEntity.ok(ApiResponse.success(Map.of(
+                    "accountId", accountId,
+                    "balances", ledgerService.getBalances(accountId),
+                    "daily", ledgerService.getDaily(accountId, range[0], range[1])
+            )));
+        } catch (Exception e) {
+            log.error("Failed to read ledger for {}: {}", accountId, e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to read ledger"));
+        }
+    }
+
+    /**
+     * Recompute a coach's ledger balances and daily totals from the entries
+     *
+     * @param accountId Stripe account ID of the coach
+     * @return ApiResponse containing the recomputed balances
+     */
+    @PostMapping("/ledger/{accountId}/rebuild")
+    public ResponseEntity<ApiResponse<List<LedgerBalance>>> rebuildLedger(@PathVariable String accountId) {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Ledger rebuilt", ledgerService.rebuild(accountId)));
+        } catch (Exception e) {
+            log.error("Failed to rebuild ledger for {}: {}", accountId, e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to rebuild ledger"));
+        }
+    }
+
+    /**
+     * Get a coach's onboarding and payout status transitions
+     *
+     * Served from the append-only status history, oldest first, capped at
+     * 1000 transitions.
+     *
+     * @param accountId Stripe account ID of the coach
+     * @param from First UTC day (yyyy-MM-dd), defaults to a year before to
+     * @param to Last UTC day (yyyy-MM-dd), defaults to today
+     * @return ApiResponse containing the coach's transitions
+     */
+    @GetMapping("/status-history/{accountId}")
+    public ResponseEntity<ApiResponse<List<CoachStatusTransition>>> getStatusHistory(@PathVariable String accountId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        LocalDate[] range;
+        try {
+            range = parseRange(from, to, MAX_RANGE_DAYS - 1);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+
+        try {
+            return ResponseEntity.ok(ApiResponse.success(
+                    statusHistoryService.getTimeline(accountId, range[0], range[1], MAX_TIMELINE_ENTRIES)));
+        } catch (Exception e) {
+            log.error("Failed to read status history for {}: {}", accountId, e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to read status history"));
+        }
+    }
+
+    /**
+     * Get time-to-onboard percentiles for coaches that completed onboarding
+     * in a date range
+     *
+     * @param from First UTC day (yyyy-MM-dd), defaults to 30 days before to
+     * @param to Last UTC day (yyyy-MM-dd), defaults to today
+     * @return ApiResponse containing the number of coaches and percentiles
+     */
+    @GetMapping("/time-to-onboard")
+    public ResponseEntity<ApiResponse<TimeToOnboardStats>> getTimeToOnboard(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        LocalDate[] range;
+        try {
+            range = parseRange(from, to, 30);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        }
+
+        try {
+            return ResponseEntity.ok(ApiResponse.success(statusHistoryService.getTimeToOnboard(range[0], range[1])));
+        } catch (Exception e) {
+            log.error("Failed to compute time to onboard: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to compute time to onboard"));
+        }
+    }
+
+    /**
+     * Parse an optional UTC day range
+     *
+     * @param from First day (yyyy-MM-dd), null for defaultDays before to
+     * @param to Last day (yyyy-MM-dd), null for today
+     * @param defaultDays Days between the default first day and the last day
+     * @return First and last day
+     * @throws IllegalArgumentException if a date is malformed or the range is
+     * reversed or longer than MAX_RANGE_DAYS
+     */
+    private static LocalDate[] parseRange(String from, String to, int defaultDays) {
+        LocalDate toDay;
+        LocalDate fromDay;
+        try {
+            toDay = to != null ? LocalDate.parse(to) : LocalDate.now(ZoneOffset.UTC);
+            fromDay = from != null ? LocalDate.parse(from) : toDay.minusDays(defaultDays);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("from and to must be yyyy-MM-dd dates");
+        }
+        if (fromDay.isAfter(toDay) || ChronoUnit.DAYS.between(fromDay, toDay) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range must span 1 to " + MAX_RANGE_DAYS + " days");
+        }
+        return new LocalDate[] {fromDay, toDay};
+    }
+
+    private FunnelStatsResponse toResponse(FunnelStats stats) {
+        return new FunnelStatsResponse(stats.getRegistered(), stats.getOnboarded(),
+                stats.getPayoutsEnabled(), stats.getUpdatedAt(), stats.getLastRecountAt());
+    }
+}
@@ -1,5 +1,8 @@
 package com.yashkolte.coachlink.backend.controller;
 
+import com.yashkolte.coachlink.backend.service.HealthCheckService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -8,18 +11,81 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Health endpoints for load balancers and the orchestrator
+ *
+ * All endpoints answer from results cached by HealthCheckService and never
+ * call MongoDB or Stripe themselves: - /api/health: overall status with the
+ * status and latency of each check, 503 when MongoDB is down -
+ * /api/health/live: liveness probe - /api/health/ready: readiness probe, 503
+ * until the node can serve traffic - /api/admin/health: the full check
+ * results, including failure messages, behind the admin token
+ *
+ * Failure messages can name hosts, replica set members or Stripe request
+ * IDs, so the public endpoint leaves them out; they are also logged when a
+ * check starts failing.
+ */
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "${cors.allowed.origins}")
 public class HealthController {
 
+    private final HealthCheckService healthCheckService;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param healthCheckService Source of cached check results
+     */
+    public HealthController(HealthCheckService healthCheckService) {
+        this.healthCheckService = healthCheckService;
+    }
+
     @GetMapping("/health")
-    public Map<String, Object> health() {
+    public ResponseEntity<Map<String, Object>> health() {
+        String status = healthCheckService.status();
         Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
+        response.put("status", status);
         response.put("service", "CoachLink Backend");
         response.put("version", "1.0.0");
         response.put("timestamp", System.currentTimeMillis());
-        return response;
+        response.put("ready", healthCheckService.isReady());
+        response.put("warm", healthCheckService.isWarm());
+        response.put("checks", Map.of(
+                "mongo", summary(healthCheckService.mongo()),
+                "stripe", summary(healthCheckService.stripe())));
+        return ResponseEntity.status("DOWN".equals(status) ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK)
+                .body(response);
+    }
+
+    @GetMapping("/admin/health")
+    public ResponseEntity<Map<String, Object>> adminHealth() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", healthCheckService.status());
+        response.put("ready", healthCheckService.isReady());
+        response.put("warm", healthCheckService.isWarm());
+        response.put("checks", Map.of(
+                "mongo", healthCheckService.mongo(),
+                "stripe", healthCheckService.stripe()));
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/health/live")
+    public ResponseEntity<Map<String, Object>> live() {
+        return probe(healthCheckService.isLive());
+    }
+
+    @GetMapping("/health/ready")
+    public ResponseEntity<Map<String, Object>> ready() {
+        return probe(healthCheckService.isReady());
+    }
+
+    private static Map<String, Object> summary(HealthCheckService.Check check) {
+        return Map.of("status", check.status(), "latencyMs", check.latencyMs());
+    }
+
+    private static ResponseEntity<Map<String, Object>> probe(boolean up) {
+        return ResponseEntity.status(up ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("status", up ? "UP" : "DOWN"));
     }
 }
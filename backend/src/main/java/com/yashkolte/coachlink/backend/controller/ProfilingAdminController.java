@@ -0,0 +1,108 @@
+package com.yashkolte.coachlink.backend.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.yashkolte.coachlink.backend.dto.ApiResponse;
+import com.yashkolte.coachlink.backend.dto.ProfilingRecordingStatus;
+import com.yashkolte.coachlink.backend.service.ProfilingService;
+
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * REST Controller for on-demand profiling
+ *
+ * This controller drives a bounded Java Flight Recorder recording of live
+ * traffic: - Start a recording - Stop it early - Check its status - Download
+ * the recorded data as a .jfr file for JDK Mission Control or the jfr tool
+ *
+ * All endpoints except the download return responses wrapped in
+ * ApiResponse<T> for consistency.
+ */
+@RestController
+@RequestMapping("/api/admin/profiling")
+@RequiredArgsConstructor
+@Slf4j
+public class ProfilingAdminController {
+
+    private final ProfilingService profilingService;
+
+    /**
+     * Start a JFR recording
+     *
+     * @param durationSeconds How long to record (default 60)
+     * @param settings JFR settings: default or profile (default profile)
+     * @return ApiResponse containing the recording status
+     */
+    @PostMapping("/recording/start")
+    public ResponseEntity<ApiResponse<ProfilingRecordingStatus>> start(
+            @RequestParam(defaultValue = "60") long durationSeconds,
+            @RequestParam(defaultValue = "profile") String settings) {
+        try {
+            ProfilingRecordingStatus status = profilingService.start(Duration.ofSeconds(durationSeconds), settings);
+            return ResponseEntity.ok(ApiResponse.success("Recording started", status));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to start JFR recording: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Failed to start recording"));
+        }
+    }
+
+    /**
+     * Stop the running recording
+     *
+     * @return ApiResponse containing the recording status
+     */
+    @PostMapping("/recording/stop")
+    public ResponseEntity<ApiResponse<ProfilingRecordingStatus>> stop() {
+        try {
+            return ResponseEntity.ok(ApiResponse.success("Recording stopped", profilingService.stop()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Get the status of the current recording
+     *
+     * @return ApiResponse containing the recording status
+     */
+    @GetMapping("/recording")
+    public ResponseEntity<ApiResponse<ProfilingRecordingStatus>> status() {
+        return ResponseEntity.ok(ApiResponse.success(profilingService.status()));
+    }
+
+    /**
+     * Download the recorded data
+     *
+     * Works while the recording runs and after it stopped.
+     *
+     * @param response Servlet response the .jfr file is written to
+     * @throws IOException if the client connection fails mid-download
+     */
+    @GetMapping("/recording/dump")
+    public void dump(HttpServletResponse response) throws IOException {
+        try {
+            response.setContentType("application/octet-stream");
+            response.setHeader("Content-Disposition", "attachment; filename=\"coachlink.jfr\"");
+            profilingService.dump(response.getOutputStream());
+            response.flushBuffer();
+        } catch (IllegalStateException e) {
+            response.reset();
+            response.sendError(HttpStatus.CONFLICT.value(), e.getMessage());
+        }
+    }
+}
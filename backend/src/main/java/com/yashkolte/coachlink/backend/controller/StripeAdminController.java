@@ -0,0 +1,67 @@
+package com.yashkolte.coachlink.backend.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.stripe.exception.StripeException;
+import com.yashkolte.coachlink.backend.dto.ApiResponse;
+import com.yashkolte.coachlink.backend.dto.StripeBackfillReport;
+import com.yashkolte.coachlink.backend.service.StripeEventBackfillService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * REST Controller for internal Stripe operations
+ *
+ * This controller serves operations tooling: - Replay of Stripe events missed
+ * by the webhook endpoint
+ *
+ * All endpoints return responses wrapped in ApiResponse<T> for consistency.
+ */
+@RestController
+@RequestMapping("/api/admin/stripe")
+@RequiredArgsConstructor
+@Slf4j
+public class StripeAdminController {
+
+    private final StripeEventBackfillService backfillService;
+
+    /**
+     * Replay Stripe account events missed by the webhook endpoint
+     *
+     * Runs synchronously and returns when every listed event was handled.
+     * Events already handled are skipped, so the endpoint is safe to call
+     * repeatedly.
+     *
+     * @param from Optional ISO-8601 start of the window; defaults to the stored
+     * checkpoint
+     * @return ApiResponse containing the backfill report
+     */
+    @PostMapping("/events/backfill")
+    public ResponseEntity<ApiResponse<StripeBackfillReport>> backfillEvents(
+            @RequestParam(required = false) String from) {
+        try {
+            StripeBackfillReport report = backfillService.backfill(from != null ? Instant.parse(from) : null);
+            return ResponseEntity.ok(ApiResponse.success("Replayed " + report.getProcessed() + " events", report));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error("from must be an ISO-8601 instant"));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ApiResponse.error(e.getMessage()));
+        } catch (StripeException e) {
+            log.error("Stripe event backfill failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                    .body(ApiResponse.error("Failed to list Stripe events: " + e.getMessage()));
+        } catch (Exception e) {
+            log.error("Stripe event backfill failed: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError().body(ApiResponse.error("Stripe event backfill failed"));
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.yashkolte.coachlink.backend.controller;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -8,18 +11,33 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.stripe.exception.StripeException;
 import com.stripe.model.Account;
+import com.yashkolte.coachlink.backend.dto.AccountStatusResponse;
+import com.yashkolte.coachlink.backend.dto.AccountStatusResult;
 import com.yashkolte.coachlink.backend.dto.ApiResponse;
+import com.yashkolte.coachlink.backend.dto.BatchStatusRequest;
 import com.yashkolte.coachlink.backend.dto.CoachRequest;
 import com.yashkolte.coachlink.backend.dto.CoachResponse;
+import com.yashkolte.coachlink.backend.dto.DashboardLinkResponse;
+import com.yashkolte.coachlink.backend.dto.OnboardingLinkResponse;
 import com.yashkolte.coachlink.backend.entity.Coach;
+import com.yashkolte.coachlink.backend.service.AccountCreationQueueService;
+import com.yashkolte.coachlink.backend.service.AccountStatusStreamService;
+import com.yashkolte.coachlink.backend.service.CoachBatchStatusService;
+import com.yashkolte.coachlink.backend.service.CoachReadService;
+import com.yashkolte.coachlink.backend.service.Deadline;
+import com.yashkolte.coachlink.backend.service.EmailLockService;
+import com.yashkolte.coachlink.backend.service.LogSamplingService;
 import com.yashkolte.coachlink.backend.service.StripeService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,10 +45,13 @@ import java.util.Map;
  *
  * This controller handles all Stripe-related operations for coaches: - Account
  * creation and registration - Onboarding link generation - Account status
- * checking - Dashboard link generation - Email verification
+ * checking, single and batch - Dashboard link generation - Email verification
  *
- * All endpoints return responses wrapped in ApiResponse<T> for consistency.
- * CORS is enabled for frontend integration.
+ * All endpoints return responses wrapped in ApiResponse<T> for consistency,
+ * with typed payloads serialized by the serializers in JsonConfig.
+ * CORS is enabled for frontend integration. Each endpoint runs under a
+ * Deadline, so MongoDB and Stripe calls share one time budget; a request that
+ * runs out of time returns 504.
  */
 @RestController
 @RequestMapping("/api/coaches")
@@ -39,15 +60,58 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:3000")
 public class StripeController {
 
+    /**
+     * Log sampling keys for routine success logs, one per endpoint
+     */
+    private static final String LOG_CREATE_ACCOUNT = "create-account";
+    private static final String LOG_ONBOARDING_LINK = "onboarding-link";
+    private static final String LOG_CHECK_STATUS = "check-status";
+    private static final String LOG_BATCH_STATUS = "batch-status";
+    private static final String LOG_STATUS_STREAM = "status-stream";
+    private static final String LOG_DASHBOARD_LINK = "dashboard-link";
+    private static final String LOG_CHECK_EMAIL = "check-email";
+
     private final StripeService stripeService;
 
+    private final AccountStatusStreamService statusStreamService;
+
+    private final AccountCreationQueueService accountCreationQueueService;
+
+    private final EmailLockService emailLockService;
+
+    private final LogSamplingService logSampler;
+
+    private final CoachReadService coachReadService;
+
+    private final CoachBatchStatusService batchStatusService;
+
+    /**
+     * Time budget for create-account, including waiting for a concurrent
+     * request on the same email
+     */
+    @Value("${app.deadline.create-account-ms:5000}")
+    private long createAccountBudgetMs;
+
+    /**
+     * Time budget for endpoints that call Stripe synchronously
+     */
+    @Value("${app.deadline.stripe-ms:8000}")
+    private long stripeBudgetMs;
+
+    /**
+     * Time budget for read-only lookups
+     */
+    @Value("${app.deadline.read-ms:2000}")
+    private long readBudgetMs;
+
     /**
      * Create or retrieve a coach's Stripe Express account
      *
      * This endpoint handles both new account creation and existing account
      * lookup. It returns different responses based on the account's onboarding
-     * status: - New accounts: Creates Stripe account and returns incomplete
-     * status - Existing complete accounts: Returns complete status for
+     * status: - New accounts: Queues Stripe account creation and returns
+     * pending status with HTTP 202; poll check-email until the account ID is
+     * set - Existing complete accounts: Returns complete status for
      * dashboard redirect - Existing incomplete accounts: Returns incomplete
      * status for onboarding continuation
      *
@@ -56,61 +120,88 @@ public class StripeController {
      */
     @PostMapping("/create-account")
     public ResponseEntity<ApiResponse<CoachResponse>> createAccount(@RequestBody CoachRequest request) {
-        try {
-            log.info("Processing account creation request for email: {}", request.getEmail());
-
-            // Check if email already exists in system
-            Coach existingCoach = stripeService.getCoachByEmail(request.getEmail());
-
-            if (existingCoach != null && existingCoach.getStripeAccountId() != null) {
-                // Fetch real-time status from Stripe for existing accounts
-                Account account = stripeService.getAccountStatus(existingCoach.getStripeAccountId());
-
-                CoachResponse response = new CoachResponse(
-                        existingCoach.getId(),
-                        existingCoach.getEmail(),
-                        existingCoach.getName(),
-                        existingCoach.getStripeAccountId(),
-                        account.getDetailsSubmitted() ? "complete" : "incomplete",
-                        true
-                );
-
-                if (account.getDetailsSubmitted()) {
-                    log.info("Existing coach {} has completed onboarding", request.getEmail());
-                    return ResponseEntity.ok(ApiResponse.success("Account already exists and is complete", response));
-                } else {
-                    log.info("Existing coach {} needs to complete onboarding", request.getEmail());
-                    return ResponseEntity.ok(ApiResponse.success("Account exists, please complete onboarding", response));
-                }
-            }
-
-            // Create new Stripe Express account for new coach
-            log.info("Creating new Stripe account for coach: {}", request.getEmail());
-            stripeService.createStripeAccount(request.getEmail(), request.getName());
-            Coach coach = stripeService.getCoachByEmail(request.getEmail());
-
-            CoachResponse response = new CoachResponse(
-                    coach.getId(),
-                    coach.getEmail(),
-                    coach.getName(),
-                    coach.getStripeAccountId(),
-                    "incomplete", // New accounts always start as incomplete
-                    true
-            );
+        request.setEmail(Coach.normalizeEmail(request.getEmail()));
+        try (Deadline.Scope deadline = Deadline.start(LOG_CREATE_ACCOUNT, Duration.ofMillis(createAccountBudgetMs))) {
+            if (logSampler.shouldLog(LOG_CREATE_ACCOUNT)) {
+                log.atInfo().addKeyValue("email", request.getEmail()).log("Processing account creation request");
+            }
 
-            return ResponseEntity.ok(ApiResponse.success("Account created successfully", response));
+            // Serialize requests for the same email so duplicates reuse the first result
+            return emailLockService.withLock(request.getEmail(), () -> createOrReuseAccount(request));
 
         } catch (StripeException e) {
-            log.error("Stripe API error during account creation for {}: {}", request.getEmail(), e.getMessage());
+            if (Deadline.isTimeout(e)) {
+                return timedOut(LOG_CREATE_ACCOUNT, e);
+            }
+            log.error("Stripe API error during account creation for {}: {}", request.getEmail(), e.getMessage(), e);
             return ResponseEntity.internalServerError()
                     .body(ApiResponse.error("Failed to create Stripe account: " + e.getMessage()));
         } catch (Exception e) {
-            log.error("Unexpected error during account creation for {}: {}", request.getEmail(), e.getMessage());
+            if (Deadline.isTimeout(e)) {
+                return timedOut(LOG_CREATE_ACCOUNT, e);
+            }
+            log.error("Unexpected error during account creation for {}: {}", request.getEmail(), e.getMessage(), e);
             return ResponseEntity.internalServerError()
                     .body(ApiResponse.error("Internal server error"));
         }
     }
 
+    /**
+     * Look up or queue a coach's Stripe account while holding the email lock
+     *
+     * @param request Coach's registration information (email and name)
+     * @return ApiResponse containing coach account information and status
+     * @throws StripeException if the Stripe status lookup fails
+     */
+    private ResponseEntity<ApiResponse<CoachResponse>> createOrReuseAccount(CoachRequest request) throws StripeException {
+        // Check if email already exists in system
+        Coach existingCoach = stripeService.getCoachByEmail(request.getEmail());
+
+        if (existingCoach != null && existingCoach.getStripeAccountId() != null) {
+            // Fetch real-time status from Stripe for existing accounts
+            Account account = stripeService.getAccountStatus(existingCoach.getStripeAccountId());
+
+            CoachResponse response = new CoachResponse(
+                    existingCoach.getId(),
+                    existingCoach.getEmail(),
+                    existingCoach.getName(),
+                    existingCoach.getStripeAccountId(),
+                    account.getDetailsSubmitted() ? "complete" : "incomplete",
+                    true
+            );
+
+            if (logSampler.shouldLog(LOG_CREATE_ACCOUNT)) {
+                log.atInfo()
+                        .addKeyValue("email", request.getEmail())
+                        .addKeyValue("onboardingComplete", account.getDetailsSubmitted())
+                        .log("Existing coach found");
+            }
+
+            if (account.getDetailsSubmitted()) {
+                return ResponseEntity.ok(ApiResponse.success("Account already exists and is complete", response));
+            } else {
+                return ResponseEntity.ok(ApiResponse.success("Account exists, please complete onboarding", response));
+            }
+        }
+
+        // Queue Stripe account creation; the coach record is stored immediately
+        if (logSampler.shouldLog(LOG_CREATE_ACCOUNT)) {
+            log.atInfo().addKeyValue("email", request.getEmail()).log("Queueing Stripe account creation");
+        }
+        Coach coach = accountCreationQueueService.enqueue(request.getEmail(), request.getName());
+
+        CoachResponse response = new CoachResponse(
+                coach.getId(),
+                coach.getEmail(),
+                coach.getName(),
+                null, // Assigned once the outbox worker has created the Stripe account
+                "pending",
+                true
+        );
+
+        return ResponseEntity.accepted().body(ApiResponse.success("Account creation in progress", response));
+    }
+
     /**
      * Generate an onboarding link for Stripe account setup
      *
@@ -122,8 +213,8 @@ public class StripeController {
      * @return ApiResponse containing the onboarding URL
      */
     @PostMapping("/generate-onboarding-link")
-    public ResponseEntity<ApiResponse<Map<String, String>>> generateOnboardingLink(@RequestBody Map<String, String> request) {
-        try {
+    public ResponseEntity<ApiResponse<OnboardingLinkResponse>> generateOnboardingLink(@RequestBody Map<String, String> request) {
+        try (Deadline.Scope deadline = Deadline.start(LOG_ONBOARDING_LINK, Duration.ofMillis(stripeBudgetMs))) {
             String accountId = request.get("accountId");
             if (accountId == null || accountId.trim().isEmpty()) {
                 log.warn("Onboarding link request missing account ID");
@@ -131,14 +222,24 @@ public class StripeController {
                         .body(ApiResponse.error("Account ID is required"));
             }
 
-            log.info("Generating onboarding link for account: {}", accountId);
+            if (logSampler.shouldLog(LOG_ONBOARDING_LINK)) {
+                log.atInfo().addKeyValue("accountId", accountId).log("Generating onboarding link");
+            }
             String onboardingUrl = stripeService.generateOnboardingLink(accountId);
-            return ResponseEntity.ok(ApiResponse.success(Map.of("onboardingUrl", onboardingUrl)));
+            return ResponseEntity.ok(ApiResponse.success(new OnboardingLinkResponse(onboardingUrl)));
 
         } catch (StripeException e) {
-            log.error("Failed to generate onboarding link for account {}: {}", request.get("accountId"), e.getMessage());
+            if (Deadline.isTimeout(e)) {
+                return timedOut(LOG_ONBOARDING_LINK, e);
+            }
+            log.error("Failed to generate onboarding link for account {}: {}", request.get("accountId"), e.getMessage(), e);
             return ResponseEntity.internalServerError()
                     .body(ApiResponse.error("Failed to generate onboarding link"));
+        } catch (RuntimeException e) {
+            if (Deadline.isTimeout(e)) {
+                return timedOut(LOG_ONBOARDING_LINK, e);
+            }
+            throw e;
         }
     }
 
@@ -153,25 +254,92 @@ public class StripeController {
      * @return ApiResponse containing account status information
      */
     @GetMapping("/check-status")
-    public ResponseEntity<ApiResponse<Map<String, Object>>> checkStatus(@RequestParam String accountId) {
-        try {
-            log.info("Checking status for Stripe account: {}", accountId);
+    public ResponseEntity<ApiResponse<AccountStatusResponse>> checkStatus(@RequestParam String accountId) {
+        try (Deadline.Scope deadline = Deadline.start(LOG_CHECK_STATUS, Duration.ofMillis(stripeBudgetMs))) {
+            if (logSampler.shouldLog(LOG_CHECK_STATUS)) {
+                log.atInfo().addKeyValue("accountId", accountId).log("Checking account status");
+            }
             Account account = stripeService.getAccountStatus(accountId);
 
-            Map<String, Object> status = Map.of(
-                    "accountId", accountId,
-                    "detailsSubmitted", account.getDetailsSubmitted(),
-                    "payoutsEnabled", account.getPayoutsEnabled(),
-                    "onboardingComplete", account.getDetailsSubmitted()
-            );
-
+            AccountStatusResponse status = AccountStatusResponse.of(accountId, account.getDetailsSubmitted(),
+                    account.getPayoutsEnabled());
             return ResponseEntity.ok(ApiResponse.success(status));
 
         } catch (StripeException e) {
-            log.error("Failed to check account status for {}: {}", accountId, e.getMessage());
+            if (Deadline.isTimeout(e)) {
+                return timedOut(LOG_CHECK_STATUS, e);
+            }
+            log.error("Failed to check account status for {}: {}", accountId, e.getMessage(), e);
             return ResponseEntity.internalServerError()
                     .body(ApiResponse.error("Failed to check account status"));
+        } catch (RuntimeException e) {
+            if (Deadline.isTimeout(e)) {
+                return timedOut(LOG_CHECK_STATUS, e);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Check the status of many Stripe Express accounts in one call
+     *
+     * Stored statuses are read with a single query; only accounts whose status
+     * is older than the refresh age (or all, with refresh=true) are retrieved
+     * from Stripe, in parallel, and the refreshed statuses are written back in
+     * one bulk update. Accounts whose refresh failed or did not finish within
+     * the budget carry an error and their stored status. Requires the admin token (see AdminAuthConfig) and is rate
+     * limited per client.
+     *
+     * @param request Account IDs and whether to force a refresh
+     * @return ApiResponse containing one status per distinct account ID
+     */
+    @PostMapping("/batch-status")
+    public ResponseEntity<ApiResponse<List<AccountStatusResult>>> batchStatus(
+            @RequestBody BatchStatusRequest request) {
+        try (Deadline.Scope deadline = Deadline.start(LOG_BATCH_STATUS, Duration.ofMillis(stripeBudgetMs))) {
+            List<AccountStatusResult> results = batchStatusService.getStatuses(request.getAccountIds(),
+                    request.isRefresh());
+            if (logSampler.shouldLog(LOG_BATCH_STATUS)) {
+                log.atInfo().addKeyValue("accounts", results.size()).log("Checked batch account status");
+            }
+            return ResponseEntity.ok(ApiResponse.success(results));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(e.getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Failed to check account statuses"));
+        } catch (RuntimeException e) {
+            if (Deadline.isTimeout(e)) {
+                return timedOut(LOG_BATCH_STATUS, e);
+            }
+            log.error("Failed to check batch account status: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error("Failed to check account statuses"));
+        }
+    }
+
+    /**
+     * Stream account status changes using Server-Sent Events
+     *
+     * This endpoint replaces repeated calls to check-status. The stored status
+     * is sent as soon as the stream opens, and every later change processed by
+     * the webhook handler or a status check is pushed as a "status" event with
+     * the same fields as check-status. No Stripe call is made to open a stream.
+     *
+     * @param accountId Stripe account ID to watch
+     * @return SSE emitter that receives status events
+     */
+    @GetMapping(value = "/status-stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStatus(@RequestParam String accountId) {
+        if (logSampler.shouldLog(LOG_STATUS_STREAM)) {
+            log.atInfo().addKeyValue("accountId", accountId).log("Opening status stream");
+        }
+        Coach coach;
+        try (Deadline.Scope deadline = Deadline.start(LOG_STATUS_STREAM, Duration.ofMillis(readBudgetMs))) {
+            coach = coachReadService.findByStripeAccountId(accountId);
         }
+        return statusStreamService.subscribe(accountId, coach);
     }
 
     /**
@@ -186,16 +354,26 @@ public class StripeController {
      * @return ApiResponse containing the dashboard URL
      */
     @GetMapping("/dashboard-link")
-    public ResponseEntity<ApiResponse<Map<String, String>>> getDashboardLink(@RequestParam String accountId) {
-        try {
-            log.info("Generating dashboard link for account: {}", accountId);
+    public ResponseEntity<ApiResponse<DashboardLinkResponse>> getDashboardLink(@RequestParam String accountId) {
+        try (Deadline.Scope deadline = Deadline.start(LOG_DASHBOARD_LINK, Duration.ofMillis(stripeBudgetMs))) {
+            if (logSampler.shouldLog(LOG_DASHBOARD_LINK)) {
+                log.atInfo().addKeyValue("accountId", accountId).log("Generating dashboard link");
+            }
             String dashboardUrl = stripeService.generateDashboardLink(accountId);
-            return ResponseEntity.ok(ApiResponse.success(Map.of("dashboardUrl", dashboardUrl)));
+            return ResponseEntity.ok(ApiResponse.success(new DashboardLinkResponse(dashboardUrl)));
 
         } catch (StripeException e) {
-            log.error("Failed to generate dashboard link for {}: {}", accountId, e.getMessage());
+            if (Deadline.isTimeout(e)) {
+                return timedOut(LOG_DASHBOARD_LINK, e);
+            }
+            log.error("Failed to generate dashboard link for {}: {}", accountId, e.getMessage(), e);
             return ResponseEntity.internalServerError()
                     .body(ApiResponse.error("Failed to generate dashboard link"));
+        } catch (RuntimeException e) {
+            if (Deadline.isTimeout(e)) {
+                return timedOut(LOG_DASHBOARD_LINK, e);
+            }
+            throw e;
         }
     }
 
@@ -211,9 +389,13 @@ public class StripeController {
      */
     @GetMapping("/check-email")
     public ResponseEntity<ApiResponse<CoachResponse>> checkEmail(@RequestParam String email) {
-        try {
-            log.info("Checking email registration status: {}", email);
-            Coach coach = stripeService.getCoachByEmail(email);
+        email = Coach.normalizeEmail(email);
+        try (Deadline.Scope deadline = Deadline.start(LOG_CHECK_EMAIL, Duration.ofMillis(readBudgetMs))) {
+            if (logSampler.shouldLog(LOG_CHECK_EMAIL)) {
+                log.atInfo().addKeyValue("email", email).log("Checking email registration status");
+            }
+            // Read-only lookup, served from a secondary when available
+            Coach coach = coachReadService.findByEmail(email);
 
             if (coach == null) {
                 // Email not registered in system
@@ -222,21 +404,44 @@ public class StripeController {
             }
 
             // Email is registered, return current status
+            String status;
+            if (coach.getStripeAccountId() == null) {
+                status = "pending"; // Stripe account creation still queued
+            } else {
+                status = coach.getOnboardingComplete() ? "complete" : "incomplete";
+            }
             CoachResponse response = new CoachResponse(
                     coach.getId(),
                     coach.getEmail(),
                     coach.getName(),
                     coach.getStripeAccountId(),
-                    coach.getOnboardingComplete() ? "complete" : "incomplete",
+                    status,
                     true
             );
 
             return ResponseEntity.ok(ApiResponse.success(response));
 
         } catch (Exception e) {
-            log.error("Failed to check email {}: {}", email, e.getMessage());
+            if (Deadline.isTimeout(e)) {
+                return timedOut(LOG_CHECK_EMAIL, e);
+            }
+            log.error("Failed to check email {}: {}", email, e.getMessage(), e);
             return ResponseEntity.internalServerError()
                     .body(ApiResponse.error("Failed to check email"));
         }
     }
+
+    /**
+     * Build the response for a request that ran out of time
+     *
+     * @param <T> Payload type of the endpoint
+     * @param operation Endpoint name
+     * @param e Timeout raised by the deadline or a downstream call
+     * @return 504 response
+     */
+    private <T> ResponseEntity<ApiResponse<T>> timedOut(String operation, Exception e) {
+        log.warn("{} ran out of time: {}", operation, e.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(ApiResponse.error("Request timed out, please retry"));
+    }
 }
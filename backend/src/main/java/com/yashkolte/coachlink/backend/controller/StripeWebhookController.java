@@ -2,53 +2,104 @@ package com.yashkolte.coachlink.backend.controller;
 
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.model.Event;
-import com.stripe.model.Account;
 import com.stripe.net.Webhook;
-import com.yashkolte.coachlink.backend.entity.Coach;
-import com.yashkolte.coachlink.backend.repository.CoachRepository;
+import com.yashkolte.coachlink.backend.profiling.WebhookStageEvent;
+import com.yashkolte.coachlink.backend.service.LogSamplingService;
+import com.yashkolte.coachlink.backend.service.StripeEventHandler;
+import com.yashkolte.coachlink.backend.service.WebhookCoalescingService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
-import java.util.Optional;
-
+/**
+ * Endpoints receiving Stripe webhook deliveries
+ *
+ * Stripe signs each webhook endpoint with its own secret, and events about
+ * connected accounts and events about the platform account go to different
+ * endpoints: - /api/stripe/webhook: the Connect endpoint ("Listen to events on
+ * Connected accounts"), for account.updated, account.application.authorized
+ * and payout.*, verified with stripe.webhook.secret -
+ * /api/stripe/webhook/platform: the platform endpoint, for transfer.*
+ * (transfers are created on the platform account), verified with
+ * stripe.webhook.platform-secret
+ *
+ * Both endpoints hand verified events to the same handler.
+ */
 @RestController
 @RequestMapping("/api/stripe")
 @Slf4j
 public class StripeWebhookController {
 
-    private final CoachRepository coachRepository;
+    private static final String LOG_WEBHOOK = "webhook";
+
+    private final StripeEventHandler stripeEventHandler;
+
+    private final LogSamplingService logSampler;
+
+    private final WebhookCoalescingService coalescingService;
 
+    /**
+     * Signing secret of the Connect webhook endpoint
+     */
     @Value("${stripe.webhook.secret}")
     private String webhookSecret;
 
-    public StripeWebhookController(CoachRepository coachRepository) {
-        this.coachRepository = coachRepository;
+    /**
+     * Signing secret of the platform webhook endpoint; empty refuses platform
+     * deliveries
+     */
+    @Value("${stripe.webhook.platform-secret:}")
+    private String platformWebhookSecret;
+
+    public StripeWebhookController(StripeEventHandler stripeEventHandler,
+            LogSamplingService logSampler,
+            WebhookCoalescingService coalescingService) {
+        this.stripeEventHandler = stripeEventHandler;
+        this.logSampler = logSampler;
+        this.coalescingService = coalescingService;
     }
 
     @PostMapping("/webhook")
     public ResponseEntity<String> handleWebhook(
             @RequestBody String payload,
             @RequestHeader("Stripe-Signature") String sigHeader) {
-        
+        return receive(payload, sigHeader, webhookSecret);
+    }
+
+    @PostMapping("/webhook/platform")
+    public ResponseEntity<String> handlePlatformWebhook(
+            @RequestBody String payload,
+            @RequestHeader("Stripe-Signature") String sigHeader) {
+        if (platformWebhookSecret.isBlank()) {
+            log.error("Received a platform webhook but stripe.webhook.platform-secret is not set");
+            // Stripe retries the delivery once the secret is configured
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Platform webhook not configured");
+        }
+        return receive(payload, sigHeader, platformWebhookSecret);
+    }
+
+    private ResponseEntity<String> receive(String payload, String sigHeader, String secret) {
         try {
-            Event event = Webhook.constructEvent(payload, sigHeader, webhookSecret);
+            Event event = verify(payload, sigHeader, secret);
             
-            log.info("Received Stripe webhook event: {}", event.getType());
+            if (logSampler.shouldLog(LOG_WEBHOOK)) {
+                log.atInfo()
+                        .addKeyValue("eventId", event.getId())
+                        .addKeyValue("type", event.getType())
+                        .log("Received Stripe webhook event");
+            }
             
-            // Handle the event
-            switch (event.getType()) {
-                case "account.updated":
-                    handleAccountUpdated(event);
-                    break;
-                case "account.application.authorized":
-                    handleAccountApplicationAuthorized(event);
-                    break;
-                default:
-                    log.info("Unhandled event type: {}", event.getType());
+            if (coalescingService.accepts(event)) {
+                // Bursts of account snapshots are applied once per window; events lost
+                // before they are applied are replayed by the scheduled backfill
+                coalescingService.submit(event);
+                return ResponseEntity.ok("Webhook queued");
+            }
+
+            if (stripeEventHandler.handle(event, "webhook") == StripeEventHandler.Outcome.ALREADY_PROCESSED) {
+                return ResponseEntity.ok("Webhook already handled");
             }
             
             return ResponseEntity.ok("Webhook handled successfully");
@@ -57,65 +108,28 @@ public class StripeWebhookController {
             log.error("Invalid webhook signature: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid signature");
         } catch (Exception e) {
-            log.error("Error processing webhook: {}", e.getMessage());
+            log.error("Error processing webhook: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Webhook processing failed");
         }
     }
 
-    private void handleAccountUpdated(Event event) {
+    /**
+     * Check the signature and parse the event, as the verify stage of the
+     * webhook JFR events
+     */
+    private Event verify(String payload, String sigHeader, String secret) throws SignatureVerificationException {
+        WebhookStageEvent stage = WebhookStageEvent.start("verify", "webhook");
         try {
-            Account account = (Account) event.getDataObjectDeserializer().getObject().orElse(null);
-            if (account == null) {
-                log.warn("Account object is null in account.updated event");
-                return;
-            }
-
-            String accountId = account.getId();
-            Optional<Coach> coachOpt = coachRepository.findByStripeAccountId(accountId);
-            
-            if (coachOpt.isPresent()) {
-                Coach coach = coachOpt.get();
-                coach.setOnboardingComplete(account.getDetailsSubmitted());
-                coach.setPayoutsEnabled(account.getPayoutsEnabled());
-                coach.setUpdatedAt(LocalDateTime.now());
-                coachRepository.save(coach);
-                
-                log.info("Updated coach {} - onboarding: {}, payouts: {}", 
-                        coach.getEmail(), 
-                        account.getDetailsSubmitted(), 
-                        account.getPayoutsEnabled());
-            } else {
-                log.warn("No coach found for Stripe account ID: {}", accountId);
-            }
-            
-        } catch (Exception e) {
-            log.error("Error handling account.updated event: {}", e.getMessage());
-        }
-    }
-
-    private void handleAccountApplicationAuthorized(Event event) {
-        try {
-            Account account = (Account) event.getDataObjectDeserializer().getObject().orElse(null);
-            if (account == null) {
-                log.warn("Account object is null in account.application.authorized event");
-                return;
-            }
-
-            String accountId = account.getId();
-            Optional<Coach> coachOpt = coachRepository.findByStripeAccountId(accountId);
-            
-            if (coachOpt.isPresent()) {
-                Coach coach = coachOpt.get();
-                coach.setUpdatedAt(LocalDateTime.now());
-                coachRepository.save(coach);
-                
-                log.info("Account application authorized for coach {}", coach.getEmail());
-            } else {
-                log.warn("No coach found for Stripe account ID: {}", accountId);
-            }
-            
-        } catch (Exception e) {
-            log.error("Error handling account.application.authorized event: {}", e.getMessage());
+            Event event = Webhook.constructEvent(payload, sigHeader, secret);
+            stage.setStripeEvent(event.getId(), event.getType());
+            stage.setAccountId(event.getAccount());
+            stage.succeeded();
+            return event;
+        } catch (SignatureVerificationException | RuntimeException e) {
+            stage.failed(e);
+            throw e;
+        } finally {
+            stage.finish();
         }
     }
 }
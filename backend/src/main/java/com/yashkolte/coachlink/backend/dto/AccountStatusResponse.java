@@ -0,0 +1,30 @@
+package com.yashkolte.coachlink.backend.dto;
+
+/**
+ * Data Transfer Object with the onboarding status of one Stripe account
+ *
+ * Returned by check-status and pushed as the payload of status-stream events,
+ * so both carry the same fields.
+ *
+ * @param accountId Stripe account ID
+ * @param detailsSubmitted Whether the coach submitted their details to Stripe
+ * @param payoutsEnabled Whether payouts are enabled for the account
+ * @param onboardingComplete Whether onboarding is complete; same as
+ * detailsSubmitted
+ */
+public record AccountStatusResponse(String accountId, boolean detailsSubmitted, boolean payoutsEnabled,
+        boolean onboardingComplete) {
+
+    /**
+     * Create a status where onboarding completion follows submitted details
+     *
+     * @param accountId Stripe account ID
+     * @param detailsSubmitted Whether details were submitted, null as false
+     * @param payoutsEnabled Whether payouts are enabled, null as false
+     * @return Account status
+     */
+    public static AccountStatusResponse of(String accountId, Boolean detailsSubmitted, Boolean payoutsEnabled) {
+        boolean submitted = Boolean.TRUE.equals(detailsSubmitted);
+        return new AccountStatusResponse(accountId, submitted, Boolean.TRUE.equals(payoutsEnabled), submitted);
+    }
+}
@@ -0,0 +1,53 @@
+package com.yashkolte.coachlink.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object with the status of one account in a batch status
+ * response
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountStatusResult {
+
+    /**
+     * Stripe account ID
+     */
+    private String accountId;
+
+    /**
+     * Whether a coach with this account exists; other fields are null if not
+     */
+    private boolean found;
+
+    /**
+     * Whether the coach completed Stripe onboarding
+     */
+    private Boolean onboardingComplete;
+
+    /**
+     * Whether payouts are enabled for the account
+     */
+    private Boolean payoutsEnabled;
+
+    /**
+     * When the stored status was last written
+     */
+    private LocalDateTime updatedAt;
+
+    /**
+     * Whether the status was fetched from Stripe for this request
+     */
+    private boolean refreshed;
+
+    /**
+     * Why a due refresh failed, in which case the stored status is returned;
+     * null otherwise
+     */
+    private String error;
+}
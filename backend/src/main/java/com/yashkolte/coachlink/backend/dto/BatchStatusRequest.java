@@ -0,0 +1,26 @@
+package com.yashkolte.coachlink.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for batch account status requests
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchStatusRequest {
+
+    /**
+     * Stripe account IDs to check; duplicates are ignored
+     */
+    private List<String> accountIds;
+
+    /**
+     * Whether to refresh every account from Stripe regardless of age
+     */
+    private boolean refresh;
+}
@@ -0,0 +1,92 @@
+package com.yashkolte.coachlink.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object summarizing a bulk coach import
+ *
+ * Returned by the admin import endpoint. Every data row ends up in exactly one
+ * of the imported, duplicateInFile, alreadyRegistered, invalid or failed
+ * counts; rows that were not imported are also listed in errors (up to a cap).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoachImportReport {
+
+    /**
+     * Number of data rows read, excluding the header
+     */
+    private long totalRows;
+
+    /**
+     * Number of coaches inserted
+     */
+    private long imported;
+
+    /**
+     * Rows whose email already appeared earlier in the file
+     */
+    private long duplicateInFile;
+
+    /**
+     * Rows whose email is already registered, including rows registered
+     * concurrently that the insert rejected on the unique email index
+     */
+    private long alreadyRegistered;
+
+    /**
+     * Rows that failed field validation
+     */
+    private long invalid;
+
+    /**
+     * Rows rejected by MongoDB during the insert for any reason other than a
+     * duplicate email
+     */
+    private long failed;
+
+    /**
+     * Stripe account creation jobs queued for imported coaches
+     */
+    private long stripeJobsQueued;
+
+    /**
+     * Per-row errors, capped to keep the response bounded
+     */
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * Whether more errors occurred than are listed
+     */
+    private boolean errorsTruncated;
+
+    /**
+     * A row that was not imported and why
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        /**
+         * 1-based data row number, excluding the header
+         */
+        private long row;
+
+        /**
+         * Email from the row, if present
+         */
+        private String email;
+
+        /**
+         * Reason the row was skipped
+         */
+        private String reason;
+    }
+}
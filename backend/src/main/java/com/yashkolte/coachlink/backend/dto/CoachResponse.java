@@ -42,7 +42,8 @@ public class CoachResponse {
     /**
      * Current onboarding status Possible values: - "complete": Onboarding
      * finished, can accept payments - "incomplete": Onboarding in progress or
-     * not started - "not_registered": Email not found in system
+     * not started - "pending": Registered, Stripe account creation queued -
+     * "not_registered": Email not found in system
      */
     private String status;
 
@@ -0,0 +1,52 @@
+package com.yashkolte.coachlink.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object comparing legacy and compact coach document sizes
+ *
+ * Sampled documents are encoded in both schemas regardless of their stored
+ * form, so the comparison is valid before, during and after the migration.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoachSchemaBenchmark {
+
+    /**
+     * Number of sampled documents
+     */
+    private int sampled;
+
+    /**
+     * Average BSON size of the sampled documents in the legacy schema
+     */
+    private double legacyAvgBytes;
+
+    /**
+     * Average BSON size of the sampled documents in the compact schema
+     */
+    private double compactAvgBytes;
+
+    /**
+     * Relative saving per document, in percent
+     */
+    private double savedPercent;
+
+    /**
+     * Projected data size of the whole collection in the legacy schema
+     */
+    private long projectedLegacyDataSize;
+
+    /**
+     * Projected data size of the whole collection in the compact schema
+     */
+    private long projectedCompactDataSize;
+
+    /**
+     * Current collection statistics, null if unavailable
+     */
+    private CollectionSizeStats collection;
+}
@@ -0,0 +1,65 @@
+package com.yashkolte.coachlink.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Transfer Object summarizing a coach schema migration run
+ *
+ * Every legacy document read is either migrated, skipped because it changed
+ * while being converted (picked up again by the next pass), or failed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoachSchemaMigrationReport {
+
+    /**
+     * Legacy documents read
+     */
+    private long scanned;
+
+    /**
+     * Documents converted to the compact schema
+     */
+    private long migrated;
+
+    /**
+     * Documents modified by another writer between read and conversion
+     */
+    private long changedConcurrently;
+
+    /**
+     * Documents whose conversion was rejected by MongoDB
+     */
+    private long failed;
+
+    /**
+     * Legacy documents left after the run
+     */
+    private long remaining;
+
+    /**
+     * Indexes on legacy field names dropped once no legacy documents remained
+     */
+    private List<String> droppedIndexes = new ArrayList<>();
+
+    /**
+     * Collection statistics before the run, null if unavailable
+     */
+    private CollectionSizeStats before;
+
+    /**
+     * Collection statistics after the run, null if unavailable
+     */
+    private CollectionSizeStats after;
+
+    /**
+     * Duration of the run in milliseconds
+     */
+    private long durationMs;
+}
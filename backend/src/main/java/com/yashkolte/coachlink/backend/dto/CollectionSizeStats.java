@@ -0,0 +1,42 @@
+package com.yashkolte.coachlink.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object with MongoDB storage statistics for a collection
+ *
+ * Taken from collStats. Data and index sizes approximate the working set the
+ * collection needs in the WiredTiger cache.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollectionSizeStats {
+
+    /**
+     * Number of documents
+     */
+    private long count;
+
+    /**
+     * Average uncompressed BSON document size in bytes
+     */
+    private long avgObjSize;
+
+    /**
+     * Total uncompressed size of all documents in bytes
+     */
+    private long dataSize;
+
+    /**
+     * Compressed on-disk size of the documents in bytes
+     */
+    private long storageSize;
+
+    /**
+     * Total size of all indexes in bytes
+     */
+    private long totalIndexSize;
+}
@@ -0,0 +1,9 @@
+package com.yashkolte.coachlink.backend.dto;
+
+/**
+ * Data Transfer Object with a Stripe Express dashboard link
+ *
+ * @param dashboardUrl Single-use login URL of the Express dashboard
+ */
+public record DashboardLinkResponse(String dashboardUrl) {
+}
@@ -0,0 +1,44 @@
+package com.yashkolte.coachlink.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object for onboarding funnel statistics
+ *
+ * Returned by the admin funnel endpoints. Counts come from incrementally
+ * maintained counters rather than a scan of the coaches collection.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FunnelStatsResponse {
+
+    /**
+     * Number of registered coaches
+     */
+    private long registered;
+
+    /**
+     * Number of coaches that completed Stripe onboarding
+     */
+    private long onboarded;
+
+    /**
+     * Number of coaches with payouts enabled
+     */
+    private long payoutsEnabled;
+
+    /**
+     * When the counters last changed, null if never
+     */
+    private LocalDateTime updatedAt;
+
+    /**
+     * When the counters were last recomputed from scratch, null if never
+     */
+    private LocalDateTime lastRecountAt;
+}
@@ -0,0 +1,9 @@
+package com.yashkolte.coachlink.backend.dto;
+
+/**
+ * Data Transfer Object with a Stripe onboarding link
+ *
+ * @param onboardingUrl Single-use URL of the Stripe hosted onboarding flow
+ */
+public record OnboardingLinkResponse(String onboardingUrl) {
+}
@@ -0,0 +1,47 @@
+package com.yashkolte.coachlink.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object describing the on-demand JFR recording
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProfilingRecordingStatus {
+
+    /**
+     * Recording state: NEW, RUNNING, STOPPED or CLOSED; NONE if no recording
+     * was started
+     */
+    private String state;
+
+    /**
+     * JFR settings the recording uses (default or profile)
+     */
+    private String settings;
+
+    /**
+     * When the recording started
+     */
+    private Instant startedAt;
+
+    /**
+     * When the recording stopped or will stop on its own
+     */
+    private Instant stopsAt;
+
+    /**
+     * Maximum size of the recording in bytes
+     */
+    private long maxSizeBytes;
+
+    /**
+     * Bytes recorded so far
+     */
+    private long sizeBytes;
+}
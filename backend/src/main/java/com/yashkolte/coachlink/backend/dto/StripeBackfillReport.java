@@ -0,0 +1,70 @@
+package com.yashkolte.coachlink.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object summarizing a Stripe event backfill run
+ *
+ * Every listed event ends up in exactly one of the alreadyProcessed,
+ * superseded, processed or failed counts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StripeBackfillReport {
+
+    /**
+     * Start of the replayed window (inclusive)
+     */
+    private Instant from;
+
+    /**
+     * End of the replayed window (inclusive)
+     */
+    private Instant to;
+
+    /**
+     * Number of events returned by the Stripe Events API
+     */
+    private long listed;
+
+    /**
+     * Number of distinct Stripe accounts the events refer to
+     */
+    private long accounts;
+
+    /**
+     * Events already handled by a webhook delivery or an earlier run
+     */
+    private long alreadyProcessed;
+
+    /**
+     * account.updated events skipped because a newer snapshot of the same
+     * account was in the window
+     */
+    private long superseded;
+
+    /**
+     * Events handled in this run
+     */
+    private long processed;
+
+    /**
+     * Events that failed and will be retried by the next run
+     */
+    private long failed;
+
+    /**
+     * Checkpoint stored for the next run
+     */
+    private Instant checkpoint;
+
+    /**
+     * Duration of the run in milliseconds
+     */
+    private long durationMs;
+}
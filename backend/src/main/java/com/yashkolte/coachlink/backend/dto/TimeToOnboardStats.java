@@ -0,0 +1,55 @@
+package com.yashkolte.coachlink.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Data Transfer Object with time-to-onboard percentiles
+ *
+ * Covers coaches whose onboarding completed within the date range; the time
+ * is measured from coach creation to their first onboarding completion in the
+ * range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeToOnboardStats {
+
+    /**
+     * First UTC day of the range
+     */
+    private LocalDate from;
+
+    /**
+     * Last UTC day of the range
+     */
+    private LocalDate to;
+
+    /**
+     * Number of coaches that completed onboarding in the range
+     */
+    private long coaches;
+
+    /**
+     * Median time to onboard in milliseconds, null without coaches
+     */
+    private Long p50Ms;
+
+    /**
+     * 90th percentile time to onboard in milliseconds
+     */
+    private Long p90Ms;
+
+    /**
+     * 99th percentile time to onboard in milliseconds
+     */
+    private Long p99Ms;
+
+    /**
+     * Longest time to onboard in milliseconds
+     */
+    private Long maxMs;
+}
@@ -0,0 +1,107 @@
+package com.yashkolte.coachlink.backend.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+
+import java.time.LocalDateTime;
+
+/**
+ * AccountCreationJob Entity representing a queued Stripe account creation
+ *
+ * Jobs form a durable outbox: create-account stores a job and a pending coach
+ * record, and background workers claim jobs, call Stripe and link the new
+ * Stripe account to the coach. A job survives restarts, so a crash never
+ * loses a request or leaves a Stripe account without a coach record.
+ *
+ * The entity tracks: - The coach being registered (email, name) - Queue state
+ * and retry bookkeeping - Worker lease for crash recovery - The idempotency key
+ * sent to Stripe so retries never create duplicate accounts
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "account_creation_jobs")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class AccountCreationJob {
+
+    /**
+     * Queue states of a job
+     */
+    public enum Status {
+        PENDING, IN_PROGRESS, COMPLETED, FAILED
+    }
+
+    /**
+     * Unique identifier for the job (MongoDB ObjectId)
+     */
+    @Id
+    private String id;
+
+    /**
+     * Email of the coach being registered; at most one job per email
+     */
+    @Indexed(unique = true)
+    private String email;
+
+    /**
+     * Display name of the coach being registered
+     */
+    private String name;
+
+    /**
+     * Current queue state
+     */
+    private Status status;
+
+    /**
+     * Number of Stripe calls attempted so far
+     */
+    private int attempts;
+
+    /**
+     * Earliest time a worker may pick up the job (used for retry backoff)
+     */
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Identifier of the worker node holding the job while IN_PROGRESS
+     */
+    private String lockedBy;
+
+    /**
+     * Lease expiry; IN_PROGRESS jobs past this time are reclaimed
+     */
+    private LocalDateTime lockedUntil;
+
+    /**
+     * Incremented each time creation is queued for the email; together with
+     * the email it determines the Stripe idempotency key, which therefore stays
+     * the same across retries of one request
+     */
+    private long generation;
+
+    /**
+     * Stripe account ID once the job has completed
+     */
+    private String stripeAccountId;
+
+    /**
+     * Message of the last failed attempt
+     */
+    private String lastError;
+
+    /**
+     * Timestamp when the job was queued
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Timestamp when the job was last updated
+     */
+    private LocalDateTime updatedAt;
+}
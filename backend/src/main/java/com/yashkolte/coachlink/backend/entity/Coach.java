@@ -4,10 +4,16 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.TypeAlias;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 import org.springframework.data.mongodb.core.index.Indexed;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Locale;
 
 /**
  * Coach Entity representing a coach in the CoachLink platform
@@ -18,13 +24,32 @@ import java.time.LocalDateTime;
  * The entity tracks: - Basic coach information (email, name) - Stripe account
  * integration details - Onboarding and payout status - Audit timestamps for
  * creation and updates
+ *
+ * Documents use a compact storage schema to keep documents, indexes and the
+ * cache footprint small: single-letter field names, onboarding and payout
+ * flags packed into one status bit field, and timestamps as epoch
+ * milliseconds, with a one-letter type alias. The boolean and LocalDateTime accessors translate to and from
+ * the stored form; queries must use the status, created and updated
+ * properties. CoachSchemaMigrationService converts documents written in the
+ * previous schema.
  */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "coaches")
+@TypeAlias("c")
 public class Coach {
 
+    /**
+     * Status bit set when the coach has completed Stripe onboarding
+     */
+    public static final int STATUS_ONBOARDING_COMPLETE = 1;
+
+    /**
+     * Status bit set when payouts are enabled on the Stripe account
+     */
+    public static final int STATUS_PAYOUTS_ENABLED = 2;
+
     /**
      * Unique identifier for the coach (MongoDB ObjectId)
      */
@@ -35,55 +60,176 @@ public class Coach {
      * Coach's email address (used as unique identifier) Indexed for fast
      * lookups during authentication and account verification
      */
-    @Indexed(unique = true)
+    @Indexed(name = "coach_email", unique = true, sparse = true)
+    @Field("e")
     private String email;
 
     /**
      * Coach's display name
      */
+    @Field("n")
     private String name;
 
     /**
      * Stripe Express account ID Links the coach to their Stripe account for
      * payment processing
      */
+    @Indexed(name = "coach_stripe_account", sparse = true)
+    @Field("a")
     private String stripeAccountId;
 
+    /**
+     * Onboarding and payout state as a bit field of the STATUS_ constants
+     */
+    @Field("s")
+    private int status;
+
+    /**
+     * Creation time in epoch milliseconds
+     */
+    @Field("c")
+    private Long created;
+
+    /**
+     * Last update time in epoch milliseconds
+     */
+    @Field("u")
+    private Long updated;
+
+    /**
+     * Constructor for creating a new coach with email and name Initializes
+     * default values for new coach accounts
+     *
+     * @param email Coach's email address
+     * @param name Coach's display name
+     */
+    public Coach(String email, String name) {
+        this.email = email;
+        this.name = name;
+        this.status = 0;
+        this.created = System.currentTimeMillis();
+        this.updated = this.created;
+    }
+
     /**
      * Whether the coach has completed Stripe onboarding true = can accept
      * payments, false = needs to complete onboarding
+     *
+     * @return Onboarding status
      */
-    private Boolean onboardingComplete;
+    @Transient
+    public Boolean getOnboardingComplete() {
+        return (status & STATUS_ONBOARDING_COMPLETE) != 0;
+    }
+
+    /**
+     * Set the onboarding status; null clears it
+     *
+     * @param onboardingComplete New onboarding status
+     */
+    public void setOnboardingComplete(Boolean onboardingComplete) {
+        status = withBit(status, STATUS_ONBOARDING_COMPLETE, onboardingComplete);
+    }
 
     /**
      * Whether payouts are enabled on the Stripe account true = can receive
      * payouts, false = payouts disabled
+     *
+     * @return Payout status
+     */
+    @Transient
+    public Boolean getPayoutsEnabled() {
+        return (status & STATUS_PAYOUTS_ENABLED) != 0;
+    }
+
+    /**
+     * Set the payout status; null clears it
+     *
+     * @param payoutsEnabled New payout status
      */
-    private Boolean payoutsEnabled;
+    public void setPayoutsEnabled(Boolean payoutsEnabled) {
+        status = withBit(status, STATUS_PAYOUTS_ENABLED, payoutsEnabled);
+    }
 
     /**
      * Timestamp when the coach record was created
+     *
+     * @return Creation time in the system time zone, null if unknown
+     */
+    @Transient
+    public LocalDateTime getCreatedAt() {
+        return toLocalDateTime(created);
+    }
+
+    /**
+     * Set the creation timestamp
+     *
+     * @param createdAt Creation time in the system time zone
      */
-    private LocalDateTime createdAt;
+    public void setCreatedAt(LocalDateTime createdAt) {
+        created = toEpochMillis(createdAt);
+    }
 
     /**
      * Timestamp when the coach record was last updated
+     *
+     * @return Last update time in the system time zone, null if unknown
      */
-    private LocalDateTime updatedAt;
+    @Transient
+    public LocalDateTime getUpdatedAt() {
+        return toLocalDateTime(updated);
+    }
 
     /**
-     * Constructor for creating a new coach with email and name Initializes
-     * default values for new coach accounts
+     * Set the last update timestamp
      *
-     * @param email Coach's email address
-     * @param name Coach's display name
+     * @param updatedAt Last update time in the system time zone
      */
-    public Coach(String email, String name) {
-        this.email = email;
-        this.name = name;
-        this.onboardingComplete = false;
-        this.payoutsEnabled = false;
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        updated = toEpochMillis(updatedAt);
+    }
+
+    /**
+     * Normalize an email address for storage and lookups
+     *
+     * Emails are stored trimmed and lower-cased, so lookups, the unique email
+     * index, the per-email lock and the Stripe idempotency key all agree on
+     * which coach an address belongs to.
+     *
+     * @param email Email address as entered
+     * @return Normalized email, null if email is null
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Compute the status bit field for a pair of flags
+     *
+     * @param onboardingComplete Onboarding status, null counts as false
+     * @param payoutsEnabled Payout status, null counts as false
+     * @return Status bits
+     */
+    public static int statusOf(Boolean onboardingComplete, Boolean payoutsEnabled) {
+        return withBit(withBit(0, STATUS_ONBOARDING_COMPLETE, onboardingComplete),
+                STATUS_PAYOUTS_ENABLED, payoutsEnabled);
+    }
+
+    /**
+     * Convert a timestamp to the stored epoch milliseconds
+     *
+     * @param value Time in the system time zone
+     * @return Epoch milliseconds, null if value is null
+     */
+    public static Long toEpochMillis(LocalDateTime value) {
+        return value == null ? null : value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(Long millis) {
+        return millis == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static int withBit(int bits, int bit, Boolean set) {
+        return Boolean.TRUE.equals(set) ? bits | bit : bits & ~bit;
     }
 }
@@ -0,0 +1,106 @@
+package com.yashkolte.coachlink.backend.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.Date;
+
+/**
+ * CoachStatusTransition Entity recording one onboarding or payout status
+ * change of a coach
+ *
+ * Documents are append-only and stored in a MongoDB time-series collection
+ * with the Stripe account ID as meta field, so one coach's history is bucketed
+ * together and expires as a whole after the retention period. Field names are
+ * single letters, as in the compact coach schema.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "coach_status_history")
+public class CoachStatusTransition {
+
+    /**
+     * Where a status change was observed
+     */
+    public enum Source {
+        /**
+         * A single-account status check
+         */
+        CHECK,
+        /**
+         * An account.updated webhook
+         */
+        WEBHOOK,
+        /**
+         * A batch status refresh
+         */
+        BATCH
+    }
+
+    @Id
+    private String id;
+
+    /**
+     * When the change was applied
+     */
+    @Field("t")
+    private Date at;
+
+    /**
+     * Stripe account ID of the coach; the time-series meta field
+     */
+    @Field("m")
+    private String accountId;
+
+    /**
+     * Status bits after the change (see Coach.STATUS_ONBOARDING_COMPLETE and
+     * Coach.STATUS_PAYOUTS_ENABLED)
+     */
+    @Field("s")
+    private int status;
+
+    /**
+     * Status bits before the change
+     */
+    @Field("p")
+    private int previous;
+
+    /**
+     * Milliseconds between the coach's creation and the change, null if the
+     * creation time is unknown
+     */
+    @Field("d")
+    private Long sinceCreatedMs;
+
+    /**
+     * Where the change was observed
+     */
+    @Field("o")
+    private Source source;
+
+    /**
+     * Whether onboarding was complete after the change
+     *
+     * @return Onboarding status
+     */
+    @Transient
+    public boolean getOnboardingComplete() {
+        return (status & Coach.STATUS_ONBOARDING_COMPLETE) != 0;
+    }
+
+    /**
+     * Whether payouts were enabled after the change
+     *
+     * @return Payout status
+     */
+    @Transient
+    public boolean getPayoutsEnabled() {
+        return (status & Coach.STATUS_PAYOUTS_ENABLED) != 0;
+    }
+}
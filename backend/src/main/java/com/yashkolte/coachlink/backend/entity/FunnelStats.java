@@ -0,0 +1,57 @@
+package com.yashkolte.coachlink.backend.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * FunnelStats Entity holding onboarding funnel counters
+ *
+ * A single document per funnel is kept up to date with $inc operations
+ * whenever a coach is created or changes onboarding or payout state, so the
+ * funnel can be read with one lookup by ID instead of scanning coaches.
+ *
+ * The entity tracks: - Registered coaches - Coaches that completed onboarding
+ * - Coaches with payouts enabled - When the counters were last recomputed
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "coach_funnel_stats")
+public class FunnelStats {
+
+    /**
+     * Identifier of the funnel document
+     */
+    @Id
+    private String id;
+
+    /**
+     * Number of coach records
+     */
+    private long registered;
+
+    /**
+     * Number of coaches with onboardingComplete = true
+     */
+    private long onboarded;
+
+    /**
+     * Number of coaches with payoutsEnabled = true
+     */
+    private long payoutsEnabled;
+
+    /**
+     * Timestamp of the last counter change
+     */
+    private LocalDateTime updatedAt;
+
+    /**
+     * Timestamp of the last full recount, null if never recounted
+     */
+    private LocalDateTime lastRecountAt;
+}
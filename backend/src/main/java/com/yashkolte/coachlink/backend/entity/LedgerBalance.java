@@ -0,0 +1,40 @@
+package com.yashkolte.coachlink.backend.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * LedgerBalance Entity holding a coach's all-time ledger totals in one
+ * currency
+ *
+ * Updated with $inc for every recorded LedgerEntry, so balance views read one
+ * document per currency instead of querying Stripe or summing entries.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@Document(collection = "coach_ledger_balances")
+@CompoundIndex(name = "account", def = "{'accountId': 1}")
+public class LedgerBalance extends LedgerTotals {
+
+    /**
+     * accountId:currency
+     */
+    @Id
+    private String id;
+
+    /**
+     * Build the document ID of a balance
+     *
+     * @param accountId Stripe account ID
+     * @param currency Currency code
+     * @return Balance ID
+     */
+    public static String idOf(String accountId, String currency) {
+        return accountId + ":" + currency;
+    }
+}
@@ -0,0 +1,46 @@
+package com.yashkolte.coachlink.backend.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * LedgerDailyRollup Entity holding a coach's ledger totals for one UTC day in
+ * one currency
+ *
+ * Updated with $inc alongside LedgerBalance, so finance reports over a date
+ * range read one rollup per day from the account/day index.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@Document(collection = "coach_ledger_daily")
+@CompoundIndex(name = "account_day", def = "{'accountId': 1, 'day': 1}")
+public class LedgerDailyRollup extends LedgerTotals {
+
+    /**
+     * accountId:currency:day
+     */
+    @Id
+    private String id;
+
+    /**
+     * UTC day (yyyy-MM-dd)
+     */
+    private String day;
+
+    /**
+     * Build the document ID of a rollup
+     *
+     * @param accountId Stripe account ID
+     * @param currency Currency code
+     * @param day UTC day (yyyy-MM-dd)
+     * @return Rollup ID
+     */
+    public static String idOf(String accountId, String currency, String day) {
+        return accountId + ":" + currency + ":" + day;
+    }
+}
@@ -0,0 +1,128 @@
+package com.yashkolte.coachlink.backend.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+
+import java.util.Date;
+
+/**
+ * LedgerEntry Entity recording one money movement for a coach
+ *
+ * Entries are append-only and keyed by the Stripe event they came from, or by
+ * the reversal for transfer reversals, so a movement is never counted twice
+ * even after its processed-event record has expired. The pre-aggregated LedgerBalance and LedgerDailyRollup documents are
+ * derived from these entries and can be rebuilt from them.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "coach_ledger_entries")
+@CompoundIndex(name = "account_occurred", def = "{'accountId': 1, 'occurredAt': 1}")
+public class LedgerEntry {
+
+    /**
+     * Kinds of money movement, with the aggregate counter each one adds to and
+     * its sign in the net balance
+     */
+    public enum Type {
+        /**
+         * Platform transferred funds to the coach (transfer.created)
+         */
+        TRANSFER("transferred", 1),
+        /**
+         * Part or all of a transfer was taken back (transfer.reversed)
+         */
+        TRANSFER_REVERSAL("reversed", -1),
+        /**
+         * Coach balance was paid out to the bank (payout.created)
+         */
+        PAYOUT("paidOut", -1),
+        /**
+         * A payout failed or was canceled and the funds returned
+         * (payout.failed, payout.canceled)
+         */
+        PAYOUT_RETURNED("payoutReturned", 1),
+        /**
+         * A payout arrived at the bank (payout.paid); no balance change
+         */
+        PAYOUT_SETTLED("payoutSettled", 0);
+
+        private final String counter;
+
+        private final int sign;
+
+        Type(String counter, int sign) {
+            this.counter = counter;
+            this.sign = sign;
+        }
+
+        /**
+         * Field of the aggregate documents this type adds its amount to
+         *
+         * @return Counter field name
+         */
+        public String counter() {
+            return counter;
+        }
+
+        /**
+         * Effect on the net balance: 1, -1 or 0
+         *
+         * @return Sign applied to the amount
+         */
+        public int sign() {
+            return sign;
+        }
+    }
+
+    /**
+     * Stripe event ID (evt_...) the entry was recorded from, or the reversal
+     * ID (trr_...) for TRANSFER_REVERSAL entries
+     */
+    @Id
+    private String id;
+
+    /**
+     * Connected Stripe account of the coach
+     */
+    private String accountId;
+
+    /**
+     * Kind of movement
+     */
+    private Type type;
+
+    /**
+     * Stripe transfer or payout ID (tr_..., po_...)
+     */
+    private String objectId;
+
+    /**
+     * Amount in the currency's smallest unit, always positive
+     */
+    private long amount;
+
+    /**
+     * Three-letter ISO currency code, lowercase
+     */
+    private String currency;
+
+    /**
+     * UTC day of the Stripe event (yyyy-MM-dd), the daily rollup key
+     */
+    private String day;
+
+    /**
+     * When the Stripe event was created
+     */
+    private Date occurredAt;
+
+    /**
+     * When the entry was recorded
+     */
+    private Date recordedAt;
+}
@@ -0,0 +1,93 @@
+package com.yashkolte.coachlink.backend.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Aggregated ledger counters shared by per-coach balances and daily rollups
+ *
+ * Amounts are in the currency's smallest unit. Counters are maintained with
+ * $inc as entries are recorded; net is the running balance change:
+ * transferred - reversed - paidOut + payoutReturned.
+ */
+@Data
+public abstract class LedgerTotals {
+
+    /**
+     * Connected Stripe account of the coach
+     */
+    private String accountId;
+
+    /**
+     * Three-letter ISO currency code, lowercase
+     */
+    private String currency;
+
+    /**
+     * Total transferred to the coach
+     */
+    private long transferred;
+
+    /**
+     * Total taken back by transfer reversals
+     */
+    private long reversed;
+
+    /**
+     * Total of payouts created
+     */
+    private long paidOut;
+
+    /**
+     * Total of payouts that failed or were canceled
+     */
+    private long payoutReturned;
+
+    /**
+     * Total of payouts that arrived at the bank
+     */
+    private long payoutSettled;
+
+    /**
+     * Net balance change
+     */
+    private long net;
+
+    /**
+     * Number of ledger entries counted
+     */
+    private long entries;
+
+    /**
+     * Time of the newest Stripe event counted
+     */
+    private Date lastEventAt;
+
+    /**
+     * Timestamp of the last counter change
+     */
+    private LocalDateTime updatedAt;
+
+    /**
+     * Add one entry to the counters, as the incremental update does
+     *
+     * @param entry Ledger entry
+     */
+    public void add(LedgerEntry entry) {
+        long amount = entry.getAmount();
+        switch (entry.getType()) {
+            case TRANSFER -> transferred += amount;
+            case TRANSFER_REVERSAL -> reversed += amount;
+            case PAYOUT -> paidOut += amount;
+            case PAYOUT_RETURNED -> payoutReturned += amount;
+            case PAYOUT_SETTLED -> payoutSettled += amount;
+        }
+        net += entry.getType().sign() * amount;
+        entries++;
+        if (lastEventAt == null || entry.getOccurredAt().after(lastEventAt)) {
+            lastEventAt = entry.getOccurredAt();
+        }
+    }
+}
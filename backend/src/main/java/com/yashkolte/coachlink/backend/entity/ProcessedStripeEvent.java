@@ -0,0 +1,52 @@
+package com.yashkolte.coachlink.backend.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+/**
+ * ProcessedStripeEvent Entity recording a Stripe event that was applied
+ *
+ * Written after a webhook delivery or a backfill run handles an event, so
+ * redelivered and replayed events are skipped. Records expire after Stripe's
+ * 30-day event retention plus a margin, since older events can no longer be
+ * listed or redelivered.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "processed_stripe_events")
+public class ProcessedStripeEvent {
+
+    /**
+     * Stripe event ID (evt_...)
+     */
+    @Id
+    private String id;
+
+    /**
+     * Stripe event type, e.g. account.updated
+     */
+    private String type;
+
+    /**
+     * Stripe account the event refers to
+     */
+    private String accountId;
+
+    /**
+     * Where the event was received from: webhook or backfill
+     */
+    private String source;
+
+    /**
+     * Timestamp when the event was handled; drives the TTL index
+     */
+    @Indexed(expireAfter = "35d")
+    private Date processedAt;
+}
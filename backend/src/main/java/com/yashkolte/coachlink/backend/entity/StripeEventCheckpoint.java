@@ -0,0 +1,56 @@
+package com.yashkolte.coachlink.backend.entity;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * StripeEventCheckpoint Entity holding the progress of the event backfill
+ *
+ * A backfill run lists Stripe events created at or after the checkpoint and
+ * advances it once every event in the window was handled. When a run has
+ * failures the checkpoint stops at the oldest failed event, so the next run
+ * retries it; events that already succeeded are skipped by event ID.
+ *
+ * The document doubles as a lease: a run claims it with findAndModify before
+ * reading the checkpoint and only advances it while still holding the claim,
+ * so concurrent runs on different nodes cannot overwrite each other's
+ * progress.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "stripe_event_checkpoints")
+public class StripeEventCheckpoint {
+
+    /**
+     * Identifier of the checkpoint document
+     */
+    @Id
+    private String id;
+
+    /**
+     * Creation time of the oldest event the next run must look at
+     */
+    private Instant createdFrom;
+
+    /**
+     * Timestamp of the last checkpoint change
+     */
+    private LocalDateTime updatedAt;
+
+    /**
+     * Run holding the lease, null when no run is in progress
+     */
+    private String lockedBy;
+
+    /**
+     * Time after which the lease may be taken over by another run
+     */
+    private LocalDateTime lockedUntil;
+}
@@ -0,0 +1,162 @@
+package com.yashkolte.coachlink.backend.filter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive limit on the number of requests processed concurrently
+ *
+ * The limit is learned from observed latency using a gradient algorithm: -
+ * A long-term average RTT tracks the latency the service has when healthy -
+ * A short-term average RTT tracks current latency - When current latency
+ * rises above the long-term baseline (e.g. Stripe slows down), the gradient
+ * drops below 1 and the limit shrinks; when they match, the limit grows by a
+ * small queue allowance
+ *
+ * Requests beyond the limit are rejected immediately instead of queueing in
+ * Tomcat until they time out. The limit only grows while the service is
+ * actually using at least half of it, so idle periods do not inflate it.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    /**
+     * Allowed ratio of short-term to long-term RTT before the limit shrinks
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * Weight of each new limit estimate
+     */
+    private static final double SMOOTHING = 0.2;
+
+    /**
+     * Samples averaged by the long-term and short-term RTT estimates
+     */
+    private static final int LONG_WINDOW = 600;
+    private static final int SHORT_WINDOW = 10;
+
+    private final String name;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile double limit;
+
+    // Guarded by this
+    private double longRttNanos;
+    private double shortRttNanos;
+    private long samples;
+
+    /**
+     * Create a limiter
+     *
+     * @param name Lane name used in metrics and logs
+     * @param initialLimit Starting concurrency limit
+     * @param minLimit Lowest limit the algorithm may reach
+     * @param maxLimit Highest limit the algorithm may reach
+     */
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Try to admit a request
+     *
+     * @return true if admitted; the caller must then call release exactly once
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release an admitted request and feed its latency to the algorithm
+     *
+     * @param rttNanos Time the request spent being processed
+     */
+    public void release(long rttNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(rttNanos, inFlightBefore);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtCompletion) {
+        if (samples++ == 0) {
+            longRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+            return;
+        }
+        longRttNanos += (rttNanos - longRttNanos) * 2.0 / (LONG_WINDOW + 1);
+        shortRttNanos += (rttNanos - shortRttNanos) * 2.0 / (SHORT_WINDOW + 1);
+
+        if (shortRttNanos <= 0) {
+            return;
+        }
+
+        // After a sustained latency increase, let the baseline follow faster
+        if (longRttNanos / shortRttNanos > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        if (inFlightAtCompletion < current / 2) {
+            return; // App-limited: no evidence the limit is too low
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double estimate = current * gradient + Math.sqrt(current);
+        double next = current * (1 - SMOOTHING) + estimate * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    /**
+     * Lane name
+     *
+     * @return Name used in metrics and logs
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Current concurrency limit
+     *
+     * @return Admitted requests allowed in flight
+     */
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Requests currently in flight
+     *
+     * @return In-flight request count
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Requests rejected since startup
+     *
+     * @return Rejected request count
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
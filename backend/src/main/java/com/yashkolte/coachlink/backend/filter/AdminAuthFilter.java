@@ -0,0 +1,94 @@
+package com.yashkolte.coachlink.backend.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashkolte.coachlink.backend.dto.ApiResponse;
+import com.yashkolte.coachlink.backend.service.LogSamplingService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Servlet filter requiring the admin token on admin endpoints
+ *
+ * Requests must send Authorization: Bearer &lt;app.admin.token&gt;. The token
+ * is compared through SHA-256 digests with MessageDigest.isEqual, so the
+ * comparison time reveals neither the token's content nor its length. Without
+ * a configured token every admin request is refused, so a deployment that
+ * forgets to set one fails closed. Refused requests get 401 before any
+ * controller, MongoDB or Stripe work is done.
+ */
+@Slf4j
+public class AdminAuthFilter extends OncePerRequestFilter {
+
+    private static final String LOG_REJECTED = "admin.rejected";
+
+    private static final String BEARER = "Bearer ";
+
+    private final byte[] tokenDigest;
+
+    private final byte[] rejectionBody;
+
+    private final LogSamplingService logSampler;
+
+    /**
+     * Create the filter
+     *
+     * @param token Admin token, or null/empty to refuse every admin request
+     * @param objectMapper Mapper used to pre-render the rejection body
+     * @param logSampler Sampler keeping rejection logs bounded under probing
+     */
+    public AdminAuthFilter(String token, ObjectMapper objectMapper, LogSamplingService logSampler)
+            throws IOException {
+        this.tokenDigest = token == null || token.isEmpty() ? null : digest(token);
+        this.rejectionBody = objectMapper.writeValueAsBytes(ApiResponse.error("Admin authentication required"));
+        this.logSampler = logSampler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAuthorized(request.getHeader(HttpHeaders.AUTHORIZATION))) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (logSampler.shouldLog(LOG_REJECTED)) {
+            log.atWarn()
+                    .addKeyValue("path", request.getRequestURI())
+                    .addKeyValue("client", request.getRemoteAddr())
+                    .log(tokenDigest == null
+                            ? "Rejected admin request; app.admin.token is not set"
+                            : "Rejected admin request without a valid token");
+        }
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(rejectionBody.length);
+        response.getOutputStream().write(rejectionBody);
+    }
+
+    private boolean isAuthorized(String authorization) {
+        if (tokenDigest == null || authorization == null || !authorization.startsWith(BEARER)) {
+            return false;
+        }
+        return MessageDigest.isEqual(tokenDigest, digest(authorization.substring(BEARER.length())));
+    }
+
+    private static byte[] digest(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.yashkolte.coachlink.backend.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashkolte.coachlink.backend.dto.ApiResponse;
+import com.yashkolte.coachlink.backend.service.LogSamplingService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Servlet filter applying per-client rate limits to public endpoints
+ *
+ * Each limited path has its own ClientRateLimiter. Clients are identified by
+ * the configured header (for deployments where a gateway validates API keys
+ * and sets the header) and otherwise by remote address. The header is taken as
+ * is, so it must never come from the client itself: a client reaching the
+ * application directly could send a new value with every request. The remote
+ * address is only the client's once forwarded headers from trusted proxies
+ * have been applied (server.forward-headers-strategy, with
+ * server.tomcat.remoteip.internal-proxies listing the proxies); the filter
+ * must run after that. Requests over the limit get 429 with a
+ * Retry-After header before any controller, MongoDB or Stripe work is done.
+ * Requests matching the bypass predicate (startup warm-up) are not limited.
+ */
+@Slf4j
+public class ClientRateLimitFilter extends OncePerRequestFilter {
+
+    private static final String LOG_REJECTED = "ratelimit.rejected";
+
+    private final Map<String, ClientRateLimiter> limitersByPath;
+
+    private final String clientHeader;
+
+    private final byte[] rejectionBody;
+
+    private final LogSamplingService logSampler;
+
+    private final Predicate<HttpServletRequest> bypass;
+
+    /**
+     * Create the filter
+     *
+     * @param limitersByPath Limiter for each exact request path
+     * @param clientHeader Header identifying the client, set by the gateway, or
+     * null to always use the remote address
+     * @param objectMapper Mapper used to pre-render the rejection body
+     * @param logSampler Sampler keeping rejection logs bounded under abuse
+     * @param bypass Requests exempt from limiting
+     */
+    public ClientRateLimitFilter(Map<String, ClientRateLimiter> limitersByPath,
+            String clientHeader,
+            ObjectMapper objectMapper,
+            LogSamplingService logSampler,
+            Predicate<HttpServletRequest> bypass) throws IOException {
+        this.limitersByPath = limitersByPath;
+        this.clientHeader = clientHeader;
+        this.rejectionBody = objectMapper.writeValueAsBytes(
+                ApiResponse.error("Too many requests, please retry later"));
+        this.logSampler = logSampler;
+        this.bypass = bypass;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limitersByPath.containsKey(path(request)) || bypass.test(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ClientRateLimiter limiter = limitersByPath.get(path(request));
+        String client = clientOf(request);
+        long waitNanos = limiter.tryAcquire(client);
+        if (waitNanos > 0) {
+            reject(response, limiter, client, waitNanos);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (clientHeader != null) {
+            String key = request.getHeader(clientHeader);
+            if (key != null && !key.isEmpty()) {
+                return key;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, ClientRateLimiter limiter, String client, long waitNanos)
+            throws IOException {
+        if (logSampler.shouldLog(LOG_REJECTED)) {
+            log.atWarn()
+                    .addKeyValue("endpoint", limiter.getName())
+                    .addKeyValue("client", client)
+                    .log("Rejected request above client rate limit");
+        }
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        long retryAfterSeconds = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(rejectionBody.length);
+        response.getOutputStream().write(rejectionBody);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
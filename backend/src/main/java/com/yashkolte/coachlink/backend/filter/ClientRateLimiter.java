@@ -0,0 +1,119 @@
+package com.yashkolte.coachlink.backend.filter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client token-bucket rate limit for one endpoint
+ *
+ * Each client has a GCRA bucket: a single AtomicLong holding the theoretical
+ * arrival time of its next allowed request, advanced by one emission interval
+ * per request with a CAS. Buckets live in a ConcurrentHashMap, whose reads are
+ * lock-free and whose writes lock only one hash bin, so the check is a map
+ * lookup, System.nanoTime() and one CAS.
+ *
+ * A bucket whose theoretical arrival time has passed is full and behaves
+ * exactly like a missing one, so evictIdle() drops such entries without
+ * changing any client's limit. When maxClients distinct clients are tracked,
+ * further new clients share one overflow bucket until eviction frees room;
+ * address spraying can then only exhaust that shared bucket.
+ */
+public class ClientRateLimiter {
+
+    private final String name;
+
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    private final int maxClients;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Create a limiter
+     *
+     * @param name Endpoint name used in metrics and logs
+     * @param perSecond Sustained requests per second and client
+     * @param burst Requests a client may send back-to-back
+     * @param maxClients Maximum number of clients tracked individually
+     */
+    public ClientRateLimiter(String name, double perSecond, int burst, int maxClients) {
+        this.name = name;
+        this.intervalNanos = (long) (1_000_000_000L / perSecond);
+        this.burstNanos = intervalNanos * Math.max(0, burst - 1);
+        this.maxClients = maxClients;
+    }
+
+    /**
+     * Try to admit a request from a client
+     *
+     * @param client Client key, e.g. IP address or API key
+     * @return 0 if admitted, otherwise nanoseconds until the client may retry
+     */
+    public long tryAcquire(String client) {
+        long now = System.nanoTime();
+        AtomicLong bucket = buckets.get(client);
+        if (bucket == null) {
+            bucket = buckets.size() < maxClients
+                    ? buckets.computeIfAbsent(client, key -> new AtomicLong(now))
+                    : overflow;
+        }
+        while (true) {
+            long tat = bucket.get();
+            long next = (tat - now < 0 ? now : tat) + intervalNanos;
+            long wait = next - now - burstNanos - intervalNanos;
+            if (wait > 0) {
+                rejected.increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drop buckets of clients that have been idle long enough to be full again
+     *
+     * @return Number of buckets removed
+     */
+    public int evictIdle() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        return before - buckets.size();
+    }
+
+    /**
+     * Endpoint name
+     *
+     * @return Name used in metrics and logs
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Number of clients currently tracked
+     *
+     * @return Tracked client count
+     */
+    public int getTrackedClients() {
+        return buckets.size();
+    }
+
+    /**
+     * Total number of rejected requests
+     *
+     * @return Rejection count
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,129 @@
+package com.yashkolte.coachlink.backend.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashkolte.coachlink.backend.dto.ApiResponse;
+import com.yashkolte.coachlink.backend.service.LogSamplingService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Servlet filter shedding API load above the adaptive concurrency limit
+ *
+ * Requests are admitted through one of two lanes: - The webhook lane for
+ * Stripe webhook deliveries, so a backlog of user traffic can never starve
+ * webhook processing - The API lane for everything else under /api
+ *
+ * Rejected requests get 503 with a Retry-After header straight away. Paths
+ * that hold a request open for a long time by design (SSE streams, exports,
+ * imports) are excluded, since their duration says nothing about load, as are
+ * startup warm-up requests, whose cold latencies would skew the limit.
+ */
+@Slf4j
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String WEBHOOK_PATH = "/api/stripe/webhook";
+
+    private static final String LOG_REJECTED = "limiter.rejected";
+
+    private final AdaptiveConcurrencyLimiter apiLimiter;
+
+    private final AdaptiveConcurrencyLimiter webhookLimiter;
+
+    private final List<String> excludedPaths;
+
+    private final int retryAfterSeconds;
+
+    private final byte[] rejectionBody;
+
+    private final LogSamplingService logSampler;
+
+    private final Predicate<HttpServletRequest> bypass;
+
+    /**
+     * Create the filter
+     *
+     * @param apiLimiter Limiter for general API requests
+     * @param webhookLimiter Limiter for Stripe webhook deliveries
+     * @param excludedPaths Path prefixes that bypass limiting
+     * @param retryAfterSeconds Value of the Retry-After header on rejection
+     * @param objectMapper Mapper used to pre-render the rejection body
+     * @param logSampler Sampler keeping rejection logs bounded under overload
+     * @param bypass Requests exempt from limiting
+     */
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter apiLimiter,
+            AdaptiveConcurrencyLimiter webhookLimiter,
+            List<String> excludedPaths,
+            int retryAfterSeconds,
+            ObjectMapper objectMapper,
+            LogSamplingService logSampler,
+            Predicate<HttpServletRequest> bypass) throws IOException {
+        this.apiLimiter = apiLimiter;
+        this.webhookLimiter = webhookLimiter;
+        this.excludedPaths = excludedPaths;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.rejectionBody = objectMapper.writeValueAsBytes(
+                ApiResponse.error("Server is busy, please retry shortly"));
+        this.logSampler = logSampler;
+        this.bypass = bypass;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (bypass.test(request)) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String excluded : excludedPaths) {
+            if (path.startsWith(excluded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        AdaptiveConcurrencyLimiter limiter = path.startsWith(WEBHOOK_PATH) ? webhookLimiter : apiLimiter;
+
+        if (!limiter.tryAcquire()) {
+            reject(response, limiter);
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private void reject(HttpServletResponse response, AdaptiveConcurrencyLimiter limiter) throws IOException {
+        // Rejections come in floods during overload; the sampler reports suppressed counts
+        if (logSampler.shouldLog(LOG_REJECTED)) {
+            log.atWarn()
+                    .addKeyValue("lane", limiter.getName())
+                    .addKeyValue("inFlight", limiter.getInFlight())
+                    .addKeyValue("limit", limiter.getLimit())
+                    .log("Rejected request above concurrency limit");
+        }
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Integer.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(rejectionBody.length);
+        response.getOutputStream().write(rejectionBody);
+    }
+}
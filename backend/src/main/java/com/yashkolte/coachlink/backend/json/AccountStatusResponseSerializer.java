@@ -0,0 +1,43 @@
+package com.yashkolte.coachlink.backend.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.yashkolte.coachlink.backend.dto.AccountStatusResponse;
+
+import java.io.IOException;
+
+/**
+ * Hand-written serializer for AccountStatusResponse, the payload of
+ * check-status and of the status events pushed after each account webhook
+ */
+public class AccountStatusResponseSerializer extends StdSerializer<AccountStatusResponse> {
+
+    private static final SerializedString ACCOUNT_ID = new SerializedString("accountId");
+
+    private static final SerializedString DETAILS_SUBMITTED = new SerializedString("detailsSubmitted");
+
+    private static final SerializedString PAYOUTS_ENABLED = new SerializedString("payoutsEnabled");
+
+    private static final SerializedString ONBOARDING_COMPLETE = new SerializedString("onboardingComplete");
+
+    public AccountStatusResponseSerializer() {
+        super(AccountStatusResponse.class);
+    }
+
+    @Override
+    public void serialize(AccountStatusResponse value, JsonGenerator gen, SerializerProvider provider)
+            throws IOException {
+        gen.writeStartObject(value);
+        gen.writeFieldName(ACCOUNT_ID);
+        gen.writeString(value.accountId());
+        gen.writeFieldName(DETAILS_SUBMITTED);
+        gen.writeBoolean(value.detailsSubmitted());
+        gen.writeFieldName(PAYOUTS_ENABLED);
+        gen.writeBoolean(value.payoutsEnabled());
+        gen.writeFieldName(ONBOARDING_COMPLETE);
+        gen.writeBoolean(value.onboardingComplete());
+        gen.writeEndObject();
+    }
+}
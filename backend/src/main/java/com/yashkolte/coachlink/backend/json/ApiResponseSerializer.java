@@ -0,0 +1,48 @@
+package com.yashkolte.coachlink.backend.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.yashkolte.coachlink.backend.dto.ApiResponse;
+
+import java.io.IOException;
+
+/**
+ * Hand-written serializer for the ApiResponse wrapper
+ *
+ * Writes success, message and data in the same order and form as the default
+ * bean serializer, but with direct getter calls and pre-encoded field names.
+ * The payload is written with the serializer Jackson has cached for its
+ * runtime class.
+ */
+@SuppressWarnings("rawtypes")
+public class ApiResponseSerializer extends StdSerializer<ApiResponse> {
+
+    private static final SerializedString SUCCESS = new SerializedString("success");
+
+    private static final SerializedString MESSAGE = new SerializedString("message");
+
+    private static final SerializedString DATA = new SerializedString("data");
+
+    public ApiResponseSerializer() {
+        super(ApiResponse.class);
+    }
+
+    @Override
+    public void serialize(ApiResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        gen.writeFieldName(SUCCESS);
+        gen.writeBoolean(value.isSuccess());
+        gen.writeFieldName(MESSAGE);
+        gen.writeString(value.getMessage());
+        gen.writeFieldName(DATA);
+        Object data = value.getData();
+        if (data == null) {
+            provider.defaultSerializeNull(gen);
+        } else {
+            provider.findTypedValueSerializer(data.getClass(), true, null).serialize(data, gen, provider);
+        }
+        gen.writeEndObject();
+    }
+}
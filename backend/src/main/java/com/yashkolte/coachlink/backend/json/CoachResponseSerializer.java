@@ -0,0 +1,53 @@
+package com.yashkolte.coachlink.backend.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.yashkolte.coachlink.backend.dto.CoachResponse;
+
+import java.io.IOException;
+
+/**
+ * Hand-written serializer for CoachResponse, the payload of create-account
+ * and check-email
+ *
+ * Output matches the default bean serializer field for field, including the
+ * "registered" name Jackson derives from the isRegistered() getter.
+ */
+public class CoachResponseSerializer extends StdSerializer<CoachResponse> {
+
+    private static final SerializedString ID = new SerializedString("id");
+
+    private static final SerializedString EMAIL = new SerializedString("email");
+
+    private static final SerializedString NAME = new SerializedString("name");
+
+    private static final SerializedString ACCOUNT_ID = new SerializedString("accountId");
+
+    private static final SerializedString STATUS = new SerializedString("status");
+
+    private static final SerializedString REGISTERED = new SerializedString("registered");
+
+    public CoachResponseSerializer() {
+        super(CoachResponse.class);
+    }
+
+    @Override
+    public void serialize(CoachResponse value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(value);
+        gen.writeFieldName(ID);
+        gen.writeString(value.getId());
+        gen.writeFieldName(EMAIL);
+        gen.writeString(value.getEmail());
+        gen.writeFieldName(NAME);
+        gen.writeString(value.getName());
+        gen.writeFieldName(ACCOUNT_ID);
+        gen.writeString(value.getAccountId());
+        gen.writeFieldName(STATUS);
+        gen.writeString(value.getStatus());
+        gen.writeFieldName(REGISTERED);
+        gen.writeBoolean(value.isRegistered());
+        gen.writeEndObject();
+    }
+}
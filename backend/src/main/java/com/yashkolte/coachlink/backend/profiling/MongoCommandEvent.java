@@ -0,0 +1,51 @@
+package com.yashkolte.coachlink.backend.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One command sent to MongoDB, from the driver handing it to a connection to
+ * the reply being decoded
+ *
+ * Emitted by MongoCommandProfiler for every command, whether it comes from a
+ * repository, a MongoTemplate call or a bulk write. Only the command name and
+ * collection are recorded, never the command document, so recordings carry
+ * no coach data.
+ */
+@Name("coachlink.MongoCommand")
+@Label("MongoDB Command")
+@Category({"CoachLink", "MongoDB"})
+@Description("MongoDB command with its collection and outcome")
+public class MongoCommandEvent extends ProfiledEvent {
+
+    @Label("Command")
+    private final String command;
+
+    @Label("Database")
+    private final String database;
+
+    @Label("Collection")
+    private final String collection;
+
+    private MongoCommandEvent(String command, String database, String collection) {
+        this.command = command;
+        this.database = database;
+        this.collection = collection;
+    }
+
+    /**
+     * Create and begin an event
+     *
+     * @param command Command name, e.g. find or update
+     * @param database Database name
+     * @param collection Collection the command targets, or null
+     * @return Started event; call finish() when the reply arrives
+     */
+    public static MongoCommandEvent start(String command, String database, String collection) {
+        MongoCommandEvent event = new MongoCommandEvent(command, database, collection);
+        event.begin();
+        return event;
+    }
+}
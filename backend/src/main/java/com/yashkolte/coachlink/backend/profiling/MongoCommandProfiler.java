@@ -0,0 +1,60 @@
+package com.yashkolte.coachlink.backend.profiling;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Driver command listener emitting a MongoCommandEvent per MongoDB command
+ *
+ * Registered on the MongoClient in MongoConfig, so it sees every round trip
+ * regardless of the API that issued it; RepositoryCallEvent only covers
+ * repository beans. Events in flight are keyed by the driver's request ID.
+ * While no recording enables the event, nothing is kept.
+ */
+public class MongoCommandProfiler implements CommandListener {
+
+    private final Map<Integer, MongoCommandEvent> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent started) {
+        MongoCommandEvent event = MongoCommandEvent.start(started.getCommandName(), started.getDatabaseName(),
+                collectionOf(started.getCommandName(), started.getCommand()));
+        if (event.isEnabled()) {
+            inFlight.put(started.getRequestId(), event);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent succeeded) {
+        MongoCommandEvent event = inFlight.remove(succeeded.getRequestId());
+        if (event != null) {
+            event.succeeded();
+            event.finish();
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent failed) {
+        MongoCommandEvent event = inFlight.remove(failed.getRequestId());
+        if (event != null) {
+            event.failed(failed.getThrowable());
+            event.finish();
+        }
+    }
+
+    /**
+     * Collection named by a command, which CRUD commands carry as the value
+     * of their first field, e.g. {find: "coaches", ...}
+     */
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue value = command.get(commandName);
+        return value != null && value.isString() ? value.asString().getValue() : null;
+    }
+}
@@ -0,0 +1,78 @@
+package com.yashkolte.coachlink.backend.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base of the CoachLink Java Flight Recorder events
+ *
+ * Each event is timed from begin() to finish() and carries the Stripe account
+ * it concerns and how the operation ended. Events are recorded only while a
+ * recording enables them (see ProfilingService); otherwise begin and finish
+ * are close to free, so instrumented code paths can create one per call.
+ * Stack traces are off to keep the per-event cost low.
+ */
+@Category("CoachLink")
+@StackTrace(false)
+public abstract class ProfiledEvent extends Event {
+
+    /**
+     * Outcome of an operation that returned normally
+     */
+    public static final String OK = "OK";
+
+    @Label("Account ID")
+    @Description("Stripe account the operation concerns, if known")
+    protected String accountId;
+
+    @Label("Outcome")
+    @Description("OK, or the simple name of the exception that ended the operation")
+    protected String outcome = "FAILED";
+
+    /**
+     * Set the Stripe account once it is known
+     *
+     * @param accountId Stripe account ID
+     */
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    /**
+     * Mark the operation as successful
+     */
+    public void succeeded() {
+        this.outcome = OK;
+    }
+
+    /**
+     * Record the exception that ended the operation
+     *
+     * @param e Exception thrown by the operation
+     */
+    public void failed(Throwable e) {
+        this.outcome = e.getClass().getSimpleName();
+    }
+
+    /**
+     * Set an explicit outcome, for operations with more results than OK
+     *
+     * @param outcome Outcome name
+     */
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+
+    /**
+     * End the timing and commit the event if a recording wants it
+     */
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
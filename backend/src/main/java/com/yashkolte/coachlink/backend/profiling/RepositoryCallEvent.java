@@ -0,0 +1,41 @@
+package com.yashkolte.coachlink.backend.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One Spring Data repository method call, including the MongoDB round trip
+ * and BSON mapping of the result
+ */
+@Name("coachlink.RepositoryCall")
+@Label("Repository Call")
+@Category({"CoachLink", "Repository"})
+@Description("Repository method call with its Stripe account and outcome")
+public class RepositoryCallEvent extends ProfiledEvent {
+
+    @Label("Repository")
+    private final String repository;
+
+    @Label("Method")
+    private final String method;
+
+    private RepositoryCallEvent(String repository, String method) {
+        this.repository = repository;
+        this.method = method;
+    }
+
+    /**
+     * Create and begin an event
+     *
+     * @param repository Repository interface name
+     * @param method Method name
+     * @return Started event; call finish() when the call returns
+     */
+    public static RepositoryCallEvent start(String repository, String method) {
+        RepositoryCallEvent event = new RepositoryCallEvent(repository, method);
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,38 @@
+package com.yashkolte.coachlink.backend.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One StripeService operation, including the Stripe API call and the
+ * database updates that follow it
+ */
+@Name("coachlink.StripeOperation")
+@Label("Stripe Operation")
+@Category({"CoachLink", "Stripe"})
+@Description("StripeService operation with its Stripe account and outcome")
+public class StripeOperationEvent extends ProfiledEvent {
+
+    @Label("Operation")
+    private final String operation;
+
+    private StripeOperationEvent(String operation, String accountId) {
+        this.operation = operation;
+        this.accountId = accountId;
+    }
+
+    /**
+     * Create and begin an event
+     *
+     * @param operation StripeService operation name
+     * @param accountId Stripe account ID, or null until known
+     * @return Started event; call finish() when the operation ends
+     */
+    public static StripeOperationEvent start(String operation, String accountId) {
+        StripeOperationEvent event = new StripeOperationEvent(operation, accountId);
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,60 @@
+package com.yashkolte.coachlink.backend.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One stage of handling a Stripe event: verify (signature check and JSON
+ * parsing), dedupe (processed-event lookup), apply (coach update) or record
+ * (processed-event insert)
+ */
+@Name("coachlink.WebhookStage")
+@Label("Webhook Stage")
+@Category({"CoachLink", "Webhook"})
+@Description("Stage of Stripe event handling with its Stripe account and outcome")
+public class WebhookStageEvent extends ProfiledEvent {
+
+    @Label("Stage")
+    private final String stage;
+
+    @Label("Source")
+    @Description("Where the event came from: webhook or backfill")
+    private final String source;
+
+    @Label("Event ID")
+    private String eventId;
+
+    @Label("Event Type")
+    private String eventType;
+
+    private WebhookStageEvent(String stage, String source) {
+        this.stage = stage;
+        this.source = source;
+    }
+
+    /**
+     * Create and begin an event
+     *
+     * @param stage Stage name
+     * @param source Where the event came from: webhook or backfill
+     * @return Started event; call finish() when the stage ends
+     */
+    public static WebhookStageEvent start(String stage, String source) {
+        WebhookStageEvent event = new WebhookStageEvent(stage, source);
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Attach the Stripe event once it is known
+     *
+     * @param eventId Stripe event ID
+     * @param eventType Stripe event type
+     */
+    public void setStripeEvent(String eventId, String eventType) {
+        this.eventId = eventId;
+        this.eventType = eventType;
+    }
+}
@@ -0,0 +1,25 @@
+package com.yashkolte.coachlink.backend.repository;
+
+import com.yashkolte.coachlink.backend.entity.AccountCreationJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for AccountCreationJob entity operations
+ *
+ * Provides basic CRUD access to the account creation outbox. Claiming jobs is
+ * done atomically through MongoTemplate in AccountCreationQueueService.
+ */
+@Repository
+public interface AccountCreationJobRepository extends MongoRepository<AccountCreationJob, String> {
+
+    /**
+     * Find the account creation job for an email address
+     *
+     * @param email The coach's email address
+     * @return Optional containing the job if found, empty otherwise
+     */
+    Optional<AccountCreationJob> findByEmail(String email);
+}
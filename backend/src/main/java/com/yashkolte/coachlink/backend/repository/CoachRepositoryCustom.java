@@ -0,0 +1,62 @@
+package com.yashkolte.coachlink.backend.repository;
+
+import com.yashkolte.coachlink.backend.entity.Coach;
+
+import java.util.Optional;
+
+/**
+ * Keyed coach lookups and field updates implemented by
+ * CoachRepositoryCustomImpl
+ *
+ * The lookups also find coaches still stored in the legacy schema while the
+ * coach schema migration is running. The updates write only the named fields,
+ * so concurrent changes to other fields of the same coach are never lost.
+ */
+public interface CoachRepositoryCustom {
+
+    /**
+     * Find a coach by their email address
+     *
+     * @param email The coach's email address
+     * @return Optional containing the coach if found, empty otherwise
+     */
+    Optional<Coach> findByEmail(String email);
+
+    /**
+     * Find a coach by their Stripe account ID
+     *
+     * @param stripeAccountId The Stripe Express account ID
+     * @return Optional containing the coach if found, empty otherwise
+     */
+    Optional<Coach> findByStripeAccountId(String stripeAccountId);
+
+    /**
+     * Set a coach's status if it still has the expected status
+     *
+     * @param id Coach ID
+     * @param expectedStatus Status the caller last read
+     * @param status New status bits
+     * @param updated New updated timestamp in epoch milliseconds
+     * @return true if the coach had the expected status and was updated
+     */
+    boolean compareAndSetStatus(String id, int expectedStatus, int status, long updated);
+
+    /**
+     * Set a coach's Stripe account ID
+     *
+     * @param id Coach ID
+     * @param stripeAccountId New Stripe account ID
+     * @param updated New updated timestamp in epoch milliseconds
+     * @return true if the coach exists
+     */
+    boolean updateStripeAccountId(String id, String stripeAccountId, long updated);
+
+    /**
+     * Set a coach's updated timestamp
+     *
+     * @param id Coach ID
+     * @param updated New updated timestamp in epoch milliseconds
+     * @return true if the coach exists
+     */
+    boolean updateTimestamp(String id, long updated);
+}
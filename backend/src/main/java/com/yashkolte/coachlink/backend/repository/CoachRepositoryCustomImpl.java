@@ -0,0 +1,73 @@
+package com.yashkolte.coachlink.backend.repository;
+
+import com.yashkolte.coachlink.backend.entity.Coach;
+import com.yashkolte.coachlink.backend.service.CoachSchemaMigrationService;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+/**
+ * Implementation of the keyed coach lookups and field updates
+ *
+ * Queries the compact schema first and, until the schema migration has
+ * completed, retries a miss against the legacy field names. Updates convert a
+ * legacy document first, since they match and write compact field names.
+ */
+public class CoachRepositoryCustomImpl implements CoachRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final CoachSchemaMigrationService schemaMigration;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Primary template for the lookups and updates
+     * @param schemaMigration Migration state and legacy lookups
+     */
+    public CoachRepositoryCustomImpl(MongoTemplate mongoTemplate, CoachSchemaMigrationService schemaMigration) {
+        this.mongoTemplate = mongoTemplate;
+        this.schemaMigration = schemaMigration;
+    }
+
+    @Override
+    public Optional<Coach> findByEmail(String email) {
+        Coach coach = mongoTemplate.findOne(Query.query(Criteria.where("email").is(email)), Coach.class);
+        return Optional.ofNullable(coach != null ? coach : schemaMigration.findLegacy("email", email));
+    }
+
+    @Override
+    public Optional<Coach> findByStripeAccountId(String stripeAccountId) {
+        Coach coach = mongoTemplate.findOne(
+                Query.query(Criteria.where("stripeAccountId").is(stripeAccountId)), Coach.class);
+        return Optional.ofNullable(coach != null
+                ? coach
+                : schemaMigration.findLegacy("stripeAccountId", stripeAccountId));
+    }
+
+    @Override
+    public boolean compareAndSetStatus(String id, int expectedStatus, int status, long updated) {
+        schemaMigration.migrateDocument(id);
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id).and("status").is(expectedStatus)),
+                new Update().set("status", status).set("updated", updated), Coach.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean updateStripeAccountId(String id, String stripeAccountId, long updated) {
+        return update(id, new Update().set("stripeAccountId", stripeAccountId).set("updated", updated));
+    }
+
+    @Override
+    public boolean updateTimestamp(String id, long updated) {
+        return update(id, new Update().set("updated", updated));
+    }
+
+    private boolean update(String id, Update update) {
+        schemaMigration.migrateDocument(id);
+        return mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(id)), update, Coach.class)
+                .getMatchedCount() > 0;
+    }
+}
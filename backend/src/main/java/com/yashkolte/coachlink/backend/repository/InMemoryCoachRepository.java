@@ -0,0 +1,573 @@
+package com.yashkolte.coachlink.backend.repository;
+
+import com.yashkolte.coachlink.backend.entity.Coach;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.repository.query.FluentQuery;
+import org.springframework.data.support.ExampleMatcherAccessor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Concurrent in-memory implementation of CoachRepository
+ *
+ * Used by the inmemory profile and directly by tests and benchmarks that need
+ * coach persistence without a MongoDB server. It mirrors the behaviour of the
+ * MongoDB repository that callers rely on: - Generated ObjectId-style IDs -
+ * A unique email index; a conflicting insert or save throws
+ * DuplicateKeyException - A secondary index on stripeAccountId - Stored
+ * entities are copies, so changes are only visible after save - Save and delete
+ * events are published, keeping listeners such as the search index in sync
+ *
+ * Reads are lock-free. Writes are serialized on one lock so the primary map
+ * and both indexes always change together. Every write, including the
+ * targeted updates, stores a new copy instead of changing the stored one, so
+ * a concurrent reader sees either the old or the new coach, never a mix.
+ *
+ * Query by example matches the probe's email, name, stripeAccountId, status,
+ * created and updated properties with the example matcher's null handling,
+ * ignored paths and string matchers.
+ */
+public class InMemoryCoachRepository implements CoachRepository {
+
+    private static final String COLLECTION = "coaches";
+
+    /**
+     * Coach properties compared by query by example
+     */
+    private static final Map<String, Function<Coach, Object>> PROPERTIES = Map.of(
+            "id", Coach::getId,
+            "email", Coach::getEmail,
+            "name", Coach::getName,
+            "stripeAccountId", Coach::getStripeAccountId,
+            "status", Coach::getStatus,
+            "created", Coach::getCreated,
+            "updated", Coach::getUpdated);
+
+    private final Map<String, Coach> byId = new ConcurrentHashMap<>();
+
+    private final Map<String, String> idByEmail = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<String>> idsByStripeAccountId = new ConcurrentHashMap<>();
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Object writeLock = new Object();
+
+    /**
+     * Create an empty repository that publishes no events
+     */
+    public InMemoryCoachRepository() {
+        this(null);
+    }
+
+    /**
+     * Create an empty repository
+     *
+     * @param eventPublisher Publisher for save and delete events, or null
+     */
+    public InMemoryCoachRepository(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public Optional<Coach> findByEmail(String email) {
+        String id = email != null ? idByEmail.get(email) : null;
+        return id != null ? findById(id) : Optional.empty();
+    }
+
+    @Override
+    public Optional<Coach> findByStripeAccountId(String stripeAccountId) {
+        Set<String> ids = stripeAccountId != null ? idsByStripeAccountId.get(stripeAccountId) : null;
+        if (ids == null) {
+            return Optional.empty();
+        }
+        for (String id : ids) {
+            Optional<Coach> coach = findById(id);
+            if (coach.isPresent()) {
+                return coach;
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public <S extends Coach> S save(S entity) {
+        synchronized (writeLock) {
+            if (entity.getId() == null) {
+                entity.setId(new ObjectId().toHexString());
+            }
+            store(entity, byId.get(entity.getId()));
+        }
+        publishSaved(entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends Coach> S insert(S entity) {
+        synchronized (writeLock) {
+            if (entity.getId() == null) {
+                entity.setId(new ObjectId().toHexString());
+            } else if (byId.containsKey(entity.getId())) {
+                throw new DuplicateKeyException("Duplicate coach id: " + entity.getId());
+            }
+            store(entity, null);
+        }
+        publishSaved(entity);
+        return entity;
+    }
+
+    @Override
+    public <S extends Coach> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S entity : entities) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+
+    @Override
+    public <S extends Coach> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        for (S entity : entities) {
+            inserted.add(insert(entity));
+        }
+        return inserted;
+    }
+
+    @Override
+    public Optional<Coach> findById(String id) {
+        Coach coach = byId.get(id);
+        return coach != null ? Optional.of(copy(coach)) : Optional.empty();
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return byId.containsKey(id);
+    }
+
+    @Override
+    public List<Coach> findAll() {
+        List<Coach> coaches = new ArrayList<>(byId.size());
+        for (Coach coach : byId.values()) {
+            coaches.add(copy(coach));
+        }
+        return coaches;
+    }
+
+    @Override
+    public List<Coach> findAllById(Iterable<String> ids) {
+        List<Coach> coaches = new ArrayList<>();
+        for (String id : ids) {
+            findById(id).ifPresent(coaches::add);
+        }
+        return coaches;
+    }
+
+    @Override
+    public List<Coach> findAll(Sort sort) {
+        List<Coach> coaches = findAll();
+        Comparator<Coach> comparator = comparator(sort);
+        if (comparator != null) {
+            coaches.sort(comparator);
+        }
+        return coaches;
+    }
+
+    @Override
+    public Page<Coach> findAll(Pageable pageable) {
+        List<Coach> coaches = findAll(pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(coaches, pageable, coaches.size());
+        }
+        int from = (int) Math.min(coaches.size(), pageable.getOffset());
+        int to = Math.min(coaches.size(), from + pageable.getPageSize());
+        return new PageImpl<>(coaches.subList(from, to), pageable, coaches.size());
+    }
+
+    @Override
+    public long count() {
+        return byId.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        Coach removed;
+        synchronized (writeLock) {
+            removed = byId.remove(id);
+            if (removed != null) {
+                unindex(removed);
+            }
+        }
+        if (removed != null && eventPublisher != null) {
+            eventPublisher.publishEvent(new AfterDeleteEvent<>(new Document("_id", id), Coach.class, COLLECTION));
+        }
+    }
+
+    @Override
+    public void delete(Coach entity) {
+        if (entity.getId() != null) {
+            deleteById(entity.getId());
+        }
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        for (String id : ids) {
+            deleteById(id);
+        }
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Coach> entities) {
+        for (Coach entity : entities) {
+            delete(entity);
+        }
+    }
+
+    @Override
+    public void deleteAll() {
+        for (String id : new ArrayList<>(byId.keySet())) {
+            deleteById(id);
+        }
+    }
+
+    @Override
+    public boolean compareAndSetStatus(String id, int expectedStatus, int status, long updated) {
+        synchronized (writeLock) {
+            Coach stored = byId.get(id);
+            if (stored == null || stored.getStatus() != expectedStatus) {
+                return false;
+            }
+            Coach changed = copy(stored);
+            changed.setStatus(status);
+            changed.setUpdated(updated);
+            store(changed, stored);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean updateStripeAccountId(String id, String stripeAccountId, long updated) {
+        synchronized (writeLock) {
+            Coach stored = byId.get(id);
+            if (stored == null) {
+                return false;
+            }
+            Coach changed = copy(stored);
+            changed.setStripeAccountId(stripeAccountId);
+            changed.setUpdated(updated);
+            store(changed, stored);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean updateTimestamp(String id, long updated) {
+        synchronized (writeLock) {
+            Coach stored = byId.get(id);
+            if (stored == null) {
+                return false;
+            }
+            Coach changed = copy(stored);
+            changed.setUpdated(updated);
+            store(changed, stored);
+        }
+        return true;
+    }
+
+    @Override
+    public <S extends Coach> Optional<S> findOne(Example<S> example) {
+        return Optional.ofNullable(new ExampleQuery<>(findAll(example)).oneValue());
+    }
+
+    @Override
+    public <S extends Coach> List<S> findAll(Example<S> example) {
+        List<S> matches = new ArrayList<>();
+        ExampleMatcherAccessor accessor = new ExampleMatcherAccessor(example.getMatcher());
+        for (Coach coach : byId.values()) {
+            if (matches(example, accessor, coach)) {
+                @SuppressWarnings("unchecked")
+                S match = (S) copy(coach);
+                matches.add(match);
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public <S extends Coach> List<S> findAll(Example<S> example, Sort sort) {
+        return new ExampleQuery<>(findAll(example)).sortBy(sort).all();
+    }
+
+    @Override
+    public <S extends Coach> Page<S> findAll(Example<S> example, Pageable pageable) {
+        return new ExampleQuery<>(findAll(example)).page(pageable);
+    }
+
+    @Override
+    public <S extends Coach> long count(Example<S> example) {
+        return findAll(example).size();
+    }
+
+    @Override
+    public <S extends Coach> boolean exists(Example<S> example) {
+        return !findAll(example).isEmpty();
+    }
+
+    @Override
+    public <S extends Coach, R> R findBy(Example<S> example,
+            Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        return queryFunction.apply(new ExampleQuery<>(findAll(example)));
+    }
+
+    /**
+     * Store a copy of an entity and update the indexes; caller holds the write
+     * lock
+     */
+    private void store(Coach entity, Coach previous) {
+        String email = entity.getEmail();
+        if (email != null) {
+            String owner = idByEmail.get(email);
+            if (owner != null && !owner.equals(entity.getId())) {
+                throw new DuplicateKeyException("Duplicate coach email: " + email);
+            }
+        }
+
+        if (previous != null) {
+            unindex(previous);
+        }
+        byId.put(entity.getId(), copy(entity));
+        if (email != null) {
+            idByEmail.put(email, entity.getId());
+        }
+        if (entity.getStripeAccountId() != null) {
+            idsByStripeAccountId.computeIfAbsent(entity.getStripeAccountId(), key -> ConcurrentHashMap.newKeySet())
+                    .add(entity.getId());
+        }
+    }
+
+    private void unindex(Coach coach) {
+        if (coach.getEmail() != null) {
+            idByEmail.remove(coach.getEmail(), coach.getId());
+        }
+        if (coach.getStripeAccountId() != null) {
+            idsByStripeAccountId.computeIfPresent(coach.getStripeAccountId(), (key, ids) -> {
+                ids.remove(coach.getId());
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private void publishSaved(Coach entity) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new AfterSaveEvent<>(copy(entity), new Document("_id", entity.getId()),
+                    COLLECTION));
+        }
+    }
+
+    private static Coach copy(Coach coach) {
+        return new Coach(coach.getId(), coach.getEmail(), coach.getName(), coach.getStripeAccountId(),
+                coach.getStatus(), coach.getCreated(), coach.getUpdated());
+    }
+
+    /**
+     * Comparator for the sortable coach properties, or null if unsorted
+     */
+    private static Comparator<Coach> comparator(Sort sort) {
+        Comparator<Coach> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<Coach> next = switch (order.getProperty()) {
+                case "id" -> Comparator.comparing(Coach::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "email" -> Comparator.comparing(Coach::getEmail, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "name" -> Comparator.comparing(Coach::getName, Comparator.nullsLast(Comparator.naturalOrder()));
+                case "created" -> Comparator.comparing(Coach::getCreated,
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+                case "updated" -> Comparator.comparing(Coach::getUpdated,
+                        Comparator.nullsLast(Comparator.naturalOrder()));
+                default -> throw new IllegalArgumentException("Unsupported sort property: " + order.getProperty());
+            };
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            result = result == null ? next : result.thenComparing(next);
+        }
+        return result;
+    }
+
+    /**
+     * Whether a stored coach matches a probe, following the example matcher's
+     * null handling, ignored paths and string matchers like MongoDB does
+     */
+    private static boolean matches(Example<? extends Coach> example, ExampleMatcherAccessor accessor, Coach coach) {
+        boolean any = example.getMatcher().isAnyMatching();
+        boolean includeNulls = accessor.getNullHandler() == ExampleMatcher.NullHandler.INCLUDE;
+        boolean hasCriteria = false;
+        for (Map.Entry<String, Function<Coach, Object>> property : PROPERTIES.entrySet()) {
+            String path = property.getKey();
+            if (accessor.isIgnoredPath(path)) {
+                continue;
+            }
+            Object expected = accessor.getValueTransformerForPath(path)
+                    .apply(Optional.ofNullable(property.getValue().apply(example.getProbe())))
+                    .orElse(null);
+            if (expected == null && !includeNulls) {
+                continue;
+            }
+            hasCriteria = true;
+            boolean matched = matches(accessor, path, expected, property.getValue().apply(coach));
+            if (any && matched) {
+                return true;
+            }
+            if (!any && !matched) {
+                return false;
+            }
+        }
+        return !any || !hasCriteria;
+    }
+
+    private static boolean matches(ExampleMatcherAccessor accessor, String path, Object expected, Object actual) {
+        if (!(expected instanceof String pattern) || !(actual instanceof String value)) {
+            return Objects.equals(expected, actual);
+        }
+        boolean ignoreCase = accessor.isIgnoreCaseForPath(path);
+        ExampleMatcher.StringMatcher matcher = accessor.getStringMatcherForPath(path);
+        if (matcher == ExampleMatcher.StringMatcher.REGEX) {
+            return Pattern.compile(pattern, ignoreCase ? Pattern.CASE_INSENSITIVE : 0).matcher(value).find();
+        }
+        if (ignoreCase) {
+            pattern = pattern.toLowerCase(Locale.ROOT);
+            value = value.toLowerCase(Locale.ROOT);
+        }
+        return switch (matcher) {
+            case STARTING -> value.startsWith(pattern);
+            case ENDING -> value.endsWith(pattern);
+            case CONTAINING -> value.contains(pattern);
+            default -> value.equals(pattern);
+        };
+    }
+
+    /**
+     * Fluent query over the coaches matching an example
+     *
+     * Projections return full coaches, which contain every projected property.
+     */
+    private static final class ExampleQuery<T> implements FluentQuery.FetchableFluentQuery<T> {
+
+        private final List<T> matches;
+
+        private final Sort sort;
+
+        private final int limit;
+
+        ExampleQuery(List<T> matches) {
+            this(matches, Sort.unsorted(), 0);
+        }
+
+        private ExampleQuery(List<T> matches, Sort sort, int limit) {
+            this.matches = matches;
+            this.sort = sort;
+            this.limit = limit;
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<T> sortBy(Sort sort) {
+            return new ExampleQuery<>(matches, this.sort.and(sort), limit);
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<T> limit(int limit) {
+            return new ExampleQuery<>(matches, sort, limit);
+        }
+
+        @Override
+        public <R> FluentQuery.FetchableFluentQuery<R> as(Class<R> resultType) {
+            if (!resultType.isAssignableFrom(Coach.class)) {
+                throw new UnsupportedOperationException("The in-memory repository only returns coaches, not "
+                        + resultType.getName());
+            }
+            @SuppressWarnings("unchecked")
+            List<R> results = (List<R>) matches;
+            return new ExampleQuery<>(results, sort, limit);
+        }
+
+        @Override
+        public FluentQuery.FetchableFluentQuery<T> project(Collection<String> properties) {
+            return this;
+        }
+
+        @Override
+        public T oneValue() {
+            List<T> results = all();
+            if (results.size() > 1) {
+                throw new IncorrectResultSizeDataAccessException(1, results.size());
+            }
+            return results.isEmpty() ? null : results.get(0);
+        }
+
+        @Override
+        public T firstValue() {
+            List<T> results = all();
+            return results.isEmpty() ? null : results.get(0);
+        }
+
+        @Override
+        public List<T> all() {
+            List<T> results = new ArrayList<>(matches);
+            Comparator<Coach> comparator = comparator(sort);
+            if (comparator != null) {
+                results.sort((left, right) -> comparator.compare((Coach) left, (Coach) right));
+            }
+            return limit > 0 && results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+        }
+
+        @Override
+        public Page<T> page(Pageable pageable) {
+            List<T> results = sortBy(pageable.getSort()).all();
+            if (pageable.isUnpaged()) {
+                return new PageImpl<>(results, pageable, results.size());
+            }
+            int from = (int) Math.min(results.size(), pageable.getOffset());
+            int to = Math.min(results.size(), from + pageable.getPageSize());
+            return new PageImpl<>(results.subList(from, to), pageable, results.size());
+        }
+
+        @Override
+        public Stream<T> stream() {
+            return all().stream();
+        }
+
+        @Override
+        public long count() {
+            return all().size();
+        }
+
+        @Override
+        public boolean exists() {
+            return !matches.isEmpty();
+        }
+    }
+}
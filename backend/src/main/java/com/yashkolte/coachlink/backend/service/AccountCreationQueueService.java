@@ -0,0 +1,396 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.stripe.exception.InvalidRequestException;
+import com.yashkolte.coachlink.backend.entity.AccountCreationJob;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import com.yashkolte.coachlink.backend.repository.AccountCreationJobRepository;
+import com.yashkolte.coachlink.backend.repository.CoachRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for asynchronous Stripe account creation through a durable outbox
+ *
+ * create-account no longer waits on Stripe. Instead this service: - Stores an
+ * account creation job and a pending coach record, then returns - Lets
+ * scheduled workers atomically claim due jobs from MongoDB - Calls Stripe with
+ * a deterministic idempotency key and exponential backoff between retries - Links
+ * the new Stripe account to the coach and marks the job complete
+ *
+ * Workers hold a lease on claimed jobs; a job whose lease expires (for example
+ * because the node crashed mid-call) is claimed again and retried with the
+ * same idempotency key, so Stripe returns the original account instead of
+ * creating an orphan.
+ */
+@Service
+@Slf4j
+public class AccountCreationQueueService {
+
+    private static final String LOG_QUEUED = "outbox.queued";
+
+    private static final String LOG_COMPLETED = "outbox.completed";
+
+    private final AccountCreationJobRepository jobRepository;
+
+    private final CoachRepository coachRepository;
+
+    private final StripeService stripeService;
+
+    private final CoachStatusService coachStatusService;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final LogSamplingService logSampler;
+
+    private final Counter completedCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter failedCounter;
+
+    private final Timer stripeTimer;
+
+    /**
+     * Identifier recorded on claimed jobs so leases can be traced to a node
+     */
+    private final String workerId = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * Whether this node claims and processes queued jobs
+     */
+    @Value("${app.outbox.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Number of jobs processed concurrently on this node
+     */
+    @Value("${app.outbox.workers:4}")
+    private int workerCount;
+
+    /**
+     * Attempts before a job is marked FAILED
+     */
+    @Value("${app.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    /**
+     * Base delay for exponential retry backoff
+     */
+    @Value("${app.outbox.retry-base-ms:1000}")
+    private long retryBaseMs;
+
+    /**
+     * Upper bound for retry backoff
+     */
+    @Value("${app.outbox.retry-max-ms:300000}")
+    private long retryMaxMs;
+
+    /**
+     * How long a claimed job is leased before other workers may reclaim it
+     */
+    @Value("${app.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    private ExecutorService executor;
+
+    private Semaphore workerSlots;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param jobRepository Repository for outbox jobs
+     * @param coachRepository Repository for coach data operations
+     * @param stripeService Service performing the Stripe calls
+     * @param coachStatusService Service creating coach records
+     * @param mongoTemplate Template used for atomic job claims
+     * @param meterRegistry Registry for throughput and retry metrics
+     * @param logSampler Sampler for routine success logs
+     */
+    public AccountCreationQueueService(AccountCreationJobRepository jobRepository,
+            CoachRepository coachRepository,
+            StripeService stripeService,
+            CoachStatusService coachStatusService,
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry,
+            LogSamplingService logSampler) {
+        this.jobRepository = jobRepository;
+        this.coachRepository = coachRepository;
+        this.stripeService = stripeService;
+        this.coachStatusService = coachStatusService;
+        this.mongoTemplate = mongoTemplate;
+        this.logSampler = logSampler;
+        this.completedCounter = Counter.builder("coachlink.outbox.jobs")
+                .tag("outcome", "completed").register(meterRegistry);
+        this.retriedCounter = Counter.builder("coachlink.outbox.jobs")
+                .tag("outcome", "retried").register(meterRegistry);
+        this.failedCounter = Counter.builder("coachlink.outbox.jobs")
+                .tag("outcome", "failed").register(meterRegistry);
+        this.stripeTimer = Timer.builder("coachlink.outbox.stripe.latency")
+                .description("Latency of Account.create calls made by outbox workers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue Stripe account creation for a coach
+     *
+     * This method: 1. Stores a PENDING job unless one is already queued,
+     * running or completed for the email 2. Stores a pending coach record without a Stripe
+     * account ID if none exists yet 3. Returns the coach record immediately
+     *
+     * The job is written first, so a crash before the coach record is saved is
+     * repaired when the worker finalizes the job.
+     *
+     * @param email Coach's email address
+     * @param name Coach's display name
+     * @return The pending (or existing) coach record
+     */
+    public Coach enqueue(String email, String name) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Only a failed job is reset. A pending, running or completed job for
+        // this email makes the upsert insert a duplicate, which the unique
+        // index rejects; resetting a completed job would bump the generation
+        // and with it the idempotency key, creating a second Stripe account
+        Query query = Query.query(Criteria.where("email").is(email)
+                .and("status").is(AccountCreationJob.Status.FAILED));
+        Update update = new Update()
+                .set("name", name)
+                .set("status", AccountCreationJob.Status.PENDING)
+                .set("attempts", 0)
+                .set("nextAttemptAt", now)
+                .inc("generation", 1)
+                .set("updatedAt", now)
+                .unset("lockedBy")
+                .unset("lockedUntil")
+                .unset("lastError")
+                .setOnInsert("createdAt", now);
+        try {
+            mongoTemplate.upsert(query, update, AccountCreationJob.class);
+            if (logSampler.shouldLog(LOG_QUEUED)) {
+                log.info("Queued Stripe account creation for coach {}", email);
+            }
+        } catch (DuplicateKeyException e) {
+            log.debug("Stripe account creation already queued or completed for coach {}", email);
+        }
+
+        Coach coach = coachRepository.findByEmail(email).orElse(null);
+        if (coach == null) {
+            try {
+                coach = coachStatusService.create(new Coach(email, name));
+            } catch (DuplicateKeyException e) {
+                // Another node registered the same email first; reuse its record
+                coach = coachRepository.findByEmail(email).orElseThrow(() -> e);
+            }
+        }
+        return coach;
+    }
+
+    /**
+     * Claim due jobs and hand them to the worker pool
+     *
+     * Runs on every node; the atomic claim guarantees each job is processed by
+     * one worker at a time.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:500}")
+    public void dispatch() {
+        if (!enabled) {
+            return;
+        }
+        ensureExecutor();
+        while (workerSlots.tryAcquire()) {
+            AccountCreationJob job;
+            try {
+                job = claimNext();
+            } catch (RuntimeException e) {
+                workerSlots.release();
+                log.error("Failed to claim account creation job: {}", e.getMessage(), e);
+                return;
+            }
+
+            if (job == null) {
+                workerSlots.release();
+                return;
+            }
+
+            executor.execute(() -> {
+                try {
+                    process(job);
+                } finally {
+                    workerSlots.release();
+                }
+            });
+        }
+    }
+
+    /**
+     * Look up the outbox job for an email address
+     *
+     * @param email Coach's email address
+     * @return Job or null if no creation was ever queued
+     */
+    public AccountCreationJob getJob(String email) {
+        return jobRepository.findByEmail(email).orElse(null);
+    }
+
+    /**
+     * Atomically claim the next due job
+     *
+     * Picks PENDING jobs whose backoff has elapsed, and IN_PROGRESS jobs whose
+     * lease has expired.
+     *
+     * @return Claimed job, or null if nothing is due
+     */
+    private AccountCreationJob claimNext() {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(new Criteria().orOperator(
+                Criteria.where("status").is(AccountCreationJob.Status.PENDING).and("nextAttemptAt").lte(now),
+                Criteria.where("status").is(AccountCreationJob.Status.IN_PROGRESS).and("lockedUntil").lt(now)
+        ));
+        query.with(Sort.by("nextAttemptAt"));
+
+        Update update = new Update()
+                .set("status", AccountCreationJob.Status.IN_PROGRESS)
+                .set("lockedBy", workerId)
+                .set("lockedUntil", now.plusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMs)))
+                .set("updatedAt", now)
+                .inc("attempts", 1);
+
+        return mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), AccountCreationJob.class);
+    }
+
+    /**
+     * Run one attempt of a claimed job and record the outcome
+     *
+     * A coach that is already linked to a Stripe account (for example by an
+     * earlier job whose completion was not recorded) completes the job
+     * without calling Stripe again.
+     *
+     * @param job Job claimed by this worker
+     */
+    void process(AccountCreationJob job) {
+        try {
+            String linked = coachRepository.findByEmail(job.getEmail())
+                    .map(Coach::getStripeAccountId)
+                    .orElse(null);
+            if (linked != null) {
+                complete(job, linked);
+                return;
+            }
+
+            String accountId;
+            // Finish well within the lease so another worker never takes over a job still running here
+            try (Deadline.Scope deadline = Deadline.start("account creation job",
+                    Duration.ofMillis(leaseMs * 3 / 4))) {
+                accountId = stripeTimer.recordCallable(() -> stripeService.createStripeAccount(
+                        job.getEmail(), job.getName(),
+                        EmailLockService.accountCreationKey(job.getEmail(), job.getGeneration())));
+            }
+            complete(job, accountId);
+        } catch (InvalidRequestException e) {
+            // Request was rejected by Stripe; retrying the same request cannot succeed
+            fail(job, e);
+        } catch (Exception e) {
+            if (job.getAttempts() >= maxAttempts) {
+                fail(job, e);
+            } else {
+                retry(job, e);
+            }
+        }
+    }
+
+    private void complete(AccountCreationJob job, String accountId) {
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateFirst(ownedBy(job), new Update()
+                .set("status", AccountCreationJob.Status.COMPLETED)
+                .set("stripeAccountId", accountId)
+                .set("updatedAt", now)
+                .unset("lockedBy")
+                .unset("lockedUntil")
+                .unset("lastError"), AccountCreationJob.class);
+        completedCounter.increment();
+        if (logSampler.shouldLog(LOG_COMPLETED)) {
+            log.info("Completed Stripe account creation {} for coach {} after {} attempt(s)",
+                    accountId, job.getEmail(), job.getAttempts());
+        }
+    }
+
+    private void retry(AccountCreationJob job, Exception e) {
+        long delay = Math.min(retryMaxMs, retryBaseMs << Math.min(job.getAttempts() - 1, 20));
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateFirst(ownedBy(job), new Update()
+                .set("status", AccountCreationJob.Status.PENDING)
+                .set("nextAttemptAt", now.plusNanos(TimeUnit.MILLISECONDS.toNanos(delay)))
+                .set("lastError", e.getMessage())
+                .set("updatedAt", now)
+                .unset("lockedBy")
+                .unset("lockedUntil"), AccountCreationJob.class);
+        retriedCounter.increment();
+        log.warn("Stripe account creation for coach {} failed (attempt {}), retrying in {} ms: {}",
+                job.getEmail(), job.getAttempts(), delay, e.getMessage());
+    }
+
+    private void fail(AccountCreationJob job, Exception e) {
+        mongoTemplate.updateFirst(ownedBy(job), new Update()
+                .set("status", AccountCreationJob.Status.FAILED)
+                .set("lastError", e.getMessage())
+                .set("updatedAt", LocalDateTime.now())
+                .unset("lockedBy")
+                .unset("lockedUntil"), AccountCreationJob.class);
+        failedCounter.increment();
+        log.error("Stripe account creation for coach {} failed permanently after {} attempt(s): {}",
+                job.getEmail(), job.getAttempts(), e.getMessage());
+    }
+
+    /**
+     * Match the job only while this worker still holds it, so a worker whose
+     * lease expired cannot overwrite the outcome of the worker that took over
+     */
+    private Query ownedBy(AccountCreationJob job) {
+        return Query.query(Criteria.where("_id").is(job.getId())
+                .and("lockedBy").is(workerId)
+                .and("attempts").is(job.getAttempts()));
+    }
+
+    private synchronized void ensureExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(workerCount);
+            workerSlots = new Semaphore(workerCount);
+        }
+    }
+
+    /**
+     * Stop accepting new jobs and let running attempts finish
+     *
+     * Jobs still IN_PROGRESS after shutdown are reclaimed by another node once
+     * their lease expires.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
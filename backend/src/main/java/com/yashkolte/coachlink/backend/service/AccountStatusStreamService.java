@@ -0,0 +1,208 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashkolte.coachlink.backend.dto.AccountStatusResponse;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for pushing onboarding status changes to connected clients
+ *
+ * This service keeps a per-node registry of Server-Sent Event subscribers
+ * keyed by Stripe account ID. It handles: - Registering and removing emitters
+ * as clients connect and disconnect - Publishing status changes as soon as a
+ * webhook or status check updates a coach - Periodic heartbeats so idle
+ * connections are not closed by proxies
+ *
+ * The registry is local to each node; a coach connected to one node receives
+ * updates processed by that node's webhook handler or status checks. A status
+ * is serialized once per publish and the same bytes are written to every
+ * subscriber of the account. Heartbeats run on their own thread, so writes
+ * to slow connections never hold up the shared @Scheduled jobs.
+ */
+@Service
+@Slf4j
+public class AccountStatusStreamService {
+
+    /**
+     * Name of the SSE event carrying account status payloads
+     */
+    public static final String STATUS_EVENT = "status";
+
+    /**
+     * Subscribers per Stripe account ID
+     */
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Dedicated heartbeat thread
+     */
+    private final ScheduledExecutorService heartbeats;
+
+    /**
+     * How long an SSE connection stays open before the client must reconnect
+     */
+    @Value("${app.sse.timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    /**
+     * Interval between heartbeats
+     */
+    @Value("${app.sse.heartbeat-ms:15000}")
+    private long heartbeatMs;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param objectMapper Application mapper used to serialize status payloads
+     */
+    public AccountStatusStreamService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sse-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start sending heartbeats
+     */
+    @PostConstruct
+    public void start() {
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop sending heartbeats
+     */
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    /**
+     * Open a status stream for a Stripe account
+     *
+     * The current status is sent immediately if a coach record is known, so
+     * clients do not need a separate status check before subscribing.
+     *
+     * @param accountId Stripe account ID to subscribe to
+     * @param current Current coach record, or null if not found
+     * @return Emitter bound to the account's subscriber list
+     */
+    public SseEmitter subscribe(String accountId, Coach current) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        // Add inside compute so a concurrent remove cannot drop the new list
+        subscribers.compute(accountId, (key, emitters) -> {
+            List<SseEmitter> list = emitters != null ? emitters : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            return list;
+        });
+
+        emitter.onCompletion(() -> remove(accountId, emitter));
+        emitter.onTimeout(() -> remove(accountId, emitter));
+        emitter.onError(e -> remove(accountId, emitter));
+
+        if (current != null) {
+            send(accountId, emitter, toPayload(accountId, current));
+        }
+
+        log.debug("Subscribed to status stream for account {}", accountId);
+        return emitter;
+    }
+
+    /**
+     * Publish a coach's status to every subscriber of its Stripe account
+     *
+     * @param coach Coach record with the latest onboarding and payout status
+     */
+    public void publish(Coach coach) {
+        if (coach == null || coach.getStripeAccountId() == null) {
+            return;
+        }
+
+        String accountId = coach.getStripeAccountId();
+        List<SseEmitter> emitters = subscribers.get(accountId);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+
+        byte[] payload = toPayload(accountId, coach);
+        for (SseEmitter emitter : emitters) {
+            send(accountId, emitter, payload);
+        }
+        log.debug("Published status for account {} to {} subscribers", accountId, emitters.size());
+    }
+
+    /**
+     * Send a comment line to every open stream
+     *
+     * Comments are ignored by EventSource clients but keep intermediaries from
+     * closing idle connections and surface dead connections early.
+     */
+    void heartbeat() {
+        subscribers.forEach((accountId, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | RuntimeException e) {
+                    // Any escaping exception would cancel all later heartbeats
+                    remove(accountId, emitter);
+                }
+            }
+        });
+    }
+
+    /**
+     * Number of open streams on this node
+     *
+     * @return Total subscriber count across all accounts
+     */
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(List::size).sum();
+    }
+
+    private void send(String accountId, SseEmitter emitter, byte[] payload) {
+        try {
+            emitter.send(SseEmitter.event().name(STATUS_EVENT).data(payload, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping status stream for account {}: {}", accountId, e.getMessage());
+            remove(accountId, emitter);
+        }
+    }
+
+    private void remove(String accountId, SseEmitter emitter) {
+        subscribers.computeIfPresent(accountId, (key, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private byte[] toPayload(String accountId, Coach coach) {
+        try {
+            return objectMapper.writeValueAsBytes(
+                    AccountStatusResponse.of(accountId, coach.getOnboardingComplete(), coach.getPayoutsEnabled()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize status of account " + accountId, e);
+        }
+    }
+}
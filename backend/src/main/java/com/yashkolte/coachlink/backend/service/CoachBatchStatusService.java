@@ -0,0 +1,244 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.stripe.model.Account;
+import com.yashkolte.coachlink.backend.dto.AccountStatusResult;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service checking the status of many Stripe accounts at once
+ *
+ * A batch is resolved in four steps: 1. Load all coaches with one $in query
+ * 2. Pick the accounts whose stored status is older than
+ * app.batch-status.max-age-ms (or all, on request) 3. Retrieve those from
+ * Stripe in parallel on a shared pool of app.batch-status.concurrency threads,
+ * which caps concurrent Stripe calls across all batches 4. Write every
+ * refreshed status back with one bulk write through CoachStatusService:
+ * changes as compare-and-sets, unchanged statuses as timestamp bumps so they
+ * are not refreshed again on the next call
+ *
+ * Accounts without a coach are reported as not found and never sent to
+ * Stripe. Stripe calls share the caller's Deadline, minus
+ * app.batch-status.write-reserve-ms kept for the bulk write, so a batch that
+ * outlasts its budget still returns partial results: an account whose
+ * refresh fails or runs out of time is returned with its stored status and
+ * an error.
+ */
+@Service
+@Slf4j
+public class CoachBatchStatusService {
+
+    private final MongoTemplate mongoTemplate;
+
+    private final StripeService stripeService;
+
+    private final CoachStatusService coachStatusService;
+
+    private final CoachSchemaMigrationService schemaMigration;
+
+    private final ExecutorService stripePool;
+
+    /**
+     * Largest number of accounts accepted in one batch
+     */
+    @Value("${app.batch-status.max-accounts:100}")
+    private int maxAccounts;
+
+    /**
+     * Part of the caller's deadline kept for writing the results back; Stripe
+     * calls still running when only this much is left are abandoned
+     */
+    @Value("${app.batch-status.write-reserve-ms:1000}")
+    private long writeReserveMs;
+
+    /**
+     * Age after which a stored status is refreshed from Stripe
+     */
+    @Value("${app.batch-status.max-age-ms:300000}")
+    private long maxAgeMs;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Primary template for the batch lookup
+     * @param stripeService Service retrieving accounts from Stripe
+     * @param coachStatusService Service writing status changes
+     * @param schemaMigration Legacy lookups while the schema migration runs
+     * @param concurrency Maximum concurrent Stripe calls for batch refreshes
+     */
+    public CoachBatchStatusService(MongoTemplate mongoTemplate,
+            StripeService stripeService,
+            CoachStatusService coachStatusService,
+            CoachSchemaMigrationService schemaMigration,
+            @Value("${app.batch-status.concurrency:8}") int concurrency) {
+        this.mongoTemplate = mongoTemplate;
+        this.stripeService = stripeService;
+        this.coachStatusService = coachStatusService;
+        this.schemaMigration = schemaMigration;
+        this.stripePool = Executors.newFixedThreadPool(Math.max(1, concurrency), runnable -> {
+            Thread thread = new Thread(runnable, "batch-status-stripe");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Get the status of many accounts
+     *
+     * @param accountIds Stripe account IDs; blanks and duplicates are ignored
+     * @param refresh Whether to refresh every found account from Stripe
+     * @return One result per distinct account ID, in request order
+     * @throws IllegalArgumentException if the batch is empty or too large
+     * @throws InterruptedException if interrupted while waiting for Stripe
+     */
+    public List<AccountStatusResult> getStatuses(List<String> accountIds, boolean refresh)
+            throws InterruptedException {
+        LinkedHashSet<String> ids = new LinkedHashSet<>();
+        if (accountIds != null) {
+            for (String id : accountIds) {
+                if (id != null && !id.isBlank()) {
+                    ids.add(id.trim());
+                }
+            }
+        }
+        if (ids.isEmpty() || ids.size() > maxAccounts) {
+            throw new IllegalArgumentException("accountIds must contain between 1 and " + maxAccounts + " IDs");
+        }
+
+        Map<String, Coach> coaches = load(ids);
+
+        long staleBefore = System.currentTimeMillis() - maxAgeMs;
+        Map<String, Future<Account>> pending = new HashMap<>();
+        for (Coach coach : coaches.values()) {
+            if (refresh || coach.getUpdated() == null || coach.getUpdated() < staleBefore) {
+                pending.put(coach.getStripeAccountId(), submit(coach.getStripeAccountId()));
+            }
+        }
+
+        Map<String, String> errors = new HashMap<>();
+        List<CoachStatusService.StatusChange> refreshed = new ArrayList<>();
+        for (Map.Entry<String, Future<Account>> entry : pending.entrySet()) {
+            Coach coach = coaches.get(entry.getKey());
+            try {
+                Account account = await(entry.getKey(), entry.getValue());
+                // Unchanged statuses are written too, which marks them fresh
+                refreshed.add(new CoachStatusService.StatusChange(coach, account.getDetailsSubmitted(),
+                        account.getPayoutsEnabled()));
+            } catch (ExecutionException | TimeoutException e) {
+                Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+                errors.put(entry.getKey(), e instanceof TimeoutException || Deadline.isTimeout(cause)
+                        ? "Timed out" : cause.getMessage());
+                log.warn("Batch status refresh failed for {}: {}", entry.getKey(), cause.getMessage());
+            }
+        }
+
+        for (Coach coach : coachStatusService.updateStatuses(refreshed)) {
+            coaches.put(coach.getStripeAccountId(), coach);
+        }
+
+        List<AccountStatusResult> results = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Coach coach = coaches.get(id);
+            if (coach == null) {
+                results.add(new AccountStatusResult(id, false, null, null, null, false, null));
+            } else {
+                String error = errors.get(id);
+                results.add(new AccountStatusResult(id, true, coach.getOnboardingComplete(),
+                        coach.getPayoutsEnabled(), coach.getUpdatedAt(),
+                        pending.containsKey(id) && error == null, error));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Load the coaches of a batch, keyed by Stripe account ID
+     */
+    private Map<String, Coach> load(LinkedHashSet<String> ids) {
+        Map<String, Coach> coaches = new HashMap<>();
+        for (Coach coach : mongoTemplate.find(Query.query(Criteria.where("stripeAccountId").in(ids)), Coach.class)) {
+            coaches.put(coach.getStripeAccountId(), coach);
+        }
+        if (!schemaMigration.isComplete()) {
+            for (String id : ids) {
+                if (!coaches.containsKey(id)) {
+                    Coach legacy = schemaMigration.findLegacy("stripeAccountId", id);
+                    if (legacy != null) {
+                        coaches.put(id, legacy);
+                    }
+                }
+            }
+        }
+        return coaches;
+    }
+
+    /**
+     * Retrieve an account on the Stripe pool under the caller's deadline
+     *
+     * The remaining budget is read when the task starts, not when it is
+     * queued, so time spent waiting for a pool thread is counted and a task
+     * that starts after the deadline fails without calling Stripe.
+     */
+    private Future<Account> submit(String accountId) {
+        Deadline deadline = Deadline.current();
+        return stripePool.submit(() -> {
+            if (deadline == null) {
+                return stripeService.retrieveAccount(accountId);
+            }
+            long budgetMs = deadline.remainingMillis("Stripe retrieval of " + accountId);
+            try (Deadline.Scope scope = Deadline.start("Batch status refresh", Duration.ofMillis(budgetMs))) {
+                return stripeService.retrieveAccount(accountId);
+            }
+        });
+    }
+
+    /**
+     * Wait for a Stripe call, at most until only the write reserve of the
+     * caller's deadline is left
+     */
+    private Account await(String accountId, Future<Account> future)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Deadline deadline = Deadline.current();
+        if (deadline == null || future.isDone()) {
+            return future.get();
+        }
+        long waitMs = deadline.isExpired() ? 0 : deadline.remainingMillis("Batch status refresh") - writeReserveMs;
+        if (waitMs <= 0) {
+            future.cancel(true);
+            throw new TimeoutException("Out of time before " + accountId + " was retrieved");
+        }
+        try {
+            return future.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Stop the Stripe pool on shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        stripePool.shutdownNow();
+    }
+}
@@ -0,0 +1,152 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.yashkolte.coachlink.backend.entity.Coach;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service for exporting the coach roster as CSV
+ *
+ * Coaches are read through a MongoDB cursor and written straight to the
+ * output stream, so memory use does not grow with the collection size: - The
+ * cursor fetches documents in batches of app.export.batch-size - Rows are
+ * buffered and flushed once per batch - Output is optionally gzip-compressed
+ * while it is written
+ */
+@Service
+@Slf4j
+public class CoachExportService {
+
+    /**
+     * CSV header, in column order
+     */
+    private static final String HEADER =
+            "id,email,name,stripeAccountId,onboardingComplete,payoutsEnabled,createdAt,updatedAt";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Documents per cursor batch and rows per flush
+     */
+    @Value("${app.export.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Secondary-preferred template used to open the export
+     * cursor, keeping the scan off the primary
+     */
+    public CoachExportService(@Qualifier("secondaryMongoTemplate") MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Write all coaches as CSV to an output stream
+     *
+     * The stream is finished (and the gzip trailer written) but not closed.
+     *
+     * @param out Destination stream
+     * @param gzip Whether to gzip-compress the CSV
+     * @return Number of rows written, excluding the header
+     * @throws IOException if writing to the stream fails
+     */
+    public long exportCsv(OutputStream out, boolean gzip) throws IOException {
+        long start = System.nanoTime();
+        GZIPOutputStream gzipOut = gzip ? new GZIPOutputStream(out, 64 * 1024) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(gzipOut != null ? gzipOut : out, StandardCharsets.UTF_8), 64 * 1024);
+
+        long rows = 0;
+        Query query = new Query().cursorBatchSize(batchSize);
+        try (Stream<Coach> stream = mongoTemplate.stream(query, Coach.class)) {
+            Iterator<Coach> coaches = stream.iterator();
+            writer.write(HEADER);
+            writer.write('\n');
+            while (coaches.hasNext()) {
+                writeRow(writer, coaches.next());
+                if (++rows % batchSize == 0) {
+                    writer.flush();
+                }
+            }
+        }
+
+        writer.flush();
+        if (gzipOut != null) {
+            gzipOut.finish();
+        }
+        log.info("Exported {} coaches as {} in {} ms", rows, gzip ? "gzip CSV" : "CSV",
+                (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private static void writeRow(Writer writer, Coach coach) throws IOException {
+        writeField(writer, coach.getId());
+        writer.write(',');
+        writeField(writer, coach.getEmail());
+        writer.write(',');
+        writeField(writer, coach.getName());
+        writer.write(',');
+        writeField(writer, coach.getStripeAccountId());
+        writer.write(',');
+        writeField(writer, coach.getOnboardingComplete() == null ? null : coach.getOnboardingComplete().toString());
+        writer.write(',');
+        writeField(writer, coach.getPayoutsEnabled() == null ? null : coach.getPayoutsEnabled().toString());
+        writer.write(',');
+        writeField(writer, coach.getCreatedAt() == null ? null : coach.getCreatedAt().toString());
+        writer.write(',');
+        writeField(writer, coach.getUpdatedAt() == null ? null : coach.getUpdatedAt().toString());
+        writer.write('\n');
+    }
+
+    /**
+     * Write one CSV field, quoting when needed
+     *
+     * Values starting with a spreadsheet formula character are prefixed with
+     * an apostrophe so opening the export cannot execute formulas.
+     */
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+
+        boolean formula = "=+-@".indexOf(value.charAt(0)) >= 0;
+        boolean quote = formula;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+
+        writer.write('"');
+        if (formula) {
+            writer.write('\'');
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+}
@@ -0,0 +1,386 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.yashkolte.coachlink.backend.dto.CoachImportReport;
+import com.yashkolte.coachlink.backend.entity.AccountCreationJob;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Service for bulk importing coach rosters from CSV
+ *
+ * The import runs as a streaming pipeline: 1. Parse CSV records one at a time
+ * (header row must contain email and name columns) 2. Validate fields with the
+ * same rules as CoachRequest 3. Drop emails already seen in the file 4. Per
+ * batch, drop emails already registered using one $in query 5. Insert the
+ * remaining coaches with an unordered bulk insert and map any write errors
+ * back to their rows
+ *
+ * Stripe accounts are optionally created in a separate phase by queueing
+ * outbox jobs whose first attempt times are spread out to respect
+ * app.import.stripe-per-second; the outbox workers then handle retries.
+ */
+@Service
+@Slf4j
+public class CoachImportService {
+
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private static final int MIN_NAME_LENGTH = 2;
+
+    private static final int MAX_NAME_LENGTH = 50;
+
+    /**
+     * MongoDB error code of a unique index violation
+     */
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final FunnelStatsService funnelStatsService;
+
+    private final CoachSchemaMigrationService schemaMigration;
+
+    /**
+     * Rows per duplicate check and bulk insert
+     */
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Maximum number of per-row errors returned in the report
+     */
+    @Value("${app.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    /**
+     * Rate at which queued Stripe account creations become due
+     */
+    @Value("${app.import.stripe-per-second:10}")
+    private double stripePerSecond;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Template used for duplicate checks and bulk inserts
+     * @param funnelStatsService Funnel counters to adjust for inserted coaches
+     * @param schemaMigration Legacy lookups while the schema migration runs
+     */
+    public CoachImportService(MongoTemplate mongoTemplate, FunnelStatsService funnelStatsService,
+            CoachSchemaMigrationService schemaMigration) {
+        this.mongoTemplate = mongoTemplate;
+        this.funnelStatsService = funnelStatsService;
+        this.schemaMigration = schemaMigration;
+    }
+
+    /**
+     * Import coaches from a CSV stream
+     *
+     * @param in UTF-8 CSV with a header row, with or without a byte order mark
+     * @param createStripeAccounts Whether to queue Stripe account creation for
+     * imported coaches
+     * @return Report with per-row outcomes
+     * @throws IOException if reading the stream fails
+     * @throws IllegalArgumentException if the header lacks email or name
+     */
+    public CoachImportReport importCsv(InputStream in, boolean createStripeAccounts) throws IOException {
+        long start = System.nanoTime();
+        CoachImportReport report = new CoachImportReport();
+        CsvReader reader = new CsvReader(new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024));
+
+        // Spreadsheet exports often start with a UTF-8 byte order mark, which
+        // would otherwise become part of the first column name
+        reader.skipByteOrderMark();
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            return report;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        Integer emailColumn = columns.get("email");
+        Integer nameColumn = columns.get("name");
+        if (emailColumn == null || nameColumn == null) {
+            throw new IllegalArgumentException("CSV header must contain email and name columns");
+        }
+
+        Set<String> seenEmails = new HashSet<>();
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        List<PendingRow> importedRows = createStripeAccounts ? new ArrayList<>() : null;
+
+        List<String> record;
+        long row = 0;
+        while ((record = reader.readRecord()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue; // Blank line
+            }
+            row++;
+            report.setTotalRows(row);
+            String email = Coach.normalizeEmail(field(record, emailColumn));
+            String name = field(record, nameColumn);
+
+            String problem = validate(email, name);
+            if (problem != null) {
+                report.setInvalid(report.getInvalid() + 1);
+                addError(report, row, email, problem);
+                continue;
+            }
+            if (!seenEmails.add(email)) {
+                report.setDuplicateInFile(report.getDuplicateInFile() + 1);
+                addError(report, row, email, "Duplicate email in file");
+                continue;
+            }
+
+            batch.add(new PendingRow(row, email, name));
+            if (batch.size() >= batchSize) {
+                flush(batch, report, importedRows);
+            }
+        }
+        flush(batch, report, importedRows);
+
+        if (importedRows != null && !importedRows.isEmpty()) {
+            report.setStripeJobsQueued(queueStripeAccounts(importedRows));
+        }
+
+        log.info("Imported {} of {} coaches in {} ms ({} duplicates, {} registered, {} invalid, {} failed)",
+                report.getImported(), report.getTotalRows(), (System.nanoTime() - start) / 1_000_000,
+                report.getDuplicateInFile(), report.getAlreadyRegistered(), report.getInvalid(),
+                report.getFailed());
+        return report;
+    }
+
+    /**
+     * Check a batch against MongoDB and insert the new coaches
+     */
+    private void flush(List<PendingRow> batch, CoachImportReport report, List<PendingRow> importedRows) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<String> emails = new ArrayList<>(batch.size());
+        for (PendingRow pending : batch) {
+            emails.add(pending.email());
+        }
+        Query existingQuery = Query.query(Criteria.where("email").in(emails));
+        existingQuery.fields().include("email");
+        Set<String> existing = new HashSet<>();
+        for (Coach coach : mongoTemplate.find(existingQuery, Coach.class)) {
+            existing.add(coach.getEmail());
+        }
+        existing.addAll(schemaMigration.findLegacyEmails(emails));
+
+        List<PendingRow> toInsert = new ArrayList<>(batch.size());
+        List<Coach> coaches = new ArrayList<>(batch.size());
+        for (PendingRow pending : batch) {
+            if (existing.contains(pending.email())) {
+                report.setAlreadyRegistered(report.getAlreadyRegistered() + 1);
+                addError(report, pending.row(), pending.email(), "Email already registered");
+            } else {
+                toInsert.add(pending);
+                coaches.add(new Coach(pending.email(), pending.name()));
+            }
+        }
+        batch.clear();
+        if (coaches.isEmpty()) {
+            return;
+        }
+
+        Set<Integer> failedIndexes = new HashSet<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Coach.class)
+                    .insert(coaches)
+                    .execute();
+        } catch (BulkOperationException e) {
+            // Unordered: every row without an error was still inserted
+            for (BulkWriteError error : e.getErrors()) {
+                failedIndexes.add(error.getIndex());
+                PendingRow pending = toInsert.get(error.getIndex());
+                if (error.getCode() == DUPLICATE_KEY) {
+                    // Registered concurrently, after the $in check of this batch
+                    report.setAlreadyRegistered(report.getAlreadyRegistered() + 1);
+                    addError(report, pending.row(), pending.email(), "Email already registered");
+                } else {
+                    report.setFailed(report.getFailed() + 1);
+                    addError(report, pending.row(), pending.email(), error.getMessage());
+                }
+            }
+        }
+
+        long inserted = coaches.size() - failedIndexes.size();
+        report.setImported(report.getImported() + inserted);
+        funnelStatsService.recordCreated(inserted);
+        if (importedRows != null) {
+            for (int i = 0; i < toInsert.size(); i++) {
+                if (!failedIndexes.contains(i)) {
+                    importedRows.add(toInsert.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Queue outbox jobs for imported coaches, spaced to the configured rate
+     *
+     * @return Number of jobs queued
+     */
+    private long queueStripeAccounts(List<PendingRow> rows) {
+        LocalDateTime now = LocalDateTime.now();
+        long intervalNanos = stripePerSecond > 0 ? (long) (1_000_000_000L / stripePerSecond) : 0;
+
+        long queued = 0;
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<AccountCreationJob> jobs = new ArrayList<>();
+            for (int i = from; i < Math.min(rows.size(), from + batchSize); i++) {
+                AccountCreationJob job = new AccountCreationJob();
+                job.setEmail(rows.get(i).email());
+                job.setName(rows.get(i).name());
+                job.setStatus(AccountCreationJob.Status.PENDING);
+                job.setGeneration(1);
+                job.setNextAttemptAt(now.plusNanos(intervalNanos * i));
+                job.setCreatedAt(now);
+                job.setUpdatedAt(now);
+                jobs.add(job);
+            }
+            try {
+                queued += mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AccountCreationJob.class)
+                        .insert(jobs)
+                        .execute()
+                        .getInsertedCount();
+            } catch (BulkOperationException e) {
+                // Jobs that already exist for an email are kept as they are
+                queued += e.getResult().getInsertedCount();
+            }
+        }
+        log.info("Queued {} Stripe account creations for imported coaches at {}/s", queued, stripePerSecond);
+        return queued;
+    }
+
+    private String validate(String email, String name) {
+        if (email == null || email.isEmpty()) {
+            return "Email is required";
+        }
+        if (!EMAIL.matcher(email).matches()) {
+            return "Email is not valid";
+        }
+        if (name == null || name.length() < MIN_NAME_LENGTH || name.length() > MAX_NAME_LENGTH) {
+            return "Name must be between " + MIN_NAME_LENGTH + " and " + MAX_NAME_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private void addError(CoachImportReport report, long row, String email, String reason) {
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new CoachImportReport.RowError(row, email, reason));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static String field(List<String> record, int column) {
+        return column < record.size() ? record.get(column).trim() : null;
+    }
+
+    /**
+     * A validated row waiting for its batch to be written
+     */
+    private record PendingRow(long row, String email, String name) {
+    }
+
+    /**
+     * Minimal streaming RFC 4180 reader: quoted fields, doubled quotes and
+     * line breaks inside quotes
+     */
+    private static final class CsvReader {
+
+        private final Reader reader;
+
+        private final StringBuilder field = new StringBuilder();
+
+        CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Skip a byte order mark at the current position, if there is one
+         */
+        void skipByteOrderMark() throws IOException {
+            reader.mark(1);
+            if (reader.read() != '\uFEFF') {
+                reader.reset();
+            }
+        }
+
+        /**
+         * Read the next record
+         *
+         * @return Fields of the record, or null at end of input
+         */
+        List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            field.setLength(0);
+            boolean quoted = false;
+            boolean any = false;
+
+            int c;
+            while ((c = reader.read()) != -1) {
+                any = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+
+            if (!any) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoClient;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import com.yashkolte.coachlink.backend.repository.CoachRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for read-only coach lookups routed to MongoDB secondaries
+ *
+ * Pure reads such as check-email go through the secondary-preferred template
+ * to keep load off the primary. To preserve read-your-writes right after a
+ * coach is created, the creating write runs in a causally consistent session
+ * and its operation and cluster times are remembered per email for a short
+ * window. Reads for that email within the window start a causally consistent
+ * session advanced to those times, so the secondary waits until it has
+ * replicated the write before answering.
+ *
+ * The remembered times are local to this node; a read served by another node
+ * may briefly miss a just-created coach, which callers polling check-email
+ * already tolerate.
+ *
+ * With app.mongo.secondary-reads=false the lookups go through CoachRepository
+ * instead, e.g. in the inmemory profile.
+ */
+@Service
+@Slf4j
+public class CoachReadService {
+
+    private final MongoTemplate secondaryMongoTemplate;
+
+    private final MongoClient mongoClient;
+
+    private final CoachSchemaMigrationService schemaMigration;
+
+    private final CoachRepository coachRepository;
+
+    private final Map<String, CausalToken> recentWrites = new ConcurrentHashMap<>();
+
+    /**
+     * How long after a write reads for the same email stay causally consistent
+     */
+    @Value("${app.mongo.read-your-writes-window-ms:30000}")
+    private long readYourWritesWindowMs;
+
+    /**
+     * Whether lookups go to secondaries; when false they use the repository
+     */
+    @Value("${app.mongo.secondary-reads:true}")
+    private boolean secondaryReads;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param secondaryMongoTemplate Secondary-preferred template for reads
+     * @param mongoClient Client used to start causally consistent sessions
+     * @param schemaMigration Legacy lookups while the schema migration runs
+     * @param coachRepository Repository used when secondary reads are off
+     */
+    public CoachReadService(@Qualifier("secondaryMongoTemplate") MongoTemplate secondaryMongoTemplate,
+            MongoClient mongoClient,
+            CoachSchemaMigrationService schemaMigration,
+            CoachRepository coachRepository) {
+        this.secondaryMongoTemplate = secondaryMongoTemplate;
+        this.mongoClient = mongoClient;
+        this.schemaMigration = schemaMigration;
+        this.coachRepository = coachRepository;
+    }
+
+    /**
+     * Whether lookups and newly created coaches use secondaries and causal
+     * sessions
+     *
+     * @return false if coaches are read through the repository
+     */
+    public boolean isSecondaryReads() {
+        return secondaryReads;
+    }
+
+    /**
+     * Find a coach by email, preferring a secondary
+     *
+     * @param email Coach's email address
+     * @return Coach entity or null if not found
+     */
+    public Coach findByEmail(String email) {
+        if (!secondaryReads) {
+            return coachRepository.findByEmail(email).orElse(null);
+        }
+        Query query = Query.query(Criteria.where("email").is(email));
+        CausalToken token = recentWrites.get(email);
+        Coach coach;
+        if (token == null || token.isExpired()) {
+            coach = secondaryMongoTemplate.findOne(query, Coach.class);
+        } else {
+            try (ClientSession session = startCausalSession()) {
+                session.advanceClusterTime(token.clusterTime());
+                session.advanceOperationTime(token.operationTime());
+                coach = secondaryMongoTemplate.withSession(session).findOne(query, Coach.class);
+            }
+        }
+        return coach != null ? coach : schemaMigration.findLegacy("email", email);
+    }
+
+    /**
+     * Find a coach by Stripe account ID, preferring a secondary
+     *
+     * @param accountId Stripe account ID
+     * @return Coach entity or null if not found
+     */
+    public Coach findByStripeAccountId(String accountId) {
+        if (!secondaryReads) {
+            return coachRepository.findByStripeAccountId(accountId).orElse(null);
+        }
+        Coach coach = secondaryMongoTemplate.findOne(
+                Query.query(Criteria.where("stripeAccountId").is(accountId)), Coach.class);
+        return coach != null ? coach : schemaMigration.findLegacy("stripeAccountId", accountId);
+    }
+
+    /**
+     * Start a causally consistent session for a write whose result must be
+     * visible to subsequent secondary reads
+     *
+     * @return New session; the caller must close it
+     */
+    public ClientSession startCausalSession() {
+        return mongoClient.startSession(ClientSessionOptions.builder().causallyConsistent(true).build());
+    }
+
+    /**
+     * Remember the causal position of a write for a coach's email
+     *
+     * @param email Email of the written coach
+     * @param session Session the write was performed in
+     */
+    public void recordWrite(String email, ClientSession session) {
+        BsonTimestamp operationTime = session.getOperationTime();
+        if (operationTime == null) {
+            // Standalone servers do not report operation times; reads hit the same server anyway
+            return;
+        }
+        long expiresAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readYourWritesWindowMs);
+        recentWrites.put(email, new CausalToken(operationTime, session.getClusterTime(), expiresAt));
+    }
+
+    /**
+     * Drop causal positions whose window has passed
+     */
+    @Scheduled(fixedDelayString = "${app.mongo.read-your-writes-window-ms:30000}")
+    public void evictExpired() {
+        recentWrites.values().removeIf(CausalToken::isExpired);
+    }
+
+    /**
+     * Causal position of a write and when it stops mattering
+     */
+    private record CausalToken(BsonTimestamp operationTime, BsonDocument clusterTime, long expiresAtNanos) {
+
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+}
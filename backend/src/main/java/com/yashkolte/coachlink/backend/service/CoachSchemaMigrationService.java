@@ -0,0 +1,565 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.yashkolte.coachlink.backend.dto.CoachSchemaBenchmark;
+import com.yashkolte.coachlink.backend.dto.CoachSchemaMigrationReport;
+import com.yashkolte.coachlink.backend.dto.CollectionSizeStats;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterLoadEvent;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service moving coach documents to the compact storage schema
+ *
+ * The previous schema stored long field names, two boolean flags and two
+ * dates per coach. The migration runs online next to normal traffic: 1.
+ * Create the compact email and Stripe account indexes and make unique
+ * indexes on legacy fields partial 2. Read legacy documents in _id order, one
+ * batch at a time 3. Rewrite each document with an update that only matches
+ * if the legacy fields are unchanged, so a concurrent write is never
+ * overwritten 4. Pause between batches to limit the load on the primary 5.
+ * Repeat until no legacy document is left, then drop the indexes on legacy
+ * field names
+ *
+ * The index changes of step 1 are made before the web server starts, since a
+ * compact insert is rejected while the legacy unique email index is in place.
+ *
+ * Until the migration has completed on this node, legacy documents are
+ * upgraded in memory when loaded, and keyed lookups fall back to the legacy
+ * field names, so both schemas are readable throughout.
+ */
+@Service
+@Slf4j
+public class CoachSchemaMigrationService extends AbstractMongoEventListener<Coach>
+        implements SmartInitializingSingleton {
+
+    private static final String LEGACY_CLASS = Coach.class.getName();
+
+    private static final String TYPE_ALIAS = "c";
+
+    /**
+     * Legacy field name to compact field name, for fields stored one to one
+     */
+    private static final Map<String, String> RENAMED = Map.of(
+            "email", "e",
+            "name", "n",
+            "stripeAccountId", "a");
+
+    private static final List<String> LEGACY_FIELDS = List.of(
+            "email", "name", "stripeAccountId", "onboardingComplete", "payoutsEnabled", "createdAt", "updatedAt");
+
+    private final MongoTemplate mongoTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile boolean complete;
+
+    private volatile boolean indexesPrepared;
+
+    /**
+     * Whether to prepare indexes and look for legacy documents on startup
+     */
+    @Value("${app.coach-schema.check-on-startup:true}")
+    private boolean checkOnStartup;
+
+    /**
+     * Whether to migrate legacy documents in the background on startup
+     */
+    @Value("${app.coach-schema.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    /**
+     * Documents converted per bulk write
+     */
+    @Value("${app.coach-schema.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Pause between batches, leaving headroom for regular traffic
+     */
+    @Value("${app.coach-schema.batch-pause-ms:100}")
+    private long batchPauseMs;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Primary template; migration writes must go to the
+     * primary
+     */
+    public CoachSchemaMigrationService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Whether every coach document is known to use the compact schema
+     *
+     * @return true once a migration on this node found no legacy documents
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Ensure the compact indexes and relax the legacy unique indexes before
+     * the web server starts
+     *
+     * New coaches are written in the compact schema whether or not the
+     * migration runs, so the first create-account request must not find the
+     * legacy unique email index in place. If MongoDB is not reachable yet,
+     * the migration thread retries once the application is ready.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!checkOnStartup) {
+            return;
+        }
+        try {
+            prepareIndexes();
+        } catch (RuntimeException e) {
+            log.error("Failed to prepare coach indexes, retrying once the application is ready: {}",
+                    e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Start the background migration once the application is ready
+     *
+     * The legacy check and the migration run on the migration thread, so
+     * startup never waits on a scan of the collection.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!checkOnStartup) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                if (!indexesPrepared) {
+                    prepareIndexes();
+                }
+                if (!collection().find(legacyFilter()).limit(1).iterator().hasNext()) {
+                    complete = true;
+                    dropLegacyIndexes();
+                    return;
+                }
+                if (!migrateOnStartup) {
+                    log.warn("Legacy coach documents found and app.coach-schema.migrate-on-startup is false; "
+                            + "run the migration from the admin API");
+                    return;
+                }
+                migrate();
+            } catch (IllegalStateException e) {
+                log.info("Coach schema migration already running");
+            } catch (Exception e) {
+                log.error("Coach schema migration failed: {}", e.getMessage(), e);
+            }
+        }, "coach-schema-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Convert all legacy coach documents
+     *
+     * Repeats passes until a pass leaves no legacy documents behind or makes
+     * no progress.
+     *
+     * @return Report of the run
+     * @throws InterruptedException if interrupted while pausing between
+     * batches
+     * @throws IllegalStateException if a migration is already running
+     */
+    public CoachSchemaMigrationReport migrate() throws InterruptedException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A coach schema migration is already running");
+        }
+        try {
+            return runMigration();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Convert one coach document if it still uses the legacy schema
+     *
+     * Used before conditional updates that match on compact fields.
+     *
+     * @param id Coach ID
+     */
+    public void migrateDocument(String id) {
+        if (complete || id == null) {
+            return;
+        }
+        Document legacy = collection().find(new Document("$and", List.of(
+                new Document("_id", toObjectId(id)), legacyFilter()))).first();
+        if (legacy != null) {
+            collection().updateOne(unchangedFilter(legacy), compactUpdate(legacy));
+        }
+    }
+
+    /**
+     * Find a coach stored in the legacy schema by a legacy field
+     *
+     * @param legacyField Legacy field name, e.g. email or stripeAccountId
+     * @param value Value to match
+     * @return The coach, or null if none is found or the migration is complete
+     */
+    public Coach findLegacy(String legacyField, Object value) {
+        if (complete) {
+            return null;
+        }
+        Document legacy = collection().find(new Document(legacyField, value)).first();
+        return legacy == null ? null : mongoTemplate.getConverter().read(Coach.class, toCompact(legacy));
+    }
+
+    /**
+     * Find which emails belong to coaches still stored in the legacy schema
+     *
+     * @param emails Emails to check
+     * @return Subset of the emails with a legacy document
+     */
+    public Set<String> findLegacyEmails(Collection<String> emails) {
+        Set<String> found = new HashSet<>();
+        if (complete || emails.isEmpty()) {
+            return found;
+        }
+        for (Document legacy : collection().find(new Document("email", new Document("$in", emails)))
+                .projection(new Document("email", 1))) {
+            found.add(legacy.getString("email"));
+        }
+        return found;
+    }
+
+    /**
+     * Compare the size of sampled coach documents in both schemas
+     *
+     * @param sampleSize Number of documents to sample
+     * @return Average and projected sizes in both schemas
+     */
+    public CoachSchemaBenchmark benchmark(int sampleSize) {
+        DocumentCodec codec = new DocumentCodec();
+        long legacyBytes = 0;
+        long compactBytes = 0;
+        int sampled = 0;
+        for (Document document : collection().aggregate(List.of(
+                new Document("$sample", new Document("size", sampleSize))))) {
+            legacyBytes += bsonSize(toLegacy(document), codec);
+            compactBytes += bsonSize(toCompact(document), codec);
+            sampled++;
+        }
+
+        CoachSchemaBenchmark benchmark = new CoachSchemaBenchmark();
+        benchmark.setSampled(sampled);
+        benchmark.setCollection(collectionStats());
+        if (sampled > 0) {
+            benchmark.setLegacyAvgBytes((double) legacyBytes / sampled);
+            benchmark.setCompactAvgBytes((double) compactBytes / sampled);
+            benchmark.setSavedPercent(100.0 * (legacyBytes - compactBytes) / legacyBytes);
+            long count = benchmark.getCollection() != null
+                    ? benchmark.getCollection().getCount()
+                    : collection().estimatedDocumentCount();
+            benchmark.setProjectedLegacyDataSize(Math.round(benchmark.getLegacyAvgBytes() * count));
+            benchmark.setProjectedCompactDataSize(Math.round(benchmark.getCompactAvgBytes() * count));
+        }
+        return benchmark;
+    }
+
+    /**
+     * Upgrade legacy documents before they are mapped, so coaches stored in
+     * either schema load with all fields
+     */
+    @Override
+    public void onAfterLoad(AfterLoadEvent<Coach> event) {
+        Document document = event.getDocument();
+        if (document != null && isLegacy(document)) {
+            Document compact = toCompact(document);
+            document.clear();
+            document.putAll(compact);
+        }
+    }
+
+    private CoachSchemaMigrationReport runMigration() throws InterruptedException {
+        long start = System.nanoTime();
+        CoachSchemaMigrationReport report = new CoachSchemaMigrationReport();
+        report.setBefore(collectionStats());
+        prepareIndexes();
+        log.info("Starting coach schema migration");
+
+        long migratedBefore;
+        do {
+            migratedBefore = report.getMigrated();
+            migratePass(report);
+            report.setRemaining(collection().countDocuments(legacyFilter()));
+        } while (report.getRemaining() > 0 && report.getMigrated() > migratedBefore);
+
+        if (report.getRemaining() == 0) {
+            complete = true;
+            report.getDroppedIndexes().addAll(dropLegacyIndexes());
+        } else {
+            log.warn("Coach schema migration left {} legacy documents; run it again", report.getRemaining());
+        }
+
+        report.setAfter(collectionStats());
+        report.setDurationMs((System.nanoTime() - start) / 1_000_000);
+        log.info("Coach schema migration finished in {} ms: {} migrated, {} changed concurrently, {} failed, "
+                + "{} remaining, avg document size {} -> {} bytes", report.getDurationMs(), report.getMigrated(),
+                report.getChangedConcurrently(), report.getFailed(), report.getRemaining(),
+                report.getBefore() != null ? report.getBefore().getAvgObjSize() : "?",
+                report.getAfter() != null ? report.getAfter().getAvgObjSize() : "?");
+        return report;
+    }
+
+    private void migratePass(CoachSchemaMigrationReport report) throws InterruptedException {
+        Object lastId = null;
+        while (true) {
+            Document filter = lastId == null ? legacyFilter() : new Document("$and", List.of(
+                    legacyFilter(), new Document("_id", new Document("$gt", lastId))));
+            List<Document> batch = collection().find(filter)
+                    .sort(new Document("_id", 1))
+                    .limit(batchSize)
+                    .into(new ArrayList<>());
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            List<WriteModel<Document>> writes = new ArrayList<>(batch.size());
+            for (Document legacy : batch) {
+                writes.add(new UpdateOneModel<>(unchangedFilter(legacy), compactUpdate(legacy)));
+            }
+
+            int failed = 0;
+            BulkWriteResult result;
+            try {
+                result = collection().bulkWrite(writes, new BulkWriteOptions().ordered(false));
+            } catch (MongoBulkWriteException e) {
+                result = e.getWriteResult();
+                failed = e.getWriteErrors().size();
+                e.getWriteErrors().forEach(error -> log.warn("Could not migrate coach {}: {}",
+                        batch.get(error.getIndex()).get("_id"), error.getMessage()));
+            }
+
+            report.setScanned(report.getScanned() + batch.size());
+            report.setMigrated(report.getMigrated() + result.getModifiedCount());
+            report.setFailed(report.getFailed() + failed);
+            report.setChangedConcurrently(report.getChangedConcurrently()
+                    + Math.max(0, batch.size() - result.getMatchedCount() - failed));
+
+            lastId = batch.get(batch.size() - 1).get("_id");
+            Thread.sleep(batchPauseMs);
+        }
+    }
+
+    /**
+     * Match a legacy document only while its legacy fields still hold the
+     * values that were read
+     */
+    private static Document unchangedFilter(Document legacy) {
+        Document filter = new Document("_id", legacy.get("_id"));
+        for (String field : LEGACY_FIELDS) {
+            filter.append(field, legacy.containsKey(field)
+                    ? legacy.get(field)
+                    : new Document("$exists", false));
+        }
+        return filter;
+    }
+
+    private static Document compactUpdate(Document legacy) {
+        Document set = toCompact(legacy);
+        set.remove("_id");
+        Document unset = new Document();
+        for (String field : LEGACY_FIELDS) {
+            if (legacy.containsKey(field)) {
+                unset.append(field, "");
+            }
+        }
+        return new Document("$set", set).append("$unset", unset);
+    }
+
+    /**
+     * Convert a document in either schema to the compact schema
+     */
+    static Document toCompact(Document source) {
+        Document compact = new Document("_id", source.get("_id"));
+        compact.append("_class", TYPE_ALIAS);
+        RENAMED.forEach((legacyField, compactField) -> {
+            Object value = source.containsKey(compactField) ? source.get(compactField) : source.get(legacyField);
+            if (value != null) {
+                compact.append(compactField, value);
+            }
+        });
+        compact.append("s", source.containsKey("s")
+                ? source.getInteger("s")
+                : Coach.statusOf(source.getBoolean("onboardingComplete"), source.getBoolean("payoutsEnabled")));
+        appendMillis(compact, "c", source, "createdAt");
+        appendMillis(compact, "u", source, "updatedAt");
+        return compact;
+    }
+
+    /**
+     * Convert a document in either schema to the legacy schema
+     */
+    static Document toLegacy(Document source) {
+        Document compact = isLegacy(source) ? toCompact(source) : source;
+        Document legacy = new Document("_id", compact.get("_id"));
+        RENAMED.forEach((legacyField, compactField) -> {
+            if (compact.get(compactField) != null) {
+                legacy.append(legacyField, compact.get(compactField));
+            }
+        });
+        int status = compact.getInteger("s", 0);
+        legacy.append("onboardingComplete", (status & Coach.STATUS_ONBOARDING_COMPLETE) != 0);
+        legacy.append("payoutsEnabled", (status & Coach.STATUS_PAYOUTS_ENABLED) != 0);
+        if (compact.get("c") != null) {
+            legacy.append("createdAt", new Date(compact.getLong("c")));
+        }
+        if (compact.get("u") != null) {
+            legacy.append("updatedAt", new Date(compact.getLong("u")));
+        }
+        legacy.append("_class", LEGACY_CLASS);
+        return legacy;
+    }
+
+    private static void appendMillis(Document compact, String compactField, Document source, String legacyField) {
+        Object value = source.containsKey(compactField) ? source.get(compactField) : source.get(legacyField);
+        if (value instanceof Date date) {
+            compact.append(compactField, date.getTime());
+        } else if (value instanceof Number number) {
+            compact.append(compactField, number.longValue());
+        }
+    }
+
+    private static boolean isLegacy(Document document) {
+        for (String field : LEGACY_FIELDS) {
+            if (document.containsKey(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Document legacyFilter() {
+        List<Document> clauses = new ArrayList<>(LEGACY_FIELDS.size());
+        for (String field : LEGACY_FIELDS) {
+            clauses.add(new Document(field, new Document("$exists", true)));
+        }
+        return new Document("$or", clauses);
+    }
+
+    private void prepareIndexes() {
+        ensureCompactIndexes();
+        relaxLegacyUniqueIndexes();
+        indexesPrepared = true;
+    }
+
+    private void ensureCompactIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Coach.class);
+        // Sparse while legacy documents without these fields remain
+        indexOps.createIndex(new Index().on("e", Sort.Direction.ASC).unique().sparse().named("coach_email"));
+        indexOps.createIndex(new Index().on("a", Sort.Direction.ASC).sparse().named("coach_stripe_account"));
+    }
+
+    /**
+     * Replace unique indexes on legacy fields with partial ones
+     *
+     * Compact documents have no legacy fields, so a plain unique index (such
+     * as the default one on email) indexes them all as null and rejects every
+     * compact insert after the first. The partial replacement keeps uniqueness
+     * among the remaining legacy documents until the index is dropped.
+     */
+    private void relaxLegacyUniqueIndexes() {
+        for (Document index : collection().listIndexes()) {
+            Document key = index.get("key", Document.class);
+            if (key == null || !index.getBoolean("unique", false) || index.getBoolean("sparse", false)
+                    || index.containsKey("partialFilterExpression")
+                    || key.keySet().stream().noneMatch(LEGACY_FIELDS::contains)) {
+                continue;
+            }
+            Document partialFilter = new Document();
+            for (String field : key.keySet()) {
+                partialFilter.append(field, new Document("$exists", true));
+            }
+            String name = index.getString("name");
+            collection().dropIndex(name);
+            collection().createIndex(key, new IndexOptions().name(name).unique(true)
+                    .partialFilterExpression(partialFilter));
+            log.info("Replaced legacy unique coach index {} with a partial index", name);
+        }
+    }
+
+    private List<String> dropLegacyIndexes() {
+        List<String> dropped = new ArrayList<>();
+        for (Document index : collection().listIndexes()) {
+            Document key = index.get("key", Document.class);
+            if (key != null && key.keySet().stream().anyMatch(LEGACY_FIELDS::contains)) {
+                String name = index.getString("name");
+                collection().dropIndex(name);
+                dropped.add(name);
+                log.info("Dropped legacy coach index {}", name);
+            }
+        }
+        return dropped;
+    }
+
+    private CollectionSizeStats collectionStats() {
+        try {
+            Document stats = mongoTemplate.getDb().runCommand(
+                    new Document("collStats", mongoTemplate.getCollectionName(Coach.class)));
+            return new CollectionSizeStats(
+                    longValue(stats, "count"),
+                    longValue(stats, "avgObjSize"),
+                    longValue(stats, "size"),
+                    longValue(stats, "storageSize"),
+                    longValue(stats, "totalIndexSize"));
+        } catch (RuntimeException e) {
+            log.warn("Could not read coach collection statistics: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(Coach.class));
+    }
+
+    private static long longValue(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+    private static long bsonSize(Document document, DocumentCodec codec) {
+        return new RawBsonDocument(document, codec).getByteBuffer().remaining();
+    }
+
+    private static Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
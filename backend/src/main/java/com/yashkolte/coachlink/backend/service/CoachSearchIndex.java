@@ -0,0 +1,410 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.yashkolte.coachlink.backend.entity.Coach;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * In-memory search index over coach names and emails
+ *
+ * The index answers partial name or email queries without touching MongoDB:
+ * - Queries of three or more characters intersect trigram posting lists and
+ * verify the substring against the stored fields - Shorter queries use a
+ * sorted term map (name words and full email) for prefix lookups
+ *
+ * The index is built from a cursor over the coaches collection once the
+ * application is ready, updated from MongoDB save and delete events on this
+ * node, and rebuilt periodically so changes written by other nodes converge.
+ * Targeted updates ($set through updateFirst or bulk writes) emit no save
+ * events, so writers that change an indexed field call index() themselves.
+ * Rebuilds run on their own thread, so a slow load over a large collection
+ * never holds up the shared @Scheduled thread.
+ */
+@Service
+@Slf4j
+public class CoachSearchIndex extends AbstractMongoEventListener<Coach> {
+
+    /**
+     * Length of the n-grams used for substring queries
+     */
+    private static final int GRAM = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ScheduledExecutorService rebuilder;
+
+    private volatile IndexState state = new IndexState();
+
+    /**
+     * Coaches written while a rebuild is loading, replayed after the swap
+     */
+    private List<Coach> writesDuringRebuild;
+
+    /**
+     * Whether to load the index once the application is ready
+     */
+    @Value("${app.search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    /**
+     * Interval between periodic rebuilds
+     */
+    @Value("${app.search.rebuild-interval-ms:300000}")
+    private long rebuildIntervalMs;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Secondary-preferred template used to stream coaches
+     * during rebuilds
+     */
+    public CoachSearchIndex(@Qualifier("secondaryMongoTemplate") MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-index-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * A coach matched by a search query
+     *
+     * @param id Coach ID
+     * @param email Coach email
+     * @param name Coach display name
+     * @param stripeAccountId Stripe account ID, null while creation is pending
+     * @param score Relevance score, higher is better
+     */
+    public record Hit(String id, String email, String name, String stripeAccountId, int score) {
+    }
+
+    /**
+     * One page of search results
+     *
+     * @param total Number of matching coaches
+     * @param hits Matches on the requested page, best first
+     */
+    public record Page(int total, List<Hit> hits) {
+    }
+
+    /**
+     * Search coaches by partial name or email
+     *
+     * @param query Case-insensitive search text
+     * @param page Zero-based page number
+     * @param size Page size
+     * @return Ranked page of matches
+     */
+    public Page search(String query, int page, int size) {
+        String q = normalize(query);
+        if (q.isEmpty()) {
+            return new Page(0, List.of());
+        }
+
+        IndexState current = state;
+        Set<String> candidates = q.length() >= GRAM ? gramCandidates(current, q) : prefixCandidates(current, q);
+
+        List<Hit> hits = new ArrayList<>();
+        for (String id : candidates) {
+            Entry entry = current.entries.get(id);
+            if (entry != null) {
+                int score = score(entry, q);
+                if (score > 0) {
+                    hits.add(new Hit(id, entry.email, entry.name, entry.stripeAccountId, score));
+                }
+            }
+        }
+
+        hits.sort(Comparator.comparingInt(Hit::score).reversed()
+                .thenComparing(hit -> hit.email() == null ? "" : hit.email()));
+
+        int from = Math.min(hits.size(), Math.max(0, page) * size);
+        int to = Math.min(hits.size(), from + size);
+        return new Page(hits.size(), List.copyOf(hits.subList(from, to)));
+    }
+
+    /**
+     * Number of coaches in the index
+     *
+     * @return Indexed coach count
+     */
+    public int size() {
+        return state.entries.size();
+    }
+
+    /**
+     * Build the index once the application is ready, then rebuild it
+     * periodically
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuilder.scheduleWithFixedDelay(this::rebuild, rebuildOnStartup ? 0 : rebuildIntervalMs,
+                rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop periodic rebuilds
+     */
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Load all coaches into a fresh index and swap it in
+     *
+     * Streams the collection through a cursor; writes observed while loading
+     * are replayed onto the new index before it replaces the old one.
+     */
+    public void rebuild() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            writesDuringRebuild = new ArrayList<>();
+        }
+
+        IndexState fresh = new IndexState();
+        try (Stream<Coach> stream = mongoTemplate.stream(new Query(), Coach.class)) {
+            Iterator<Coach> coaches = stream.iterator();
+            while (coaches.hasNext()) {
+                fresh.put(coaches.next());
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                writesDuringRebuild = null;
+            }
+            log.error("Failed to rebuild coach search index: {}", e.getMessage(), e);
+            return;
+        }
+
+        synchronized (this) {
+            writesDuringRebuild.forEach(fresh::put);
+            writesDuringRebuild = null;
+            state = fresh;
+        }
+        log.info("Rebuilt coach search index with {} coaches in {} ms",
+                fresh.entries.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Index the current fields of a coach
+     *
+     * @param coach Coach with the values just written
+     */
+    public void index(Coach coach) {
+        synchronized (this) {
+            state.put(coach);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(coach);
+            }
+        }
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Coach> event) {
+        index(event.getSource());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Coach> event) {
+        Document filter = event.getSource();
+        Object id = filter != null ? filter.get("_id") : null;
+        if (id == null) {
+            // Bulk deletes without an ID; the next rebuild drops the removed coaches
+            return;
+        }
+        synchronized (this) {
+            state.remove(id.toString());
+            if (writesDuringRebuild != null) {
+                // Replaying a coach with only an ID removes it from the fresh index
+                Coach removed = new Coach();
+                removed.setId(id.toString());
+                writesDuringRebuild.add(removed);
+            }
+        }
+    }
+
+    private Set<String> gramCandidates(IndexState current, String q) {
+        Set<String> smallest = null;
+        for (int i = 0; i + GRAM <= q.length(); i++) {
+            Set<String> postings = current.grams.get(q.substring(i, i + GRAM));
+            if (postings == null) {
+                return Set.of();
+            }
+            if (smallest == null || postings.size() < smallest.size()) {
+                smallest = postings;
+            }
+        }
+        return smallest;
+    }
+
+    private Set<String> prefixCandidates(IndexState current, String q) {
+        Set<String> candidates = new HashSet<>();
+        for (Set<String> ids : current.terms.subMap(q, true, q + Character.MAX_VALUE, false).values()) {
+            candidates.addAll(ids);
+        }
+        return candidates;
+    }
+
+    /**
+     * Rank a candidate: exact email, then email prefix, then name or word
+     * prefix, then plain substring; zero means no match
+     */
+    private static int score(Entry entry, String q) {
+        if (entry.email.equals(q)) {
+            return 100;
+        }
+        if (entry.email.startsWith(q)) {
+            return 80;
+        }
+        if (entry.normalizedName.startsWith(q)) {
+            return 70;
+        }
+        for (String word : entry.nameWords) {
+            if (word.startsWith(q)) {
+                return 60;
+            }
+        }
+        if (entry.email.contains(q)) {
+            return 40;
+        }
+        if (entry.normalizedName.contains(q)) {
+            return 30;
+        }
+        return 0;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indexed fields of one coach
+     */
+    private static final class Entry {
+
+        private final String email;
+
+        private final String name;
+
+        private final String normalizedName;
+
+        private final String[] nameWords;
+
+        private final String stripeAccountId;
+
+        Entry(Coach coach) {
+            this.email = normalize(coach.getEmail());
+            this.name = coach.getName();
+            this.normalizedName = normalize(coach.getName());
+            this.nameWords = normalizedName.isEmpty() ? new String[0] : normalizedName.split("\\s+");
+            this.stripeAccountId = coach.getStripeAccountId();
+        }
+
+        Set<String> grams() {
+            Set<String> grams = new HashSet<>();
+            addGrams(grams, email);
+            addGrams(grams, normalizedName);
+            return grams;
+        }
+
+        Set<String> terms() {
+            Set<String> terms = new HashSet<>();
+            if (!email.isEmpty()) {
+                terms.add(email);
+            }
+            for (String word : nameWords) {
+                terms.add(word);
+            }
+            return terms;
+        }
+
+        private static void addGrams(Set<String> grams, String value) {
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                grams.add(value.substring(i, i + GRAM));
+            }
+        }
+    }
+
+    /**
+     * Posting lists and stored entries of one index generation
+     *
+     * Mutations are serialized by the enclosing service; readers use the
+     * concurrent maps without locking and verify candidates against entries,
+     * so a partially applied update can only cause a missed or filtered hit.
+     */
+    private static final class IndexState {
+
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+        private final Map<String, Set<String>> grams = new ConcurrentHashMap<>();
+
+        private final NavigableMap<String, Set<String>> terms = new ConcurrentSkipListMap<>();
+
+        void put(Coach coach) {
+            if (coach.getId() == null) {
+                return;
+            }
+            remove(coach.getId());
+            if (coach.getEmail() == null && coach.getName() == null) {
+                return;
+            }
+
+            Entry entry = new Entry(coach);
+            entries.put(coach.getId(), entry);
+            for (String gram : entry.grams()) {
+                grams.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(coach.getId());
+            }
+            for (String term : entry.terms()) {
+                terms.computeIfAbsent(term, key -> ConcurrentHashMap.newKeySet()).add(coach.getId());
+            }
+        }
+
+        void remove(String id) {
+            Entry old = entries.remove(id);
+            if (old == null) {
+                return;
+            }
+            for (String gram : old.grams()) {
+                removePosting(grams, gram, id);
+            }
+            for (String term : old.terms()) {
+                removePosting(terms, term, id);
+            }
+        }
+
+        private static void removePosting(Map<String, Set<String>> index, String key, String id) {
+            index.computeIfPresent(key, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.ClientSession;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import com.yashkolte.coachlink.backend.entity.CoachStatusTransition;
+import com.yashkolte.coachlink.backend.repository.CoachRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Service applying onboarding and payout status changes to coaches
+ *
+ * All status syncs (status checks and webhooks) go through this service so
+ * that each transition is applied exactly once: - The coach is updated with a
+ * compare-and-set on its previous status - Funnel counters are adjusted only
+ * by the writer that won the compare-and-set - Open status streams are
+ * notified of the new status - The transition is appended to the status
+ * history
+ *
+ * Batches of changes are written with one unordered bulk operation of the same
+ * compare-and-set updates; only changes that lose a race fall back to the
+ * single-coach retry loop.
+ */
+@Service
+@Slf4j
+public class CoachStatusService {
+
+    /**
+     * Compare-and-set attempts before giving up on a heavily contended coach
+     */
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final CoachRepository coachRepository;
+
+    private final FunnelStatsService funnelStatsService;
+
+    private final AccountStatusStreamService statusStreamService;
+
+    private final CoachReadService coachReadService;
+
+    private final CoachSchemaMigrationService schemaMigration;
+
+    private final StatusHistoryService statusHistoryService;
+
+    private final CoachSearchIndex coachSearchIndex;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Template used for conditional updates
+     * @param coachRepository Repository for conditional updates and re-reading
+     * contended coaches
+     * @param funnelStatsService Funnel counters to adjust on transitions
+     * @param statusStreamService Publisher for live status streams
+     * @param coachReadService Read routing to record causal write positions
+     * @param schemaMigration Converts legacy documents before conditional
+     * updates
+     * @param statusHistoryService History receiving every applied transition
+     * @param coachSearchIndex Search index to update after targeted writes
+     */
+    public CoachStatusService(MongoTemplate mongoTemplate,
+            CoachRepository coachRepository,
+            FunnelStatsService funnelStatsService,
+            AccountStatusStreamService statusStreamService,
+            CoachReadService coachReadService,
+            CoachSchemaMigrationService schemaMigration,
+            StatusHistoryService statusHistoryService,
+            CoachSearchIndex coachSearchIndex) {
+        this.mongoTemplate = mongoTemplate;
+        this.coachRepository = coachRepository;
+        this.funnelStatsService = funnelStatsService;
+        this.statusStreamService = statusStreamService;
+        this.coachReadService = coachReadService;
+        this.schemaMigration = schemaMigration;
+        this.statusHistoryService = statusHistoryService;
+        this.coachSearchIndex = coachSearchIndex;
+    }
+
+    /**
+     * Set a coach's onboarding and payout status
+     *
+     * @param coach Coach as last read by the caller
+     * @param onboardingComplete New onboarding status
+     * @param payoutsEnabled New payout status
+     * @param source Where the new status was observed
+     * @return The updated coach, or null if it no longer exists
+     */
+    public Coach updateStatus(Coach coach, Boolean onboardingComplete, Boolean payoutsEnabled,
+            CoachStatusTransition.Source source) {
+        Coach current = coach;
+        int status = Coach.statusOf(onboardingComplete, payoutsEnabled);
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            long nowMillis = Coach.toEpochMillis(now);
+            if (coachRepository.compareAndSetStatus(current.getId(), current.getStatus(), status, nowMillis)) {
+                funnelStatsService.recordTransition(current.getOnboardingComplete(), onboardingComplete,
+                        current.getPayoutsEnabled(), payoutsEnabled);
+                statusHistoryService.record(current, status, nowMillis, source);
+                current.setOnboardingComplete(onboardingComplete);
+                current.setPayoutsEnabled(payoutsEnabled);
+                current.setUpdatedAt(now);
+                statusStreamService.publish(current);
+                return current;
+            }
+
+            // Status changed concurrently; compare against the latest stored state
+            current = coachRepository.findById(current.getId()).orElse(null);
+            if (current == null) {
+                return null;
+            }
+        }
+        throw new IllegalStateException("Could not update status of coach " + coach.getEmail()
+                + " after " + MAX_ATTEMPTS + " attempts");
+    }
+
+    /**
+     * A status observed for one coach; when it equals the stored status only
+     * the timestamp is refreshed
+     *
+     * @param coach Coach as last read by the caller
+     * @param onboardingComplete New onboarding status
+     * @param payoutsEnabled New payout status
+     */
+    public record StatusChange(Coach coach, Boolean onboardingComplete, Boolean payoutsEnabled) {
+    }
+
+    /**
+     * Set the status of many coaches with one bulk write
+     *
+     * This method: 1. Sends one compare-and-set update per coach in an
+     * unordered bulk operation; a coach whose status is unchanged only gets
+     * its timestamp bumped, so it is not considered stale again 2. If some did
+     * not match, re-reads the batch once to tell which updates were applied
+     * (they carry this batch's timestamp) 3. Adjusts the funnel counters once
+     * for all applied changes 4. Retries the changes that lost a race one by
+     * one with updateStatus; a timestamp bump that lost one is dropped, since
+     * the winner wrote a fresh timestamp itself
+     *
+     * @param changes Observed statuses, at most one per coach
+     * @return The updated or refreshed coaches; coaches that no longer exist
+     * are omitted
+     */
+    public List<Coach> updateStatuses(List<StatusChange> changes) {
+        List<Coach> updated = new ArrayList<>(changes.size());
+        if (changes.isEmpty()) {
+            return updated;
+        }
+        if (!schemaMigration.isComplete()) {
+            // Legacy documents have no status field to compare against
+            for (StatusChange change : changes) {
+                if (isUnchanged(change)) {
+                    if (touch(change.coach())) {
+                        updated.add(change.coach());
+                    }
+                } else {
+                    addIfPresent(updated, updateStatus(change.coach(), change.onboardingComplete(),
+                            change.payoutsEnabled(), CoachStatusTransition.Source.BATCH));
+                }
+            }
+            return updated;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = Coach.toEpochMillis(now);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Coach.class);
+        for (StatusChange change : changes) {
+            Update update = new Update().set("updated", nowMillis);
+            if (!isUnchanged(change)) {
+                update.set("status", Coach.statusOf(change.onboardingComplete(), change.payoutsEnabled()));
+            }
+            bulk.updateOne(Query.query(Criteria.where("_id").is(change.coach().getId())
+                    .and("status").is(change.coach().getStatus())), update);
+        }
+        BulkWriteResult result = bulk.execute();
+        Set<String> applied = result.getMatchedCount() == changes.size() ? null : appliedIds(changes, nowMillis);
+
+        long onboardedDelta = 0;
+        long payoutsDelta = 0;
+        List<StatusChange> contended = new ArrayList<>();
+        for (StatusChange change : changes) {
+            Coach coach = change.coach();
+            if (applied != null && !applied.contains(coach.getId())) {
+                if (!isUnchanged(change)) {
+                    contended.add(change);
+                }
+                continue;
+            }
+            if (isUnchanged(change)) {
+                coach.setUpdatedAt(now);
+                updated.add(coach);
+                continue;
+            }
+            onboardedDelta += FunnelStatsService.delta(coach.getOnboardingComplete(), change.onboardingComplete());
+            payoutsDelta += FunnelStatsService.delta(coach.getPayoutsEnabled(), change.payoutsEnabled());
+            statusHistoryService.record(coach, Coach.statusOf(change.onboardingComplete(), change.payoutsEnabled()),
+                    nowMillis, CoachStatusTransition.Source.BATCH);
+            coach.setOnboardingComplete(change.onboardingComplete());
+            coach.setPayoutsEnabled(change.payoutsEnabled());
+            coach.setUpdatedAt(now);
+            statusStreamService.publish(coach);
+            updated.add(coach);
+        }
+        funnelStatsService.recordChange(onboardedDelta, payoutsDelta);
+
+        for (StatusChange change : contended) {
+            addIfPresent(updated, updateStatus(change.coach(), change.onboardingComplete(),
+                    change.payoutsEnabled(), CoachStatusTransition.Source.BATCH));
+        }
+        return updated;
+    }
+
+    /**
+     * Find which coaches of a batch carry the batch's status and timestamp
+     */
+    private Set<String> appliedIds(List<StatusChange> changes, long nowMillis) {
+        List<String> ids = new ArrayList<>(changes.size());
+        for (StatusChange change : changes) {
+            ids.add(change.coach().getId());
+        }
+        Query query = Query.query(Criteria.where("_id").in(ids).and("updated").is(nowMillis));
+        query.fields().include("status");
+        Set<String> applied = new HashSet<>();
+        for (Coach coach : mongoTemplate.find(query, Coach.class)) {
+            applied.add(coach.getId());
+        }
+        return applied;
+    }
+
+    private static boolean isUnchanged(StatusChange change) {
+        return Coach.statusOf(change.onboardingComplete(), change.payoutsEnabled()) == change.coach().getStatus();
+    }
+
+    private static void addIfPresent(List<Coach> coaches, Coach coach) {
+        if (coach != null) {
+            coaches.add(coach);
+        }
+    }
+
+    /**
+     * Link a coach to a new Stripe account
+     *
+     * Only the account ID and timestamp are written, so a concurrent status
+     * change is never overwritten with the caller's stale copy. The targeted
+     * update emits no save event, so the search index is updated here.
+     *
+     * @param coach Coach as last read by the caller
+     * @param stripeAccountId New Stripe account ID
+     * @return True if the coach still exists
+     */
+    public boolean assignStripeAccount(Coach coach, String stripeAccountId) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean updated = coachRepository.updateStripeAccountId(coach.getId(), stripeAccountId,
+                Coach.toEpochMillis(now));
+        if (updated) {
+            coach.setStripeAccountId(stripeAccountId);
+            coach.setUpdatedAt(now);
+            coachSearchIndex.index(coach);
+        }
+        return updated;
+    }
+
+    /**
+     * Bump a coach's updated timestamp without touching any other field
+     *
+     * @param coach Coach as last read by the caller
+     * @return True if the coach still exists
+     */
+    public boolean touch(Coach coach) {
+        LocalDateTime now = LocalDateTime.now();
+        boolean updated = coachRepository.updateTimestamp(coach.getId(), Coach.toEpochMillis(now));
+        if (updated) {
+            coach.setUpdatedAt(now);
+        }
+        return updated;
+    }
+
+    /**
+     * Insert a new coach record and count it in the funnel
+     *
+     * @param coach New coach record
+     * @return The saved coach
+     */
+    public Coach create(Coach coach) {
+        Coach saved;
+        if (coachReadService.isSecondaryReads()) {
+            // Causal session so check-email can read this coach from a secondary right away
+            try (ClientSession session = coachReadService.startCausalSession()) {
+                saved = mongoTemplate.withSession(session).insert(coach);
+                coachReadService.recordWrite(saved.getEmail(), session);
+            }
+        } else {
+            saved = coachRepository.insert(coach);
+        }
+        funnelStatsService.recordCreated();
+        return saved;
+    }
+}
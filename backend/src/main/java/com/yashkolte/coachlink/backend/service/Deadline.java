@@ -0,0 +1,153 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.mongodb.MongoOperationTimeoutException;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+
+/**
+ * Time budget of the request or job running on the current thread
+ *
+ * A controller or worker opens a scope with the total time it may spend;
+ * downstream calls then clamp their own timeouts to what is left instead of
+ * each waiting for its full default: - Every MongoDB operation runs with a
+ * client-side timeout of the remaining budget (see
+ * DeadlineAwareMongoDatabaseFactory) - Stripe calls get connect and read
+ * timeouts no longer than the remaining budget - Lock waits end when the
+ * budget does
+ *
+ * Work that starts after the deadline has passed fails immediately with
+ * DeadlineExceededException. Scopes nest: an inner scope can shorten the
+ * deadline but never extend it. Without an open scope nothing is clamped.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final String operation;
+
+    private final long deadlineNanos;
+
+    private Deadline(String operation, long deadlineNanos) {
+        this.operation = operation;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Open a deadline scope on the current thread
+     *
+     * @param operation Name of the request or job, used in error messages
+     * @param budget Total time the operation may take
+     * @return Scope to close when the operation ends
+     */
+    public static Scope start(String operation, Duration budget) {
+        Deadline previous = CURRENT.get();
+        long deadlineNanos = System.nanoTime() + budget.toNanos();
+        if (previous != null && previous.deadlineNanos - deadlineNanos < 0) {
+            deadlineNanos = previous.deadlineNanos;
+        }
+        CURRENT.set(new Deadline(operation, deadlineNanos));
+        return new Scope(previous);
+    }
+
+    /**
+     * Get the deadline of the current thread
+     *
+     * @return Current deadline, or null if no scope is open
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Clamp a timeout to the remaining budget of the current thread
+     *
+     * @param step Downstream call about to start, used in error messages
+     * @param timeoutMs Timeout the call would use without a deadline
+     * @return The smaller of timeoutMs and the remaining budget
+     * @throws DeadlineExceededException if the budget is already spent
+     */
+    public static long clamp(String step, long timeoutMs) {
+        Deadline deadline = CURRENT.get();
+        return deadline == null ? timeoutMs : Math.min(timeoutMs, deadline.remainingMillis(step));
+    }
+
+    /**
+     * Remaining budget, for a downstream call that is about to start
+     *
+     * @param step Downstream call about to start, used in error messages
+     * @return Remaining milliseconds, at least 1
+     * @throws DeadlineExceededException if the budget is already spent
+     */
+    public long remainingMillis(String step) {
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+            throw new DeadlineExceededException(operation + " ran out of time before " + step);
+        }
+        return Math.max(1, remainingNanos / 1_000_000);
+    }
+
+    /**
+     * Whether the budget is spent
+     *
+     * @return true once the deadline has passed
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Whether the current thread's budget is spent
+     *
+     * @return true if a scope is open and its deadline has passed
+     */
+    public static boolean isCurrentExpired() {
+        Deadline deadline = CURRENT.get();
+        return deadline != null && deadline.isExpired();
+    }
+
+    /**
+     * Whether a failure was caused by a spent budget or a downstream timeout
+     *
+     * Recognizes DeadlineExceededException, MongoDB client-side operation
+     * timeouts and socket timeouts (as wrapped by Stripe connection errors)
+     * anywhere in the cause chain.
+     *
+     * @param failure Exception thrown by the operation
+     * @return true if the operation failed by running out of time
+     */
+    public static boolean isTimeout(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof DeadlineExceededException
+                    || t instanceof MongoOperationTimeoutException
+                    || t instanceof SocketTimeoutException) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Open deadline scope; closing it restores the enclosing deadline
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Deadline previous;
+
+        private Scope(Deadline previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
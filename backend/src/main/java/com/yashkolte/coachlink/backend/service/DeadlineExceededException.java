@@ -0,0 +1,19 @@
+package com.yashkolte.coachlink.backend.service;
+
+/**
+ * Thrown when a request or job has spent its time budget before a downstream
+ * call could start
+ *
+ * Controllers report it as 504 Gateway Timeout.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    /**
+     * Create the exception
+     *
+     * @param message Which operation ran out of time and where
+     */
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,110 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.yashkolte.coachlink.backend.entity.Coach;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service for serializing work on the same coach email within this node
+ *
+ * Uses a fixed array of lock stripes indexed by the email hash, so memory use
+ * is constant no matter how many emails are seen. Requests for the same email
+ * always map to the same stripe: a duplicate request waits for the first one
+ * and then observes its result instead of repeating it. Unrelated emails only
+ * contend when they share a stripe.
+ *
+ * Also derives deterministic Stripe idempotency keys from the email, so
+ * duplicate requests handled by different nodes still create at most one
+ * Stripe account.
+ */
+@Service
+public class EmailLockService {
+
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Maximum time a request waits for another request on the same email
+     */
+    @Value("${app.email-lock.timeout-ms:30000}")
+    private long lockTimeoutMs;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param stripeCount Number of lock stripes, rounded up to a power of two
+     */
+    public EmailLockService(@Value("${app.email-lock.stripes:256}") int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Run an action while holding the lock stripe for an email
+     *
+     * @param <T> Result type of the action
+     * @param email Coach email the action works on
+     * @param action Action to run under the lock
+     * @return Result of the action
+     * @throws Exception if the action fails, or IllegalStateException if the
+     * lock could not be acquired in time, or DeadlineExceededException if the
+     * current deadline passed while waiting
+     */
+    public <T> T withLock(String email, Callable<T> action) throws Exception {
+        ReentrantLock lock = stripeFor(normalize(email));
+        if (!lock.tryLock(Deadline.clamp("email lock", lockTimeoutMs), TimeUnit.MILLISECONDS)) {
+            if (Deadline.isCurrentExpired()) {
+                throw new DeadlineExceededException("Ran out of time waiting for concurrent request on " + email);
+            }
+            throw new IllegalStateException("Timed out waiting for concurrent request on " + email);
+        }
+        try {
+            return action.call();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Derive the Stripe idempotency key for creating a coach's account
+     *
+     * The key depends only on the normalized email and the creation generation
+     * (bumped each time a failed creation is re-queued), so every node computes
+     * the same key for the same attempt and the email itself is not sent to
+     * Stripe as part of the key.
+     *
+     * @param email Coach's email address
+     * @param generation Creation generation for the email
+     * @return Idempotency key for Account.create
+     */
+    public static String accountCreationKey(String email, long generation) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(normalize(email).getBytes(StandardCharsets.UTF_8));
+            return "coach-account-" + HexFormat.of().formatHex(hash, 0, 16) + "-" + generation;
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is required on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ReentrantLock stripeFor(String key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16); // Spread high bits, as HashMap does
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : Coach.normalizeEmail(email);
+    }
+}
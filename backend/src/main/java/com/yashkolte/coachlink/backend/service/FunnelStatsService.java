@@ -0,0 +1,185 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.yashkolte.coachlink.backend.entity.Coach;
+import com.yashkolte.coachlink.backend.entity.FunnelStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Service maintaining the coach onboarding funnel counters
+ *
+ * Counters are updated incrementally as coaches move between states: -
+ * created: a coach record is inserted - onboarded: onboardingComplete flips
+ * - payouts enabled: payoutsEnabled flips
+ *
+ * Reads are a single lookup by ID. Because increments happen after the coach
+ * write, a crash in between can leave the counters slightly off; recount()
+ * recomputes them from the coaches collection to heal such drift, on demand
+ * or on an optional schedule.
+ */
+@Service
+@Slf4j
+public class FunnelStatsService {
+
+    /**
+     * ID of the single funnel counters document
+     */
+    static final String FUNNEL_ID = "coaches";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Whether counter changes are written; off where coaches are not stored in
+     * MongoDB
+     */
+    @Value("${app.funnel.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Template used for atomic counter updates
+     */
+    public FunnelStatsService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Count a newly inserted coach record
+     */
+    public void recordCreated() {
+        recordCreated(1);
+    }
+
+    /**
+     * Count several newly inserted coach records, e.g. from a bulk import
+     *
+     * @param count Number of inserted coaches
+     */
+    public void recordCreated(long count) {
+        if (count > 0) {
+            increment(new Update().inc("registered", count));
+        }
+    }
+
+    /**
+     * Apply the counter changes for a coach status transition
+     *
+     * Does nothing when neither flag changed.
+     *
+     * @param oldOnboarding Previous onboardingComplete value
+     * @param newOnboarding New onboardingComplete value
+     * @param oldPayouts Previous payoutsEnabled value
+     * @param newPayouts New payoutsEnabled value
+     */
+    public void recordTransition(Boolean oldOnboarding, Boolean newOnboarding,
+            Boolean oldPayouts, Boolean newPayouts) {
+        recordChange(delta(oldOnboarding, newOnboarding), delta(oldPayouts, newPayouts));
+    }
+
+    /**
+     * Apply summed counter changes, e.g. for a batch of status transitions
+     *
+     * Does nothing when both deltas are zero.
+     *
+     * @param onboardedDelta Change of the onboarded count
+     * @param payoutsDelta Change of the payouts-enabled count
+     */
+    public void recordChange(long onboardedDelta, long payoutsDelta) {
+        if (onboardedDelta == 0 && payoutsDelta == 0) {
+            return;
+        }
+
+        Update update = new Update();
+        if (onboardedDelta != 0) {
+            update.inc("onboarded", onboardedDelta);
+        }
+        if (payoutsDelta != 0) {
+            update.inc("payoutsEnabled", payoutsDelta);
+        }
+        increment(update);
+    }
+
+    /**
+     * Read the current funnel counters
+     *
+     * @return Funnel counters, all zero if nothing has been counted yet
+     */
+    public FunnelStats getStats() {
+        FunnelStats stats = mongoTemplate.findById(FUNNEL_ID, FunnelStats.class);
+        return stats != null ? stats : new FunnelStats(FUNNEL_ID, 0, 0, 0, null, null);
+    }
+
+    /**
+     * Recompute all counters from the coaches collection
+     *
+     * Uses three count queries; increments racing with the
+     * recount may be lost, which the next recount corrects.
+     *
+     * @return The recomputed counters
+     */
+    public FunnelStats recount() {
+        long registered = mongoTemplate.count(new Query(), Coach.class);
+        long onboarded = mongoTemplate.count(Query.query(hasStatus(
+                Coach.STATUS_ONBOARDING_COMPLETE, "onboardingComplete")), Coach.class);
+        long payoutsEnabled = mongoTemplate.count(Query.query(hasStatus(
+                Coach.STATUS_PAYOUTS_ENABLED, "payoutsEnabled")), Coach.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        FunnelStats before = getStats();
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(FUNNEL_ID)), new Update()
+                .set("registered", registered)
+                .set("onboarded", onboarded)
+                .set("payoutsEnabled", payoutsEnabled)
+                .set("updatedAt", now)
+                .set("lastRecountAt", now), FunnelStats.class);
+
+        if (before.getRegistered() != registered || before.getOnboarded() != onboarded
+                || before.getPayoutsEnabled() != payoutsEnabled) {
+            log.warn("Funnel counters drifted: registered {} -> {}, onboarded {} -> {}, payouts {} -> {}",
+                    before.getRegistered(), registered, before.getOnboarded(), onboarded,
+                    before.getPayoutsEnabled(), payoutsEnabled);
+        }
+        return new FunnelStats(FUNNEL_ID, registered, onboarded, payoutsEnabled, now, now);
+    }
+
+    /**
+     * Periodic self-healing recount, disabled unless app.funnel.recount-cron
+     * is set
+     */
+    @Scheduled(cron = "${app.funnel.recount-cron:-}")
+    public void scheduledRecount() {
+        recount();
+    }
+
+    private void increment(Update update) {
+        if (!enabled) {
+            return;
+        }
+        update.set("updatedAt", LocalDateTime.now());
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(FUNNEL_ID)), update, FunnelStats.class);
+    }
+
+    /**
+     * Match coaches with a status bit set, in the compact schema or in the
+     * legacy schema still present while the schema migration runs (legacy
+     * field names are not Coach properties, so they pass through unmapped)
+     */
+    private static Criteria hasStatus(int bit, String legacyField) {
+        return new Criteria().orOperator(
+                Criteria.where("status").bits().allSet(bit),
+                Criteria.where(legacyField).is(true));
+    }
+
+    static int delta(Boolean oldValue, Boolean newValue) {
+        return (Boolean.TRUE.equals(newValue) ? 1 : 0) - (Boolean.TRUE.equals(oldValue) ? 1 : 0);
+    }
+}
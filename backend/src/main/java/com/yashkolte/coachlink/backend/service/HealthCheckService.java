@@ -0,0 +1,306 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.Balance;
+import com.stripe.net.RequestOptions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Background health checks for MongoDB and Stripe
+ *
+ * Probes never touch a dependency themselves. Scheduled jobs ping MongoDB and
+ * call Stripe with short timeouts and store each result with its timestamp;
+ * the health endpoints read the latest results from memory, so a probe costs
+ * the same whether a dependency is up, slow or down.
+ *
+ * Two views are derived from the cached results: - Liveness: the process is
+ * running and the check jobs are still reporting; dependency outages never
+ * fail it, since restarting would not fix them - Readiness: MongoDB answered
+ * its latest ping, and Stripe answered at least once since startup (or its
+ * latest check, with app.health.readiness-requires-stripe=true), and startup
+ * warm-up has finished
+ *
+ * A result older than app.health.stale-after-ms counts as DOWN.
+ *
+ * The checks run on their own scheduler threads, one per dependency, rather
+ * than on the shared @Scheduled thread: a long job there (such as a search
+ * index rebuild) would otherwise delay the checks until the cached results go
+ * stale and every node reports unready, or even not live.
+ */
+@Service
+@Slf4j
+public class HealthCheckService {
+
+    private static final String MONGO = "mongo";
+
+    private static final String STRIPE = "stripe";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile Check mongo = Check.unknown(MONGO);
+
+    private volatile Check stripe = Check.unknown(STRIPE);
+
+    /**
+     * Whether Stripe has answered since startup, so its connection pool is warm
+     */
+    private volatile boolean stripeSeen;
+
+    /**
+     * Whether startup warm-up has finished (see WarmupService)
+     */
+    private volatile boolean warm;
+
+    /**
+     * Stripe API secret key, passed per request since Stripe.apiKey is only
+     * set once StripeService has been used
+     */
+    @Value("${stripe.api.key}")
+    private String stripeApiKey;
+
+    /**
+     * Timeout of one MongoDB ping
+     */
+    @Value("${app.health.mongo-timeout-ms:2000}")
+    private long mongoTimeoutMs;
+
+    /**
+     * Connect and read timeout of one Stripe check
+     */
+    @Value("${app.health.stripe-timeout-ms:3000}")
+    private int stripeTimeoutMs;
+
+    /**
+     * Age after which a cached result no longer counts as UP
+     */
+    @Value("${app.health.stale-after-ms:60000}")
+    private long staleAfterMs;
+
+    /**
+     * Whether an ongoing Stripe outage makes the node unready
+     */
+    @Value("${app.health.readiness-requires-stripe:false}")
+    private boolean readinessRequiresStripe;
+
+    /**
+     * Whether to run the background checks at all
+     */
+    @Value("${app.health.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Interval between MongoDB pings
+     */
+    @Value("${app.health.mongo-interval-ms:10000}")
+    private long mongoIntervalMs;
+
+    /**
+     * Interval between Stripe checks
+     */
+    @Value("${app.health.stripe-interval-ms:30000}")
+    private long stripeIntervalMs;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Primary template; the ping must reach the primary
+     */
+    public HealthCheckService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+        AtomicInteger threads = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "health-check-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start the background checks
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::checkMongo, 0, mongoIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::checkStripe, 0, stripeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop the background checks
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Result of one dependency check
+     *
+     * @param name Dependency name
+     * @param status UP, DOWN or UNKNOWN before the first check
+     * @param latencyMs Duration of the check
+     * @param checkedAt Epoch millis when the check finished, 0 if never run
+     * @param error Failure message, null when UP
+     */
+    public record Check(String name, String status, long latencyMs, long checkedAt, String error) {
+
+        static Check unknown(String name) {
+            return new Check(name, "UNKNOWN", 0, 0, null);
+        }
+
+        /**
+         * Whether the check succeeded and is recent enough to trust
+         *
+         * @param now Current epoch millis
+         * @param staleAfterMs Maximum age of a trusted result
+         * @return true if UP and fresh
+         */
+        public boolean isUp(long now, long staleAfterMs) {
+            return "UP".equals(status) && now - checkedAt <= staleAfterMs;
+        }
+    }
+
+    /**
+     * Latest MongoDB check
+     *
+     * @return Cached result
+     */
+    public Check mongo() {
+        return mongo;
+    }
+
+    /**
+     * Latest Stripe check
+     *
+     * @return Cached result
+     */
+    public Check stripe() {
+        return stripe;
+    }
+
+    /**
+     * Whether the process is alive
+     *
+     * @return false only if the check jobs have stopped reporting
+     */
+    public boolean isLive() {
+        long now = System.currentTimeMillis();
+        Check latest = mongo;
+        return latest.checkedAt() == 0 || now - latest.checkedAt() <= staleAfterMs * 3;
+    }
+
+    /**
+     * Whether the node should receive traffic
+     *
+     * @return true once warm-up is done, MongoDB is reachable and Stripe has
+     * been reached
+     */
+    public boolean isReady() {
+        long now = System.currentTimeMillis();
+        if (!warm || !mongo.isUp(now, staleAfterMs)) {
+            return false;
+        }
+        return readinessRequiresStripe ? stripe.isUp(now, staleAfterMs) : stripeSeen;
+    }
+
+    /**
+     * Record that startup warm-up has finished, allowing the node to report
+     * ready
+     */
+    public void markWarm() {
+        warm = true;
+    }
+
+    /**
+     * Whether startup warm-up has finished
+     *
+     * @return true once warm-up has finished or was skipped
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    /**
+     * Overall status: UP when every dependency is up, DEGRADED when only
+     * Stripe is down, DOWN when MongoDB is down
+     *
+     * @return Overall status
+     */
+    public String status() {
+        long now = System.currentTimeMillis();
+        if (!mongo.isUp(now, staleAfterMs)) {
+            return "DOWN";
+        }
+        return stripe.isUp(now, staleAfterMs) ? "UP" : "DEGRADED";
+    }
+
+    /**
+     * Ping MongoDB
+     */
+    public void checkMongo() {
+        long start = System.nanoTime();
+        try (Deadline.Scope deadline = Deadline.start("Health check", Duration.ofMillis(mongoTimeoutMs))) {
+            mongoTemplate.executeCommand(new Document("ping", 1));
+            mongo = up(MONGO, start);
+        } catch (RuntimeException e) {
+            mongo = down(MONGO, start, e);
+        }
+    }
+
+    /**
+     * Check that the Stripe API is reachable and accepts our key
+     *
+     * Retrieving the balance is a cheap authenticated read.
+     */
+    public void checkStripe() {
+        long start = System.nanoTime();
+        RequestOptions options = RequestOptions.builder()
+                .setApiKey(stripeApiKey)
+                .setConnectTimeout(Math.min(stripeTimeoutMs, Stripe.getConnectTimeout()))
+                .setReadTimeout(Math.min(stripeTimeoutMs, Stripe.getReadTimeout()))
+                .build();
+        try {
+            Balance.retrieve(options);
+            stripe = up(STRIPE, start);
+            stripeSeen = true;
+        } catch (StripeException | RuntimeException e) {
+            stripe = down(STRIPE, start, e);
+        }
+    }
+
+    private Check up(String name, long startNanos) {
+        if ("DOWN".equals(latest(name).status())) {
+            log.info("Health check for {} recovered", name);
+        }
+        return new Check(name, "UP", (System.nanoTime() - startNanos) / 1_000_000, System.currentTimeMillis(), null);
+    }
+
+    private Check down(String name, long startNanos, Exception e) {
+        if (!"DOWN".equals(latest(name).status())) {
+            log.warn("Health check for {} failed: {}", name, e.getMessage());
+        }
+        return new Check(name, "DOWN", (System.nanoTime() - startNanos) / 1_000_000, System.currentTimeMillis(),
+                e.getMessage());
+    }
+
+    private Check latest(String name) {
+        return MONGO.equals(name) ? mongo : stripe;
+    }
+}
@@ -0,0 +1,303 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.stripe.model.Event;
+import com.stripe.model.Payout;
+import com.stripe.model.StripeObject;
+import com.stripe.model.Transfer;
+import com.stripe.model.TransferReversal;
+import com.stripe.model.TransferReversalCollection;
+import com.stripe.net.RequestOptions;
+import com.yashkolte.coachlink.backend.entity.LedgerBalance;
+import com.yashkolte.coachlink.backend.entity.LedgerDailyRollup;
+import com.yashkolte.coachlink.backend.entity.LedgerEntry;
+import com.yashkolte.coachlink.backend.entity.LedgerTotals;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Service maintaining the per-coach transfer and payout ledger
+ *
+ * Transfer and payout events from Stripe are recorded as append-only
+ * LedgerEntry documents keyed by event ID, or by reversal ID for transfer
+ * reversals. Each newly recorded entry then
+ * increments two pre-aggregated documents with upserts: - The coach's
+ * all-time LedgerBalance for the currency - The LedgerDailyRollup of the
+ * event's UTC day
+ *
+ * Balance views read one document per currency and reports read one rollup
+ * per day, both from an index on the account ID. As with the funnel counters,
+ * a crash between recording an entry and incrementing the aggregates leaves
+ * them short; rebuild() recomputes an account's aggregates from its entries.
+ */
+@Service
+@Slf4j
+public class LedgerService {
+
+    /**
+     * Stripe event types recorded in the ledger
+     */
+    public static final Set<String> EVENT_TYPES = Set.of("transfer.created", "transfer.reversed",
+            "payout.created", "payout.paid", "payout.failed", "payout.canceled");
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Stripe API secret key, used only to page through the reversals of a
+     * transfer with more than the embedded first page
+     */
+    @Value("${stripe.api.key}")
+    private String stripeApiKey;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Template used for entries and atomic aggregate
+     * updates
+     */
+    public LedgerService(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Record a transfer or payout event and update the aggregates
+     *
+     * @param event Stripe event with a type from EVENT_TYPES
+     * @return true if a new entry was recorded, false if the event carries no
+     * movement or was recorded before
+     */
+    public boolean record(Event event) {
+        List<LedgerEntry> entries = toEntries(event);
+        if (entries.isEmpty()) {
+            log.warn("No ledger movement in {} event {}", event.getType(), event.getId());
+            return false;
+        }
+
+        boolean recorded = false;
+        for (LedgerEntry entry : entries) {
+            recorded |= record(entry);
+        }
+        return recorded;
+    }
+
+    private boolean record(LedgerEntry entry) {
+        try {
+            mongoTemplate.insert(entry);
+        } catch (DuplicateKeyException e) {
+            log.debug("Ledger entry {} already recorded", entry.getId());
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.upsert(Query.query(Criteria.where("_id")
+                .is(LedgerBalance.idOf(entry.getAccountId(), entry.getCurrency()))),
+                increments(entry, now), LedgerBalance.class);
+        mongoTemplate.upsert(Query.query(Criteria.where("_id")
+                .is(LedgerDailyRollup.idOf(entry.getAccountId(), entry.getCurrency(), entry.getDay()))),
+                increments(entry, now).setOnInsert("day", entry.getDay()), LedgerDailyRollup.class);
+        return true;
+    }
+
+    /**
+     * Read a coach's all-time totals
+     *
+     * @param accountId Stripe account ID
+     * @return One balance per currency, empty if nothing was recorded
+     */
+    public List<LedgerBalance> getBalances(String accountId) {
+        return mongoTemplate.find(Query.query(Criteria.where("accountId").is(accountId)), LedgerBalance.class);
+    }
+
+    /**
+     * Read a coach's daily totals in a date range
+     *
+     * @param accountId Stripe account ID
+     * @param from First UTC day, inclusive
+     * @param to Last UTC day, inclusive
+     * @return Rollups ordered by day, only days with entries
+     */
+    public List<LedgerDailyRollup> getDaily(String accountId, LocalDate from, LocalDate to) {
+        Query query = Query.query(Criteria.where("accountId").is(accountId)
+                .and("day").gte(from.toString()).lte(to.toString()))
+                .with(Sort.by("day"));
+        return mongoTemplate.find(query, LedgerDailyRollup.class);
+    }
+
+    /**
+     * Recompute an account's balances and daily rollups from its entries
+     *
+     * Each aggregate is replaced in place with an upsert, so readers never see
+     * it missing and a concurrent record() never hits a duplicate key between
+     * a remove and an insert. Aggregates without entries are removed unless they
+     * were updated after the rebuild started. Entries recorded while the
+     * rebuild runs may be missed, which the next rebuild corrects.
+     *
+     * @param accountId Stripe account ID
+     * @return The recomputed balances
+     */
+    public List<LedgerBalance> rebuild(String accountId) {
+        Map<String, LedgerBalance> balances = new LinkedHashMap<>();
+        Map<String, LedgerDailyRollup> daily = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        Query query = Query.query(Criteria.where("accountId").is(accountId)).with(Sort.by("occurredAt"));
+        try (Stream<LedgerEntry> stream = mongoTemplate.stream(query, LedgerEntry.class)) {
+            Iterator<LedgerEntry> entries = stream.iterator();
+            while (entries.hasNext()) {
+                LedgerEntry entry = entries.next();
+                String balanceId = LedgerBalance.idOf(accountId, entry.getCurrency());
+                balances.computeIfAbsent(balanceId, id -> {
+                    LedgerBalance balance = new LedgerBalance();
+                    balance.setId(id);
+                    return init(balance, entry, now);
+                }).add(entry);
+                String rollupId = LedgerDailyRollup.idOf(accountId, entry.getCurrency(), entry.getDay());
+                daily.computeIfAbsent(rollupId, id -> {
+                    LedgerDailyRollup rollup = new LedgerDailyRollup();
+                    rollup.setId(id);
+                    rollup.setDay(entry.getDay());
+                    return init(rollup, entry, now);
+                }).add(entry);
+            }
+        }
+
+        balances.values().forEach(mongoTemplate::save);
+        daily.values().forEach(mongoTemplate::save);
+        mongoTemplate.remove(staleAggregates(accountId, balances.keySet(), now), LedgerBalance.class);
+        mongoTemplate.remove(staleAggregates(accountId, daily.keySet(), now), LedgerDailyRollup.class);
+        log.info("Rebuilt ledger aggregates for account {}: {} currencies, {} days",
+                accountId, balances.size(), daily.size());
+        return new ArrayList<>(balances.values());
+    }
+
+    /**
+     * Aggregates of an account that the rebuild did not produce and nothing
+     * has updated since it started
+     */
+    private static Query staleAggregates(String accountId, Set<String> rebuiltIds, LocalDateTime startedAt) {
+        return Query.query(Criteria.where("accountId").is(accountId)
+                .and("_id").nin(rebuiltIds)
+                .and("updatedAt").lt(startedAt));
+    }
+
+    /**
+     * Convert a Stripe event into ledger entries
+     *
+     * A transfer.reversed event carries the transfer with all of its
+     * reversals so far, and previous_attributes is not sent for it. It is
+     * recorded as one entry per reversal, keyed by reversal ID, so each
+     * partial reversal counts once however many later events list it again.
+     * Every other event becomes at most one entry keyed by event ID.
+     *
+     * @return Entries, empty if the event has no matching object or amount
+     */
+    private List<LedgerEntry> toEntries(Event event) {
+        StripeObject object = event.getDataObjectDeserializer().getObject().orElse(null);
+        String accountId = StripeEventHandler.accountIdOf(event);
+        if (accountId == null) {
+            return List.of();
+        }
+
+        if (object instanceof Transfer transfer && "transfer.reversed".equals(event.getType())) {
+            List<LedgerEntry> entries = new ArrayList<>();
+            for (TransferReversal reversal : reversalsOf(transfer)) {
+                addIfValid(entries, reversal.getId(), accountId, LedgerEntry.Type.TRANSFER_REVERSAL,
+                        transfer.getId(), valueOf(reversal.getAmount()), reversal.getCurrency(),
+                        reversal.getCreated() != null ? reversal.getCreated() : event.getCreated());
+            }
+            return entries;
+        }
+
+        LedgerEntry.Type type;
+        String objectId;
+        long amount;
+        String currency;
+        if (object instanceof Transfer transfer) {
+            objectId = transfer.getId();
+            currency = transfer.getCurrency();
+            type = LedgerEntry.Type.TRANSFER;
+            amount = valueOf(transfer.getAmount());
+        } else if (object instanceof Payout payout) {
+            objectId = payout.getId();
+            currency = payout.getCurrency();
+            amount = valueOf(payout.getAmount());
+            type = switch (event.getType()) {
+                case "payout.created" -> LedgerEntry.Type.PAYOUT;
+                case "payout.paid" -> LedgerEntry.Type.PAYOUT_SETTLED;
+                default -> LedgerEntry.Type.PAYOUT_RETURNED;
+            };
+        } else {
+            return List.of();
+        }
+        List<LedgerEntry> entries = new ArrayList<>(1);
+        addIfValid(entries, event.getId(), accountId, type, objectId, amount, currency, event.getCreated());
+        return entries;
+    }
+
+    /**
+     * All reversals of a transfer; the event embeds the first page, later
+     * pages are fetched from Stripe
+     */
+    private Iterable<TransferReversal> reversalsOf(Transfer transfer) {
+        TransferReversalCollection reversals = transfer.getReversals();
+        if (reversals == null || reversals.getData() == null) {
+            return List.of();
+        }
+        if (!Boolean.TRUE.equals(reversals.getHasMore())) {
+            return reversals.getData();
+        }
+        return reversals.autoPagingIterable(Map.of(), RequestOptions.builder().setApiKey(stripeApiKey).build());
+    }
+
+    private static void addIfValid(List<LedgerEntry> entries, String id, String accountId, LedgerEntry.Type type,
+            String objectId, long amount, String currency, long createdSeconds) {
+        if (amount <= 0 || currency == null) {
+            return;
+        }
+        Instant occurredAt = Instant.ofEpochSecond(createdSeconds);
+        entries.add(new LedgerEntry(id, accountId, type, objectId, amount, currency,
+                LocalDate.ofInstant(occurredAt, ZoneOffset.UTC).toString(), Date.from(occurredAt), new Date()));
+    }
+
+    private static Update increments(LedgerEntry entry, LocalDateTime now) {
+        LedgerEntry.Type type = entry.getType();
+        return new Update()
+                .setOnInsert("accountId", entry.getAccountId())
+                .setOnInsert("currency", entry.getCurrency())
+                .inc(type.counter(), entry.getAmount())
+                .inc("net", type.sign() * entry.getAmount())
+                .inc("entries", 1)
+                .max("lastEventAt", entry.getOccurredAt())
+                .set("updatedAt", now);
+    }
+
+    private static <T extends LedgerTotals> T init(T totals, LedgerEntry entry, LocalDateTime now) {
+        totals.setAccountId(entry.getAccountId());
+        totals.setCurrency(entry.getCurrency());
+        totals.setUpdatedAt(now);
+        return totals;
+    }
+
+    private static long valueOf(Long amount) {
+        return amount != null ? amount : 0;
+    }
+}
@@ -0,0 +1,152 @@
+package com.yashkolte.coachlink.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service deciding which routine success logs are written
+ *
+ * High-volume endpoints and webhook handlers ask this service before emitting
+ * an INFO line for a successful request. Each log key (usually one per
+ * endpoint) has: - A sampling probability - A rate limit with a small burst,
+ * enforced by a lock-free GCRA token bucket
+ *
+ * Limits are read from properties on first use of a key:
+ * app.logging.sampling.&lt;key&gt;.rate (0.0-1.0) and
+ * app.logging.sampling.&lt;key&gt;.per-second, falling back to the defaults
+ * below. The check does not allocate once a key is known, so callers can run
+ * it on every request. Suppressed counts are summarized once a minute.
+ *
+ * Warnings and errors must never go through this service; they are always
+ * logged in full.
+ */
+@Service
+@Slf4j
+public class LogSamplingService {
+
+    private final Environment environment;
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Default fraction of routine logs kept before rate limiting
+     */
+    @Value("${app.logging.sampling.default.rate:1.0}")
+    private double defaultRate;
+
+    /**
+     * Default number of routine logs per second and key
+     */
+    @Value("${app.logging.sampling.default.per-second:20}")
+    private double defaultPerSecond;
+
+    /**
+     * Number of logs allowed back-to-back before the rate limit applies
+     */
+    @Value("${app.logging.sampling.burst:10}")
+    private int burst;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param environment Source of per-key sampling properties
+     */
+    public LogSamplingService(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Decide whether a routine log line for a key should be written
+     *
+     * @param key Log key, typically the endpoint or event name
+     * @return true if the caller should log, false to skip the line entirely
+     */
+    public boolean shouldLog(String key) {
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, this::newBucket);
+        }
+        if (bucket.tryAcquire()) {
+            return true;
+        }
+        bucket.suppressed.increment();
+        return false;
+    }
+
+    /**
+     * Report how many routine logs were suppressed per key since the last
+     * summary, so sampling never hides traffic volume entirely
+     */
+    @Scheduled(fixedDelayString = "${app.logging.sampling.summary-ms:60000}")
+    public void logSuppressedSummary() {
+        buckets.forEach((key, bucket) -> {
+            long suppressed = bucket.suppressed.sumThenReset();
+            if (suppressed > 0) {
+                log.atInfo()
+                        .addKeyValue("key", key)
+                        .addKeyValue("suppressed", suppressed)
+                        .log("Suppressed routine logs");
+            }
+        });
+    }
+
+    private Bucket newBucket(String key) {
+        String prefix = "app.logging.sampling." + key;
+        double rate = environment.getProperty(prefix + ".rate", Double.class, defaultRate);
+        double perSecond = environment.getProperty(prefix + ".per-second", Double.class, defaultPerSecond);
+        return new Bucket(rate, perSecond, burst);
+    }
+
+    /**
+     * Sampling and GCRA rate-limit state for one log key
+     *
+     * The bucket stores only the theoretical arrival time of the next allowed
+     * log; acquiring advances it by one emission interval with a CAS.
+     */
+    private static final class Bucket {
+
+        private final double rate;
+
+        private final long intervalNanos;
+
+        private final long burstNanos;
+
+        private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+        private final LongAdder suppressed = new LongAdder();
+
+        Bucket(double rate, double perSecond, int burst) {
+            this.rate = rate;
+            this.intervalNanos = perSecond > 0 ? (long) (1_000_000_000L / perSecond) : Long.MAX_VALUE;
+            this.burstNanos = perSecond > 0 ? intervalNanos * Math.max(0, burst - 1) : 0;
+        }
+
+        boolean tryAcquire() {
+            if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+                return false;
+            }
+            if (intervalNanos == Long.MAX_VALUE) {
+                return false;
+            }
+            long now = System.nanoTime();
+            while (true) {
+                long tat = theoreticalArrival.get();
+                long next = (tat - now < 0 ? now : tat) + intervalNanos;
+                if (next - now > burstNanos + intervalNanos) {
+                    return false;
+                }
+                if (theoreticalArrival.compareAndSet(tat, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
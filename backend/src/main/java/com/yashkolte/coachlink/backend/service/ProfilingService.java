@@ -0,0 +1,187 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.yashkolte.coachlink.backend.dto.ProfilingRecordingStatus;
+import com.yashkolte.coachlink.backend.profiling.MongoCommandEvent;
+import com.yashkolte.coachlink.backend.profiling.RepositoryCallEvent;
+import com.yashkolte.coachlink.backend.profiling.StripeOperationEvent;
+import com.yashkolte.coachlink.backend.profiling.WebhookStageEvent;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Service controlling an on-demand Java Flight Recorder recording
+ *
+ * Lets operators profile live traffic without restarting the JVM. At most one
+ * recording exists at a time and it is always bounded: - It stops on its own
+ * after the requested duration (capped by app.profiling.max-duration-seconds)
+ * - It keeps at most app.profiling.max-size-mb on disk, dropping the oldest
+ * chunks first
+ *
+ * Besides the JDK events of the chosen settings, the recording enables the
+ * CoachLink events for Stripe operations, webhook stages and repository calls.
+ * JDK events that would copy environment variables, system properties or JVM
+ * arguments (and with them the configured secrets) into the dump are
+ * disabled.
+ * A dump can be taken while the recording runs or after it stopped.
+ */
+@Service
+@Slf4j
+public class ProfilingService {
+
+    /**
+     * JDK events of the default and profile settings that capture environment
+     * variables, system properties and JVM arguments, which carry the Stripe
+     * and MongoDB credentials
+     */
+    private static final List<String> SENSITIVE_EVENTS = List.of(
+            "jdk.InitialEnvironmentVariable",
+            "jdk.InitialSystemProperty",
+            "jdk.JVMInformation");
+
+    /**
+     * Longest recording that may be requested
+     */
+    @Value("${app.profiling.max-duration-seconds:600}")
+    private long maxDurationSeconds;
+
+    /**
+     * Disk budget of the recording
+     */
+    @Value("${app.profiling.max-size-mb:100}")
+    private long maxSizeMb;
+
+    private Recording recording;
+
+    private String settings;
+
+    /**
+     * Start a new recording, discarding a stopped one
+     *
+     * @param duration How long to record
+     * @param settings JFR settings name: default (low overhead) or profile
+     * (more detail, including method sampling every 10 ms)
+     * @return Status of the started recording
+     * @throws IllegalStateException if a recording is already running
+     * @throws IllegalArgumentException if the settings name is unknown or the
+     * duration is out of range
+     */
+    public synchronized ProfilingRecordingStatus start(Duration duration, String settings) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A profiling recording is already running");
+        }
+        if (duration.isNegative() || duration.isZero() || duration.getSeconds() > maxDurationSeconds) {
+            throw new IllegalArgumentException("Duration must be between 1 and " + maxDurationSeconds + " seconds");
+        }
+
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (ParseException | IOException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings);
+        }
+
+        close();
+        Recording fresh = new Recording(configuration);
+        fresh.setName("coachlink-on-demand");
+        fresh.setToDisk(true);
+        fresh.setMaxSize(maxSizeMb * 1024 * 1024);
+        fresh.setDuration(duration);
+        fresh.enable(StripeOperationEvent.class);
+        fresh.enable(WebhookStageEvent.class);
+        fresh.enable(RepositoryCallEvent.class);
+        fresh.enable(MongoCommandEvent.class);
+        for (String event : SENSITIVE_EVENTS) {
+            fresh.disable(event);
+        }
+        fresh.start();
+
+        recording = fresh;
+        this.settings = settings;
+        log.info("Started JFR recording for {} s with {} settings", duration.getSeconds(), settings);
+        return status();
+    }
+
+    /**
+     * Stop the running recording, keeping its data for a dump
+     *
+     * @return Status of the stopped recording
+     * @throws IllegalStateException if no recording is running
+     */
+    public synchronized ProfilingRecordingStatus stop() {
+        if (recording == null || recording.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No profiling recording is running");
+        }
+        recording.stop();
+        log.info("Stopped JFR recording");
+        return status();
+    }
+
+    /**
+     * Describe the current recording
+     *
+     * @return Recording status, state NONE if nothing was started
+     */
+    public synchronized ProfilingRecordingStatus status() {
+        if (recording == null) {
+            return new ProfilingRecordingStatus("NONE", null, null, null, maxSizeMb * 1024 * 1024, 0);
+        }
+        Instant stopsAt = recording.getStopTime();
+        if (stopsAt == null && recording.getStartTime() != null && recording.getDuration() != null) {
+            stopsAt = recording.getStartTime().plus(recording.getDuration());
+        }
+        return new ProfilingRecordingStatus(recording.getState().name(), settings, recording.getStartTime(),
+                stopsAt, recording.getMaxSize(), recording.getSize());
+    }
+
+    /**
+     * Write the recorded data as a .jfr file
+     *
+     * The recording is copied to a temporary file first, so a slow client
+     * does not hold the recording lock.
+     *
+     * @param out Stream the .jfr file is written to
+     * @throws IllegalStateException if there is no recording with data
+     * @throws IOException if writing fails
+     */
+    public void dump(OutputStream out) throws IOException {
+        Path file = Files.createTempFile("coachlink-", ".jfr");
+        try {
+            synchronized (this) {
+                if (recording == null || recording.getState() == RecordingState.NEW
+                        || recording.getState() == RecordingState.CLOSED) {
+                    throw new IllegalStateException("No profiling recording to dump");
+                }
+                recording.dump(file);
+            }
+            Files.copy(file, out);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Release the recording and its disk space
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            settings = null;
+        }
+    }
+}
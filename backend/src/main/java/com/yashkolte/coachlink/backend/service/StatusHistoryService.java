@@ -0,0 +1,307 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import com.yashkolte.coachlink.backend.dto.TimeToOnboardStats;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import com.yashkolte.coachlink.backend.entity.CoachStatusTransition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service keeping an append-only history of coach status transitions
+ *
+ * CoachStatusService reports every onboarding or payout change it applies,
+ * whether it came from a status check, a webhook or a batch refresh. Changes
+ * are buffered in memory and written in unordered bulk inserts by a scheduled
+ * flush, so the status write path never waits on the history.
+ *
+ * The history lives in a time-series collection with the Stripe account ID
+ * as meta field, created once the application is ready, and MongoDB expires
+ * it after app.status-history.retention-days. On servers without time-series
+ * support a plain collection with a TTL index is used instead.
+ *
+ * The history is best effort: if the buffer is full or a write fails, changes
+ * are dropped and counted in coachlink.status_history.dropped.
+ */
+@Service
+@Slf4j
+public class StatusHistoryService {
+
+    private static final String COLLECTION = "coach_status_history";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final BlockingQueue<CoachStatusTransition> buffer;
+
+    private final Counter writtenCounter;
+
+    private final Counter droppedCounter;
+
+    private volatile boolean collectionReady;
+
+    /**
+     * Whether transitions are recorded at all
+     */
+    @Value("${app.status-history.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Transitions written per bulk insert
+     */
+    @Value("${app.status-history.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * How long transitions are kept before MongoDB expires them
+     */
+    @Value("${app.status-history.retention-days:730}")
+    private long retentionDays;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Template used for bulk inserts and queries
+     * @param bufferSize Transitions held in memory between flushes
+     * @param meterRegistry Registry for history metrics
+     */
+    public StatusHistoryService(MongoTemplate mongoTemplate,
+            @Value("${app.status-history.buffer-size:10000}") int bufferSize,
+            MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.writtenCounter = Counter.builder("coachlink.status_history.written").register(meterRegistry);
+        this.droppedCounter = Counter.builder("coachlink.status_history.dropped").register(meterRegistry);
+        Gauge.builder("coachlink.status_history.buffered", buffer, BlockingQueue::size).register(meterRegistry);
+    }
+
+    /**
+     * Record a status change applied to a coach
+     *
+     * Returns immediately; the change is written by the next flush.
+     *
+     * @param coach Coach as before the change
+     * @param status Status bits after the change
+     * @param at When the change was applied, in epoch milliseconds
+     * @param source Where the change was observed
+     */
+    public void record(Coach coach, int status, long at, CoachStatusTransition.Source source) {
+        if (!enabled || coach.getStripeAccountId() == null || coach.getStatus() == status) {
+            return;
+        }
+        Long created = coach.getCreated();
+        CoachStatusTransition transition = new CoachStatusTransition(null, new Date(at),
+                coach.getStripeAccountId(), status, coach.getStatus(),
+                created != null ? at - created : null, source);
+        if (!buffer.offer(transition)) {
+            droppedCounter.increment();
+        }
+    }
+
+    /**
+     * Get a coach's status transitions, oldest first
+     *
+     * @param accountId Stripe account ID of the coach
+     * @param from First UTC day
+     * @param to Last UTC day
+     * @param limit Maximum number of transitions
+     * @return Transitions within the range
+     */
+    public List<CoachStatusTransition> getTimeline(String accountId, LocalDate from, LocalDate to, int limit) {
+        Query query = Query.query(Criteria.where("accountId").is(accountId)
+                .and("at").gte(startOf(from)).lt(startOf(to.plusDays(1))))
+                .with(Sort.by("at"))
+                .limit(limit);
+        return mongoTemplate.find(query, CoachStatusTransition.class);
+    }
+
+    /**
+     * Compute time-to-onboard percentiles for coaches that completed
+     * onboarding in a date range
+     *
+     * Groups onboarding completions by account on the server, keeping each
+     * coach's first completion in the range, and computes nearest-rank
+     * percentiles over the sorted durations.
+     *
+     * @param from First UTC day
+     * @param to Last UTC day
+     * @return Percentiles of the time from coach creation to onboarding
+     */
+    public TimeToOnboardStats getTimeToOnboard(LocalDate from, LocalDate to) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("t").gte(startOf(from)).lt(startOf(to.plusDays(1)))
+                        .and("s").bits().allSet(Coach.STATUS_ONBOARDING_COMPLETE)
+                        .and("p").bits().allClear(Coach.STATUS_ONBOARDING_COMPLETE)
+                        .and("d").ne(null)),
+                Aggregation.group("m").min("d").as("d"),
+                Aggregation.sort(Sort.Direction.ASC, "d"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        List<Long> durations = new ArrayList<>();
+        for (Document document : mongoTemplate.aggregate(aggregation, COLLECTION, Document.class)) {
+            durations.add(((Number) document.get("d")).longValue());
+        }
+
+        TimeToOnboardStats stats = new TimeToOnboardStats();
+        stats.setFrom(from);
+        stats.setTo(to);
+        stats.setCoaches(durations.size());
+        if (!durations.isEmpty()) {
+            stats.setP50Ms(percentile(durations, 50));
+            stats.setP90Ms(percentile(durations, 90));
+            stats.setP99Ms(percentile(durations, 99));
+            stats.setMaxMs(durations.get(durations.size() - 1));
+        }
+        return stats;
+    }
+
+    /**
+     * Create the history collection once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            ensureCollection();
+        }
+    }
+
+    /**
+     * Write buffered transitions in batches
+     */
+    @Scheduled(fixedDelayString = "${app.status-history.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (buffer.isEmpty() || !ensureCollection()) {
+            return;
+        }
+        List<CoachStatusTransition> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Write what is still buffered before shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(List<CoachStatusTransition> batch) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CoachStatusTransition.class)
+                    .insert(batch)
+                    .execute();
+            writtenCounter.increment(batch.size());
+        } catch (BulkOperationException e) {
+            // Unordered: every transition without an error was still written
+            writtenCounter.increment(e.getResult().getInsertedCount());
+            droppedCounter.increment(e.getErrors().size());
+            log.warn("Dropped {} of {} status history records: {}", e.getErrors().size(), batch.size(),
+                    e.getMessage());
+        } catch (RuntimeException e) {
+            droppedCounter.increment(batch.size());
+            log.warn("Dropped {} status history records: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Create the collection if it is missing and apply the retention period
+     *
+     * @return true once the collection exists
+     */
+    private synchronized boolean ensureCollection() {
+        if (collectionReady) {
+            return true;
+        }
+        try {
+            MongoDatabase database = mongoTemplate.getDb();
+            if (mongoTemplate.collectionExists(COLLECTION)) {
+                applyRetention(database);
+            } else {
+                createCollection(database);
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(COLLECTION);
+            indexOps.createIndex(new Index().on("m", Sort.Direction.ASC).on("t", Sort.Direction.ASC)
+                    .named("history_account_time"));
+            collectionReady = true;
+        } catch (RuntimeException e) {
+            log.warn("Status history collection not ready: {}", e.getMessage());
+        }
+        return collectionReady;
+    }
+
+    private void createCollection(MongoDatabase database) {
+        try {
+            database.createCollection(COLLECTION, new CreateCollectionOptions()
+                    .timeSeriesOptions(new TimeSeriesOptions("t")
+                            .metaField("m")
+                            .granularity(TimeSeriesGranularity.HOURS))
+                    .expireAfter(retentionDays, TimeUnit.DAYS));
+            log.info("Created time-series collection {} with {} days retention", COLLECTION, retentionDays);
+        } catch (MongoCommandException e) {
+            // Servers before MongoDB 5.0 have no time-series collections
+            log.warn("Creating {} as a plain collection: {}", COLLECTION, e.getMessage());
+            mongoTemplate.createCollection(COLLECTION);
+            mongoTemplate.indexOps(COLLECTION).createIndex(new Index().on("t", Sort.Direction.ASC)
+                    .expire(Duration.ofDays(retentionDays))
+                    .named("history_ttl"));
+        }
+    }
+
+    /**
+     * Update the expiry of an existing time-series collection, so a changed
+     * retention period takes effect without recreating it
+     */
+    private void applyRetention(MongoDatabase database) {
+        try {
+            database.runCommand(new Document("collMod", COLLECTION)
+                    .append("expireAfterSeconds", TimeUnit.DAYS.toSeconds(retentionDays)));
+        } catch (MongoCommandException e) {
+            // Plain collections keep the expiry of their TTL index
+            log.debug("Could not update retention of {}: {}", COLLECTION, e.getMessage());
+        }
+    }
+
+    private static long percentile(List<Long> sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+
+    private static Date startOf(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+}
@@ -0,0 +1,433 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.Event;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.EventListParams;
+import com.yashkolte.coachlink.backend.dto.StripeBackfillReport;
+import com.yashkolte.coachlink.backend.entity.StripeEventCheckpoint;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Service replaying Stripe events missed by the webhook endpoint
+ *
+ * A backfill run: 1. Lists account events created since the checkpoint from
+ * the Stripe Events API 2. Drops events already handled by a webhook delivery
+ * or an earlier run 3. Groups the rest by Stripe account in creation order and
+ * keeps only the newest account.updated snapshot per account 4. Handles the
+ * accounts in parallel, each account's events sequentially, through
+ * StripeEventHandler 5. Advances the checkpoint, or stops it at the oldest
+ * failed event
+ *
+ * Only one run executes at a time: a run leases the checkpoint document with
+ * findAndModify and only advances it while it still holds the lease, so a run
+ * on another node can neither start alongside it nor move the checkpoint past
+ * an event it failed. Stripe keeps events for 30 days, so older windows are
+ * clamped.
+ *
+ * Besides on-demand runs, a run starts every app.backfill.interval-ms on its
+ * own thread. Webhook deliveries held by WebhookCoalescingService are
+ * acknowledged before they are applied, and an event whose apply fails or
+ * whose node stops first is never recorded as processed; the scheduled run
+ * is what replays it, so the checkpoint never falls behind by more than one
+ * interval.
+ */
+@Service
+@Slf4j
+public class StripeEventBackfillService {
+
+    private static final String CHECKPOINT_ID = "stripe-events";
+
+    private static final String SOURCE = "backfill";
+
+    private static final Duration STRIPE_RETENTION = Duration.ofDays(30);
+
+    private final StripeEventHandler stripeEventHandler;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Stripe API secret key; passed per request because Stripe.apiKey is only
+     * set once StripeService has made a call on this node
+     */
+    @Value("${stripe.api.key}")
+    private String stripeApiKey;
+
+    /**
+     * Number of accounts handled in parallel
+     */
+    @Value("${app.backfill.concurrency:8}")
+    private int concurrency;
+
+    /**
+     * Window replayed when no checkpoint exists yet
+     */
+    @Value("${app.backfill.default-lookback-hours:24}")
+    private long defaultLookbackHours;
+
+    /**
+     * Overlap kept below the end of the window, covering events that become
+     * listable late; replays of these are skipped by event ID
+     */
+    @Value("${app.backfill.overlap-seconds:300}")
+    private long overlapSeconds;
+
+    /**
+     * How long a run holds the checkpoint lease; a run on another node may
+     * take over once it expires
+     */
+    @Value("${app.backfill.lease-ms:1800000}")
+    private long leaseMs;
+
+    /**
+     * Interval between scheduled runs; 0 disables them
+     */
+    @Value("${app.backfill.interval-ms:300000}")
+    private long intervalMs;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param stripeEventHandler Handler shared with the webhook endpoint
+     * @param mongoTemplate Template for the checkpoint document
+     */
+    public StripeEventBackfillService(StripeEventHandler stripeEventHandler, MongoTemplate mongoTemplate) {
+        this.stripeEventHandler = stripeEventHandler;
+        this.mongoTemplate = mongoTemplate;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stripe-event-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Start scheduled runs once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (intervalMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::scheduledBackfill, intervalMs, intervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stop scheduled runs
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void scheduledBackfill() {
+        try {
+            backfill();
+        } catch (IllegalStateException e) {
+            log.debug("Skipping scheduled Stripe event backfill: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Scheduled Stripe event backfill failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Replay events since the stored checkpoint
+     *
+     * @return Report of the run
+     * @throws StripeException if listing events fails
+     * @throws InterruptedException if interrupted while waiting for handlers
+     */
+    public StripeBackfillReport backfill() throws StripeException, InterruptedException {
+        return backfill(null);
+    }
+
+    /**
+     * Replay events created at or after a point in time
+     *
+     * @param from Start of the window, or null to use the stored checkpoint
+     * @return Report of the run
+     * @throws StripeException if listing events fails
+     * @throws InterruptedException if interrupted while waiting for handlers
+     * @throws IllegalStateException if a run is already in progress on this or
+     * another node
+     */
+    public StripeBackfillReport backfill(Instant from) throws StripeException, InterruptedException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A Stripe event backfill is already running");
+        }
+        try {
+            return run(from);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private StripeBackfillReport run(Instant requestedFrom) throws StripeException, InterruptedException {
+        String runId = UUID.randomUUID().toString();
+        StripeEventCheckpoint lease = acquireLease(runId);
+        if (lease == null) {
+            throw new IllegalStateException("A Stripe event backfill is already running on another node");
+        }
+        try {
+            return run(requestedFrom, runId, lease);
+        } finally {
+            releaseLease(runId);
+        }
+    }
+
+    private StripeBackfillReport run(Instant requestedFrom, String runId, StripeEventCheckpoint lease)
+            throws StripeException, InterruptedException {
+        long start = System.nanoTime();
+        Instant to = Instant.now();
+        Instant from = resolveFrom(requestedFrom, lease, to);
+        StripeBackfillReport report = new StripeBackfillReport();
+        report.setFrom(from);
+        report.setTo(to);
+        log.info("Backfilling Stripe events created between {} and {}", from, to);
+
+        Map<String, List<Event>> byAccount = listEvents(from, to, report);
+        report.setAccounts(byAccount.size());
+
+        LongAdder processed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LongAdder raced = new LongAdder();
+        AtomicLong oldestFailure = new AtomicLong(Long.MAX_VALUE);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        try {
+            for (List<Event> events : byAccount.values()) {
+                // One task per account keeps that account's events in order
+                executor.execute(() -> {
+                    for (Event event : events) {
+                        StripeEventHandler.Outcome outcome = stripeEventHandler.handle(event, SOURCE);
+                        switch (outcome) {
+                            case FAILED -> {
+                                failed.increment();
+                                oldestFailure.accumulateAndGet(event.getCreated(), Math::min);
+                            }
+                            case ALREADY_PROCESSED -> raced.increment(); // Delivered by webhook meanwhile
+                            default -> processed.increment();
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            log.info("Backfill in progress: {} events handled, {} failed", processed.sum(), failed.sum());
+        }
+        report.setProcessed(processed.sum());
+        report.setFailed(failed.sum());
+        report.setAlreadyProcessed(report.getAlreadyProcessed() + raced.sum());
+
+        Instant checkpoint = failed.sum() > 0
+                ? Instant.ofEpochSecond(oldestFailure.get())
+                : to.minusSeconds(overlapSeconds);
+        if (checkpoint.isBefore(from)) {
+            checkpoint = from;
+        }
+        saveCheckpoint(runId, checkpoint);
+        report.setCheckpoint(checkpoint);
+        report.setDurationMs((System.nanoTime() - start) / 1_000_000);
+
+        log.info("Stripe event backfill finished in {} ms: {} listed, {} already processed, {} superseded, "
+                + "{} handled, {} failed, checkpoint {}", report.getDurationMs(), report.getListed(),
+                report.getAlreadyProcessed(), report.getSuperseded(), report.getProcessed(), report.getFailed(),
+                report.getCheckpoint());
+        return report;
+    }
+
+    /**
+     * List events in the window and group the unprocessed ones by account
+     *
+     * @return Events per account, oldest first
+     */
+    private Map<String, List<Event>> listEvents(Instant from, Instant to, StripeBackfillReport report)
+            throws StripeException {
+        EventListParams params = EventListParams.builder()
+                .setCreated(EventListParams.Created.builder()
+                        .setGte(from.getEpochSecond())
+                        .setLte(to.getEpochSecond())
+                        .build())
+                .addAllType(new ArrayList<>(StripeEventHandler.HANDLED_TYPES))
+                .setLimit(100L)
+                .build();
+
+        List<Event> events = listStripeEvents(params);
+        report.setListed(events.size());
+
+        Set<String> alreadyProcessed = new HashSet<>();
+        for (int i = 0; i < events.size(); i += 1000) {
+            List<String> ids = new ArrayList<>();
+            for (Event event : events.subList(i, Math.min(events.size(), i + 1000))) {
+                ids.add(event.getId());
+            }
+            alreadyProcessed.addAll(stripeEventHandler.findProcessed(ids));
+        }
+
+        // Stripe lists newest first; handlers need each account's events oldest first
+        events.sort(Comparator.comparing(Event::getCreated).thenComparing(Event::getId));
+        Map<String, List<Event>> byAccount = new HashMap<>();
+        for (Event event : events) {
+            String accountId = StripeEventHandler.accountIdOf(event);
+            byAccount.computeIfAbsent(accountId != null ? accountId : event.getId(), key -> new ArrayList<>())
+                    .add(event);
+        }
+
+        for (List<Event> accountEvents : byAccount.values()) {
+            report.setAlreadyProcessed(report.getAlreadyProcessed()
+                    + coalesce(accountEvents, alreadyProcessed, report));
+        }
+        byAccount.values().removeIf(List::isEmpty);
+        return byAccount;
+    }
+
+    /**
+     * List every page of events matching the parameters
+     *
+     * @param params Event list parameters
+     * @return Listed events, in Stripe's order
+     * @throws StripeException if listing events fails
+     */
+    List<Event> listStripeEvents(EventListParams params) throws StripeException {
+        List<Event> events = new ArrayList<>();
+        RequestOptions options = RequestOptions.builder().setApiKey(stripeApiKey).build();
+        // Later pages reuse the options of the first list call
+        for (Event event : Event.list(params, options).autoPagingIterable()) {
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Remove processed events and account.updated snapshots older than the
+     * newest one, which carries the account's current state; replaying an
+     * older snapshot after it would move the coach backwards
+     *
+     * @return Number of events removed because they were already processed
+     */
+    private long coalesce(List<Event> accountEvents, Set<String> alreadyProcessed, StripeBackfillReport report) {
+        Event newestSnapshot = null;
+        for (Event event : accountEvents) {
+            if ("account.updated".equals(event.getType())) {
+                newestSnapshot = event;
+            }
+        }
+
+        long removedProcessed = 0;
+        List<Event> kept = new ArrayList<>();
+        for (Event event : accountEvents) {
+            if (alreadyProcessed.contains(event.getId())) {
+                removedProcessed++;
+            } else if ("account.updated".equals(event.getType()) && event != newestSnapshot) {
+                report.setSuperseded(report.getSuperseded() + 1);
+            } else {
+                kept.add(event);
+            }
+        }
+        accountEvents.clear();
+        accountEvents.addAll(kept);
+        return removedProcessed;
+    }
+
+    private Instant resolveFrom(Instant requestedFrom, StripeEventCheckpoint checkpoint, Instant to) {
+        Instant from = requestedFrom;
+        if (from == null) {
+            from = checkpoint.getCreatedFrom() != null
+                    ? checkpoint.getCreatedFrom()
+                    : to.minus(Duration.ofHours(defaultLookbackHours));
+        }
+        Instant oldestListable = to.minus(STRIPE_RETENTION);
+        if (from.isBefore(oldestListable)) {
+            log.warn("Backfill start {} is beyond Stripe's event retention, starting at {}", from, oldestListable);
+            from = oldestListable;
+        }
+        return from;
+    }
+
+    /**
+     * Claim the checkpoint document for a run
+     *
+     * The upsert creates the document on the first run; when another run
+     * holds an unexpired lease the filter misses, the upsert collides on the
+     * ID and no lease is granted.
+     *
+     * @return Checkpoint as leased, or null if another run holds the lease
+     */
+    private StripeEventCheckpoint acquireLease(String runId) {
+        LocalDateTime now = LocalDateTime.now();
+        Query query = Query.query(Criteria.where("_id").is(CHECKPOINT_ID).orOperator(
+                Criteria.where("lockedUntil").is(null),
+                Criteria.where("lockedUntil").lt(now)));
+        Update update = new Update()
+                .set("lockedBy", runId)
+                .set("lockedUntil", now.plusNanos(TimeUnit.MILLISECONDS.toNanos(leaseMs)));
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(true).upsert(true), StripeEventCheckpoint.class);
+        } catch (DuplicateKeyException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Advance the checkpoint, only while this run still holds the lease
+     */
+    private void saveCheckpoint(String runId, Instant createdFrom) {
+        Query query = Query.query(Criteria.where("_id").is(CHECKPOINT_ID).and("lockedBy").is(runId));
+        Update update = new Update()
+                .set("createdFrom", createdFrom)
+                .set("updatedAt", LocalDateTime.now());
+        if (mongoTemplate.updateFirst(query, update, StripeEventCheckpoint.class).getMatchedCount() == 0) {
+            log.warn("Backfill lease expired before the run finished, leaving the checkpoint to the run "
+                    + "that took it over");
+        }
+    }
+
+    private void releaseLease(String runId) {
+        Query query = Query.query(Criteria.where("_id").is(CHECKPOINT_ID).and("lockedBy").is(runId));
+        try {
+            mongoTemplate.updateFirst(query, new Update().unset("lockedBy").unset("lockedUntil"),
+                    StripeEventCheckpoint.class);
+        } catch (RuntimeException e) {
+            // The lease expires on its own
+            log.warn("Failed to release the backfill lease: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.stripe.model.Account;
+import com.stripe.model.Event;
+import com.stripe.model.StripeObject;
+import com.stripe.model.Transfer;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import com.yashkolte.coachlink.backend.entity.CoachStatusTransition;
+import com.yashkolte.coachlink.backend.entity.ProcessedStripeEvent;
+import com.yashkolte.coachlink.backend.profiling.WebhookStageEvent;
+import com.yashkolte.coachlink.backend.repository.CoachRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service applying Stripe events to coach records
+ *
+ * Shared by the webhook endpoint and the event backfill so both paths update
+ * coaches the same way. Account events update coach status; transfer and
+ * payout events are recorded in the ledger. Each handled event is recorded by ID, which lets
+ * redelivered webhooks and replayed events be skipped. The dedupe, apply and
+ * record stages each emit a WebhookStageEvent for JFR recordings.
+ */
+@Service
+@Slf4j
+public class StripeEventHandler {
+
+    /**
+     * Event types this service acts on
+     */
+    public static final Set<String> HANDLED_TYPES = Stream.concat(
+            Stream.of("account.updated", "account.application.authorized"),
+            LedgerService.EVENT_TYPES.stream())
+            .collect(Collectors.toUnmodifiableSet());
+
+    private static final String LOG_ACCOUNT_UPDATED = "webhook.account-updated";
+    private static final String LOG_APPLICATION_AUTHORIZED = "webhook.application-authorized";
+
+    private final CoachRepository coachRepository;
+
+    private final CoachStatusService coachStatusService;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final LogSamplingService logSampler;
+
+    private final LedgerService ledgerService;
+
+    /**
+     * Result of handling one event
+     */
+    public enum Outcome {
+        HANDLED, ALREADY_PROCESSED, IGNORED, FAILED
+    }
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param coachRepository Repository for coach lookups
+     * @param coachStatusService Service applying onboarding and payout changes
+     * @param mongoTemplate Template for the processed event records
+     * @param logSampler Sampler for routine success logs
+     * @param ledgerService Ledger for transfer and payout events
+     */
+    public StripeEventHandler(CoachRepository coachRepository,
+            CoachStatusService coachStatusService,
+            MongoTemplate mongoTemplate,
+            LogSamplingService logSampler,
+            LedgerService ledgerService) {
+        this.coachRepository = coachRepository;
+        this.coachStatusService = coachStatusService;
+        this.mongoTemplate = mongoTemplate;
+        this.logSampler = logSampler;
+        this.ledgerService = ledgerService;
+    }
+
+    /**
+     * Apply an event unless it was already handled
+     *
+     * Failures are logged and not recorded, so the event is retried by the
+     * next backfill run.
+     *
+     * @param event Verified or API-listed Stripe event
+     * @param source Where the event came from: webhook or backfill
+     * @return Outcome of the event
+     */
+    public Outcome handle(Event event, String source) {
+        if (!HANDLED_TYPES.contains(event.getType())) {
+            log.debug("Unhandled event type: {}", event.getType());
+            return Outcome.IGNORED;
+        }
+        String accountId = accountIdOf(event);
+
+        WebhookStageEvent dedupe = stage("dedupe", source, event, accountId);
+        try {
+            boolean processed = isProcessed(event.getId());
+            dedupe.setOutcome(processed ? Outcome.ALREADY_PROCESSED.name() : WebhookStageEvent.OK);
+            if (processed) {
+                log.debug("Skipping already processed event {}", event.getId());
+                return Outcome.ALREADY_PROCESSED;
+            }
+        } catch (RuntimeException e) {
+            dedupe.failed(e);
+            throw e;
+        } finally {
+            dedupe.finish();
+        }
+
+        WebhookStageEvent apply = stage("apply", source, event, accountId);
+        try {
+            if (LedgerService.EVENT_TYPES.contains(event.getType())) {
+                ledgerService.record(event);
+            } else {
+                Account account = accountOf(event);
+                if (account == null) {
+                    log.warn("Account object is null in {} event {}", event.getType(), event.getId());
+                } else if ("account.updated".equals(event.getType())) {
+                    handleAccountUpdated(account);
+                } else {
+                    handleAccountApplicationAuthorized(account);
+                }
+            }
+            apply.succeeded();
+        } catch (Exception e) {
+            apply.failed(e);
+            log.error("Error handling {} event {} from {}: {}", event.getType(), event.getId(), source,
+                    e.getMessage(), e);
+            return Outcome.FAILED;
+        } finally {
+            apply.finish();
+        }
+
+        WebhookStageEvent record = stage("record", source, event, accountId);
+        try {
+            markProcessed(event, source, accountId);
+            record.succeeded();
+        } catch (RuntimeException e) {
+            record.failed(e);
+            throw e;
+        } finally {
+            record.finish();
+        }
+        return Outcome.HANDLED;
+    }
+
+    private static WebhookStageEvent stage(String name, String source, Event event, String accountId) {
+        WebhookStageEvent stage = WebhookStageEvent.start(name, source);
+        stage.setStripeEvent(event.getId(), event.getType());
+        stage.setAccountId(accountId);
+        return stage;
+    }
+
+    /**
+     * Record an event as handled without applying it, because a newer event
+     * for the same account was applied instead
+     *
+     * @param event Stripe event superseded by a newer one
+     * @param source Where the event came from: webhook or backfill
+     */
+    public void markSuperseded(Event event, String source) {
+        markProcessed(event, source, accountIdOf(event));
+    }
+
+    /**
+     * Check whether an event was already handled
+     *
+     * @param eventId Stripe event ID
+     * @return true if a processed record exists
+     */
+    public boolean isProcessed(String eventId) {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(eventId)), ProcessedStripeEvent.class);
+    }
+
+    /**
+     * Find which of the given events were already handled, with one query
+     *
+     * @param eventIds Stripe event IDs
+     * @return Subset of the IDs that have processed records
+     */
+    public Set<String> findProcessed(Collection<String> eventIds) {
+        Query query = Query.query(Criteria.where("_id").in(eventIds));
+        query.fields().include("_id");
+        Set<String> processed = new HashSet<>();
+        for (ProcessedStripeEvent record : mongoTemplate.find(query, ProcessedStripeEvent.class)) {
+            processed.add(record.getId());
+        }
+        return processed;
+    }
+
+    /**
+     * Get the Stripe account ID an event refers to
+     *
+     * Connect events (account and payout events) name the account directly;
+     * platform transfer events refer to it as the transfer destination.
+     *
+     * @param event Stripe event
+     * @return Account ID, or null if the event carries no account
+     */
+    public static String accountIdOf(Event event) {
+        if (event.getAccount() != null) {
+            return event.getAccount();
+        }
+        StripeObject object = event.getDataObjectDeserializer().getObject().orElse(null);
+        if (object instanceof Account account) {
+            return account.getId();
+        }
+        return object instanceof Transfer transfer ? transfer.getDestination() : null;
+    }
+
+    private static Account accountOf(Event event) {
+        StripeObject object = event.getDataObjectDeserializer().getObject().orElse(null);
+        return object instanceof Account account ? account : null;
+    }
+
+    private void handleAccountUpdated(Account account) {
+        String accountId = account.getId();
+        Optional<Coach> coachOpt = coachRepository.findByStripeAccountId(accountId);
+
+        if (coachOpt.isPresent()) {
+            Coach coach = coachOpt.get();
+            coachStatusService.updateStatus(coach, account.getDetailsSubmitted(), account.getPayoutsEnabled(),
+                    CoachStatusTransition.Source.WEBHOOK);
+
+            if (logSampler.shouldLog(LOG_ACCOUNT_UPDATED)) {
+                log.atInfo()
+                        .addKeyValue("email", coach.getEmail())
+                        .addKeyValue("accountId", accountId)
+                        .addKeyValue("onboarding", account.getDetailsSubmitted())
+                        .addKeyValue("payouts", account.getPayoutsEnabled())
+                        .log("Updated coach from account.updated");
+            }
+        } else {
+            log.warn("No coach found for Stripe account ID: {}", accountId);
+        }
+    }
+
+    private void handleAccountApplicationAuthorized(Account account) {
+        String accountId = account.getId();
+        Optional<Coach> coachOpt = coachRepository.findByStripeAccountId(accountId);
+
+        if (coachOpt.isPresent()) {
+            Coach coach = coachOpt.get();
+            coachStatusService.touch(coach);
+
+            if (logSampler.shouldLog(LOG_APPLICATION_AUTHORIZED)) {
+                log.atInfo()
+                        .addKeyValue("email", coach.getEmail())
+                        .addKeyValue("accountId", accountId)
+                        .log("Account application authorized");
+            }
+        } else {
+            log.warn("No coach found for Stripe account ID: {}", accountId);
+        }
+    }
+
+    private void markProcessed(Event event, String source, String accountId) {
+        try {
+            mongoTemplate.insert(new ProcessedStripeEvent(event.getId(), event.getType(), accountId,
+                    source, new Date()));
+        } catch (DuplicateKeyException e) {
+            // Handled concurrently by the webhook and a backfill run; both applied the same snapshot
+        }
+    }
+}
@@ -5,16 +5,18 @@ import com.stripe.exception.StripeException;
 import com.stripe.model.Account;
 import com.stripe.model.AccountLink;
 import com.stripe.model.LoginLink;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.AccountCreateParams;
 import com.stripe.param.AccountLinkCreateParams;
 import com.stripe.param.LoginLinkCreateOnAccountParams;
 import com.yashkolte.coachlink.backend.entity.Coach;
+import com.yashkolte.coachlink.backend.entity.CoachStatusTransition;
+import com.yashkolte.coachlink.backend.profiling.StripeOperationEvent;
 import com.yashkolte.coachlink.backend.repository.CoachRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,14 +29,25 @@ import java.util.Optional;
  * onboarding progress - Creating dashboard links for account management -
  * Synchronizing Stripe account data with local database
  *
- * All operations maintain data consistency between Stripe and MongoDB.
+ * All operations maintain data consistency between Stripe and MongoDB. Stripe
+ * calls made inside a Deadline scope use connect and read timeouts clamped to
+ * the remaining budget. Each operation emits a StripeOperationEvent for JFR
+ * recordings.
  */
 @Service
 @Slf4j
 public class StripeService {
 
+    private static final String LOG_ONBOARDING_LINK = "stripe.onboarding-link";
+    private static final String LOG_DASHBOARD_LINK = "stripe.dashboard-link";
+    private static final String LOG_ACCOUNT_CREATED = "stripe.account-created";
+
     private final CoachRepository coachRepository;
 
+    private final CoachStatusService coachStatusService;
+
+    private final LogSamplingService logSampler;
+
     /**
      * Stripe API secret key for authentication
      */
@@ -57,9 +70,14 @@ public class StripeService {
      * Constructor for dependency injection
      *
      * @param coachRepository Repository for coach data operations
+     * @param coachStatusService Service applying status changes to coaches
+     * @param logSampler Sampler for routine success logs
      */
-    public StripeService(CoachRepository coachRepository) {
+    public StripeService(CoachRepository coachRepository, CoachStatusService coachStatusService,
+            LogSamplingService logSampler) {
         this.coachRepository = coachRepository;
+        this.coachStatusService = coachStatusService;
+        this.logSampler = logSampler;
     }
 
     /**
@@ -70,6 +88,26 @@ public class StripeService {
         Stripe.apiKey = stripeApiKey;
     }
 
+    /**
+     * Build request options for one Stripe call
+     *
+     * @param step Name of the call, used if the deadline has already passed
+     * @param idempotencyKey Stripe idempotency key, or null to send none
+     * @return Options with timeouts clamped to the current deadline
+     * @throws DeadlineExceededException if the current deadline has passed
+     */
+    private RequestOptions requestOptions(String step, String idempotencyKey) {
+        RequestOptions.RequestOptionsBuilder builder = RequestOptions.builder();
+        if (idempotencyKey != null) {
+            builder.setIdempotencyKey(idempotencyKey);
+        }
+        if (Deadline.current() != null) {
+            builder.setConnectTimeout((int) Deadline.clamp(step, Stripe.getConnectTimeout()))
+                    .setReadTimeout((int) Deadline.clamp(step, Stripe.getReadTimeout()));
+        }
+        return builder.build();
+    }
+
     /**
      * Create a new Stripe Express account for a coach
      *
@@ -83,6 +121,38 @@ public class StripeService {
      * @throws StripeException if Stripe API call fails
      */
     public String createStripeAccount(String email, String name) throws StripeException {
+        return createStripeAccount(email, name, null);
+    }
+
+    /**
+     * Create a new Stripe Express account for a coach with an idempotency key
+     *
+     * Retrying with the same idempotency key returns the account created by
+     * the first successful call instead of creating another one, which makes
+     * this safe to call from queue workers that may retry after a crash.
+     *
+     * @param email Coach's email address
+     * @param name Coach's display name
+     * @param idempotencyKey Stripe idempotency key, or null to send none
+     * @return Stripe account ID
+     * @throws StripeException if Stripe API call fails
+     */
+    public String createStripeAccount(String email, String name, String idempotencyKey) throws StripeException {
+        StripeOperationEvent event = StripeOperationEvent.start("createAccount", null);
+        try {
+            String accountId = doCreateStripeAccount(email, name, idempotencyKey);
+            event.setAccountId(accountId);
+            event.succeeded();
+            return accountId;
+        } catch (StripeException | RuntimeException e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            event.finish();
+        }
+    }
+
+    private String doCreateStripeAccount(String email, String name, String idempotencyKey) throws StripeException {
         initializeStripe();
 
         // Create Stripe Express account with transfer capabilities
@@ -101,7 +171,7 @@ public class StripeService {
                 )
                 .build();
 
-        Account account = Account.create(params);
+        Account account = Account.create(params, requestOptions("Stripe account creation", idempotencyKey));
 
         // Create or update coach in database
         Optional<Coach> existingCoach = coachRepository.findByEmail(email);
@@ -109,17 +179,20 @@ public class StripeService {
         if (existingCoach.isPresent()) {
             // Update existing coach with new Stripe account
             coach = existingCoach.get();
-            coach.setStripeAccountId(account.getId());
-            coach.setUpdatedAt(LocalDateTime.now());
+            coachStatusService.assignStripeAccount(coach, account.getId());
         } else {
             // Create new coach record
             coach = new Coach(email, name);
             coach.setStripeAccountId(account.getId());
+            coachStatusService.create(coach);
         }
 
-        coachRepository.save(coach);
-
-        log.info("Created Stripe account {} for coach {}", account.getId(), email);
+        if (logSampler.shouldLog(LOG_ACCOUNT_CREATED)) {
+            log.atInfo()
+                    .addKeyValue("accountId", account.getId())
+                    .addKeyValue("email", email)
+                    .log("Created Stripe account");
+        }
         return account.getId();
     }
 
@@ -134,6 +207,20 @@ public class StripeService {
      * @throws StripeException if Stripe API call fails
      */
     public String generateOnboardingLink(String accountId) throws StripeException {
+        StripeOperationEvent event = StripeOperationEvent.start("onboardingLink", accountId);
+        try {
+            String url = doGenerateOnboardingLink(accountId);
+            event.succeeded();
+            return url;
+        } catch (StripeException | RuntimeException e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            event.finish();
+        }
+    }
+
+    private String doGenerateOnboardingLink(String accountId) throws StripeException {
         initializeStripe();
 
         // Include account ID in the return URL for frontend handling
@@ -146,9 +233,11 @@ public class StripeService {
                 .setType(AccountLinkCreateParams.Type.ACCOUNT_ONBOARDING)
                 .build();
 
-        AccountLink accountLink = AccountLink.create(params);
+        AccountLink accountLink = AccountLink.create(params, requestOptions("Stripe onboarding link", null));
 
-        log.info("Generated onboarding link for account {}", accountId);
+        if (logSampler.shouldLog(LOG_ONBOARDING_LINK)) {
+            log.atInfo().addKeyValue("accountId", accountId).log("Generated onboarding link");
+        }
         return accountLink.getUrl();
     }
 
@@ -156,32 +245,87 @@ public class StripeService {
      * Retrieve and update account status from Stripe
      *
      * This method: 1. Fetches current account status from Stripe 2. Updates
-     * local database with latest status 3. Returns complete account information
+     * local database with latest status 3. Publishes the status to open status
+     * streams 4. Returns complete account information
      *
      * @param accountId Stripe account ID
      * @return Stripe Account object with current status
      * @throws StripeException if Stripe API call fails
      */
     public Account getAccountStatus(String accountId) throws StripeException {
+        return getAccountStatus(accountId, CoachStatusTransition.Source.CHECK);
+    }
+
+    /**
+     * Retrieve and update account status from Stripe on behalf of another
+     * caller
+     *
+     * @param accountId Stripe account ID
+     * @param source What triggered the retrieval, recorded with any status
+     * transition
+     * @return Stripe Account object with current status
+     * @throws StripeException if Stripe API call fails
+     */
+    public Account getAccountStatus(String accountId, CoachStatusTransition.Source source) throws StripeException {
+        StripeOperationEvent event = StripeOperationEvent.start("accountStatus", accountId);
+        try {
+            Account account = doGetAccountStatus(accountId, source);
+            event.succeeded();
+            return account;
+        } catch (StripeException | RuntimeException e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            event.finish();
+        }
+    }
+
+    private Account doGetAccountStatus(String accountId, CoachStatusTransition.Source source)
+            throws StripeException {
         initializeStripe();
 
-        Account account = Account.retrieve(accountId);
+        Account account = Account.retrieve(accountId, requestOptions("Stripe account retrieval", null));
 
         // Synchronize local database with Stripe status
         Optional<Coach> coachOpt = coachRepository.findByStripeAccountId(accountId);
         if (coachOpt.isPresent()) {
-            Coach coach = coachOpt.get();
-            coach.setOnboardingComplete(account.getDetailsSubmitted());
-            coach.setPayoutsEnabled(account.getPayoutsEnabled());
-            coach.setUpdatedAt(LocalDateTime.now());
-            coachRepository.save(coach);
-            log.debug("Updated coach {} status: onboarding={}, payouts={}",
-                    coach.getEmail(), account.getDetailsSubmitted(), account.getPayoutsEnabled());
+            coachStatusService.updateStatus(coachOpt.get(),
+                    account.getDetailsSubmitted(), account.getPayoutsEnabled(), source);
+            log.atDebug()
+                    .addKeyValue("accountId", accountId)
+                    .addKeyValue("onboarding", account.getDetailsSubmitted())
+                    .addKeyValue("payouts", account.getPayoutsEnabled())
+                    .log("Updated coach status");
         }
 
         return account;
     }
 
+    /**
+     * Retrieve an account from Stripe without updating the database
+     *
+     * For callers that write status changes themselves, such as the batch
+     * status refresh.
+     *
+     * @param accountId Stripe account ID
+     * @return Stripe Account object with current status
+     * @throws StripeException if Stripe API call fails
+     */
+    public Account retrieveAccount(String accountId) throws StripeException {
+        StripeOperationEvent event = StripeOperationEvent.start("retrieveAccount", accountId);
+        try {
+            initializeStripe();
+            Account account = Account.retrieve(accountId, requestOptions("Stripe account retrieval", null));
+            event.succeeded();
+            return account;
+        } catch (StripeException | RuntimeException e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            event.finish();
+        }
+    }
+
     /**
      * Generate a dashboard link for account management
      *
@@ -193,14 +337,31 @@ public class StripeService {
      * @throws StripeException if Stripe API call fails
      */
     public String generateDashboardLink(String accountId) throws StripeException {
+        StripeOperationEvent event = StripeOperationEvent.start("dashboardLink", accountId);
+        try {
+            String url = doGenerateDashboardLink(accountId);
+            event.succeeded();
+            return url;
+        } catch (StripeException | RuntimeException e) {
+            event.failed(e);
+            throw e;
+        } finally {
+            event.finish();
+        }
+    }
+
+    private String doGenerateDashboardLink(String accountId) throws StripeException {
         initializeStripe();
 
         LoginLinkCreateOnAccountParams params = LoginLinkCreateOnAccountParams.builder()
                 .build();
 
-        LoginLink loginLink = LoginLink.createOnAccount(accountId, params);
+        LoginLink loginLink = LoginLink.createOnAccount(accountId, params,
+                requestOptions("Stripe dashboard link", null));
 
-        log.info("Generated dashboard link for account {}", accountId);
+        if (logSampler.shouldLog(LOG_DASHBOARD_LINK)) {
+            log.atInfo().addKeyValue("accountId", accountId).log("Generated dashboard link");
+        }
         return loginLink.getUrl();
     }
 
@@ -0,0 +1,279 @@
+package com.yashkolte.coachlink.backend.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service warming up a new node before it reports ready
+ *
+ * Right after startup the MongoDB pool holds only its minimum connections, the
+ * Stripe client has no open connection, Jackson has not built its serializers
+ * and the hot paths still run interpreted. Once the application is ready, a
+ * background thread: 1. Opens app.warmup.mongo-connections MongoDB
+ * connections with concurrent pings 2. Opens a Stripe connection through the
+ * Stripe health check 3. Sends synthetic loopback requests to read-only
+ * endpoints (check-email, batch-status, search, funnel, health) for
+ * app.warmup.iterations rounds, using made-up emails and account IDs that
+ * match no coach and never reach Stripe; batch-status and the admin search
+ * and funnel endpoints are only included when app.admin.token is set
+ *
+ * Readiness (see HealthCheckService) waits until warm-up finishes. Warm-up
+ * stops at app.warmup.budget-ms even if unfinished, so a slow dependency
+ * cannot keep a node out of rotation forever.
+ *
+ * Synthetic requests carry a per-process random token and bypass the rate
+ * and concurrency limiters, which would otherwise reject them or learn cold
+ * latencies as the baseline.
+ */
+@Service
+@Slf4j
+public class WarmupService {
+
+    /**
+     * Header carrying the warm-up token on synthetic requests
+     */
+    public static final String TOKEN_HEADER = "X-Warmup-Token";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final HealthCheckService healthCheckService;
+
+    private final String token;
+
+    private volatile boolean complete;
+
+    @Value("${app.warmup.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Upper bound on the whole warm-up
+     */
+    @Value("${app.warmup.budget-ms:60000}")
+    private long budgetMs;
+
+    /**
+     * Rounds of synthetic requests; each round calls every warm-up endpoint
+     */
+    @Value("${app.warmup.iterations:500}")
+    private int iterations;
+
+    /**
+     * Concurrent synthetic clients, which also fills Tomcat and MongoDB pools
+     */
+    @Value("${app.warmup.concurrency:4}")
+    private int concurrency;
+
+    /**
+     * MongoDB connections to open before serving traffic
+     */
+    @Value("${app.warmup.mongo-connections:10}")
+    private int mongoConnections;
+
+    /**
+     * Admin token sent with the search and funnel requests; without one those
+     * endpoints are left cold
+     */
+    @Value("${app.admin.token:}")
+    private String adminToken;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param mongoTemplate Primary template used to open pool connections
+     * @param healthCheckService Health checks that open the Stripe connection
+     * and report readiness
+     */
+    public WarmupService(MongoTemplate mongoTemplate, HealthCheckService healthCheckService) {
+        this.mongoTemplate = mongoTemplate;
+        this.healthCheckService = healthCheckService;
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        this.token = HexFormat.of().formatHex(bytes);
+    }
+
+    /**
+     * Whether a request is one of this process's synthetic warm-up requests
+     *
+     * @param request Incoming request
+     * @return true if it carries the warm-up token
+     */
+    public boolean isWarmupRequest(HttpServletRequest request) {
+        return !complete && token.equals(request.getHeader(TOKEN_HEADER));
+    }
+
+    /**
+     * Start warm-up in the background once the server is listening
+     *
+     * @param event Ready event, used to find the local server port
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (!enabled) {
+            healthCheckService.markWarm();
+            return;
+        }
+        String port = event.getApplicationContext().getEnvironment().getProperty("local.server.port");
+        Thread thread = new Thread(() -> {
+            try {
+                warmUp(port);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Warm-up failed: {}", e.getMessage(), e);
+            } finally {
+                complete = true;
+                healthCheckService.markWarm();
+            }
+        }, "warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void warmUp(String port) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+
+        openMongoConnections();
+        healthCheckService.checkMongo();
+        healthCheckService.checkStripe();
+        long connectionsMs = (System.nanoTime() - start) / 1_000_000;
+
+        long requests = port != null ? sendSyntheticRequests(port, deadline) : 0;
+        long totalMs = (System.nanoTime() - start) / 1_000_000;
+        if (System.nanoTime() - deadline > 0) {
+            log.warn("Warm-up stopped at its {} ms budget after {} requests", budgetMs, requests);
+        } else {
+            log.info("Warm-up finished in {} ms: connections opened in {} ms, {} synthetic requests",
+                    totalMs, connectionsMs, requests);
+        }
+    }
+
+    /**
+     * Ping MongoDB from several threads at once so the pool opens a
+     * connection for each
+     */
+    private void openMongoConnections() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, mongoConnections));
+        CountDownLatch started = new CountDownLatch(mongoConnections);
+        try {
+            for (int i = 0; i < mongoConnections; i++) {
+                executor.execute(() -> {
+                    started.countDown();
+                    try {
+                        started.await(5, TimeUnit.SECONDS);
+                        mongoTemplate.executeCommand(new Document("ping", 1));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        log.debug("Warm-up ping failed: {}", e.getMessage());
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        executor.awaitTermination(budgetMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Send rounds of requests to read-only endpoints until done or out of
+     * budget
+     *
+     * @return Number of requests sent
+     */
+    private long sendSyntheticRequests(String port, long deadline) throws InterruptedException {
+        String base = "http://localhost:" + port;
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        AtomicLong sent = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, concurrency));
+        try {
+            for (int worker = 0; worker < concurrency; worker++) {
+                int offset = worker;
+                executor.execute(() -> {
+                    for (int i = offset; i < iterations && System.nanoTime() - deadline < 0; i += concurrency) {
+                        for (HttpRequest request : requests(base, i)) {
+                            try {
+                                client.send(request, HttpResponse.BodyHandlers.discarding());
+                                sent.incrementAndGet();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                return;
+                            } catch (Exception e) {
+                                log.debug("Warm-up request to {} failed: {}", request.uri(), e.getMessage());
+                            }
+                        }
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (!executor.awaitTermination(Math.max(0, remainingMs), TimeUnit.MILLISECONDS)) {
+            executor.shutdownNow();
+        }
+        return sent.get();
+    }
+
+    /**
+     * One round of synthetic requests; the .invalid domain and acct_warmup
+     * prefix never match a real coach
+     */
+    private List<HttpRequest> requests(String base, int round) {
+        List<HttpRequest> requests = new ArrayList<>();
+        requests.add(get(base + "/api/coaches/check-email?email=warmup-" + round + "@warmup.invalid"));
+        if (!adminToken.isEmpty()) {
+            requests.add(HttpRequest.newBuilder(URI.create(base + "/api/coaches/batch-status"))
+                    .header(TOKEN_HEADER, token)
+                    .header("Authorization", "Bearer " + adminToken)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(5))
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"accountIds\":[\"acct_warmup_" + round + "\",\"acct_warmup_x" + round + "\"]}"))
+                    .build());
+            requests.add(adminGet(base + "/api/admin/coaches/search?q=warmup" + (round % 10)));
+            requests.add(adminGet(base + "/api/admin/coaches/funnel"));
+        }
+        requests.add(get(base + "/api/health"));
+        return requests;
+    }
+
+    private HttpRequest adminGet(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header(TOKEN_HEADER, token)
+                .header("Authorization", "Bearer " + adminToken)
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header(TOKEN_HEADER, token)
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+    }
+}
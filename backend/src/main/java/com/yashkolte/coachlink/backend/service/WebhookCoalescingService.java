@@ -0,0 +1,251 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.stripe.exception.StripeException;
+import com.stripe.model.Event;
+import com.yashkolte.coachlink.backend.entity.CoachStatusTransition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service coalescing bursts of account.updated webhooks per account
+ *
+ * During onboarding Stripe sends several account.updated events for the same
+ * account within seconds, each carrying a full account snapshot, so only the
+ * newest one matters. Instead of applying each event, the webhook hands it to
+ * this service, which: 1. Holds the events of an account for
+ * app.webhook.coalesce-window-ms after the first one arrives 2. Keeps the
+ * event with the newest created timestamp, whatever the delivery order 3.
+ * Applies only that event through StripeEventHandler, then records the older
+ * ones as processed
+ *
+ * Stripe timestamps have one-second resolution. When the newest events of a
+ * window share a timestamp their order is unknown, so the account is
+ * retrieved from Stripe instead of trusting either snapshot. Events older than
+ * one already applied for the account on this node are recorded as processed
+ * without being applied.
+ *
+ * Windows are flushed on one scheduler thread, so the events of an account are
+ * never applied concurrently or out of order on this node. Held events are
+ * acknowledged before they are applied. If applying fails or the node stops
+ * within a window they are not recorded as processed, and the scheduled run of
+ * StripeEventBackfillService replays them within app.backfill.interval-ms.
+ */
+@Service
+@Slf4j
+public class WebhookCoalescingService {
+
+    /**
+     * Event type that carries a full account snapshot and can be coalesced
+     */
+    public static final String COALESCED_TYPE = "account.updated";
+
+    private static final String SOURCE = "webhook";
+
+    private final StripeEventHandler stripeEventHandler;
+
+    private final StripeService stripeService;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Created timestamp (epoch seconds) of the newest event applied per
+     * account, with the time it was applied
+     */
+    private final Map<String, long[]> appliedWatermarks = new ConcurrentHashMap<>();
+
+    private final Counter appliedCounter;
+
+    private final Counter supersededCounter;
+
+    private final Counter staleCounter;
+
+    /**
+     * How long events of an account are held before the newest is applied;
+     * 0 applies every event immediately
+     */
+    @Value("${app.webhook.coalesce-window-ms:2000}")
+    private long windowMs;
+
+    /**
+     * How long the newest applied timestamp of an account is remembered to
+     * reject late, older deliveries
+     */
+    @Value("${app.webhook.watermark-ttl-ms:600000}")
+    private long watermarkTtlMs;
+
+    /**
+     * Constructor for dependency injection
+     *
+     * @param stripeEventHandler Handler applying and recording events
+     * @param stripeService Service used to resolve timestamp ties from Stripe
+     * @param meterRegistry Registry for coalescing metrics
+     */
+    public WebhookCoalescingService(StripeEventHandler stripeEventHandler, StripeService stripeService,
+            MeterRegistry meterRegistry) {
+        this.stripeEventHandler = stripeEventHandler;
+        this.stripeService = stripeService;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "webhook-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.appliedCounter = Counter.builder("coachlink.webhook.coalesced")
+                .tag("outcome", "applied").register(meterRegistry);
+        this.supersededCounter = Counter.builder("coachlink.webhook.coalesced")
+                .tag("outcome", "superseded").register(meterRegistry);
+        this.staleCounter = Counter.builder("coachlink.webhook.coalesced")
+                .tag("outcome", "stale").register(meterRegistry);
+    }
+
+    /**
+     * Whether an event should be held instead of applied right away
+     *
+     * @param event Verified Stripe event
+     * @return true for account.updated events with an account while
+     * coalescing is enabled
+     */
+    public boolean accepts(Event event) {
+        return windowMs > 0 && COALESCED_TYPE.equals(event.getType())
+                && StripeEventHandler.accountIdOf(event) != null;
+    }
+
+    /**
+     * Hold an event until its account's window closes
+     *
+     * @param event Verified account.updated event
+     */
+    public void submit(Event event) {
+        String accountId = StripeEventHandler.accountIdOf(event);
+        boolean[] opened = new boolean[1];
+        windows.compute(accountId, (key, window) -> {
+            if (window == null) {
+                window = new Window();
+                opened[0] = true;
+            }
+            window.add(event);
+            return window;
+        });
+        if (opened[0]) {
+            scheduler.schedule(() -> flush(accountId), windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Apply the newest event of an account's window
+     */
+    private void flush(String accountId) {
+        Window window = windows.remove(accountId);
+        if (window == null) {
+            return;
+        }
+        try {
+            apply(accountId, window);
+        } catch (Exception e) {
+            // Nothing in the window was recorded as processed; the next scheduled backfill replays it
+            log.error("Failed to apply coalesced events for account {}: {}", accountId, e.getMessage(), e);
+        }
+    }
+
+    private void apply(String accountId, Window window) throws StripeException {
+        Event newest = window.newest;
+        long[] watermark = appliedWatermarks.get(accountId);
+        if (watermark != null && newest.getCreated() < watermark[0]) {
+            // Late delivery of snapshots older than one already applied
+            for (Event event : window.events) {
+                stripeEventHandler.markSuperseded(event, SOURCE);
+            }
+            staleCounter.increment(window.events.size());
+            return;
+        }
+
+        // A tie with the last applied event is as ambiguous as one within the window
+        boolean tied = window.tied || (watermark != null && newest.getCreated() == watermark[0]);
+        boolean applied;
+        if (tied) {
+            // Order within the newest second is unknown; take the current state from Stripe
+            stripeService.getAccountStatus(accountId, CoachStatusTransition.Source.WEBHOOK);
+            applied = true;
+        } else {
+            applied = stripeEventHandler.handle(newest, SOURCE) != StripeEventHandler.Outcome.FAILED;
+        }
+        if (!applied) {
+            return;
+        }
+
+        appliedWatermarks.put(accountId, new long[] {newest.getCreated(), System.currentTimeMillis()});
+        for (Event event : window.events) {
+            if (tied || event != newest) {
+                stripeEventHandler.markSuperseded(event, SOURCE);
+            }
+        }
+        appliedCounter.increment();
+        supersededCounter.increment(window.events.size() - 1);
+    }
+
+    /**
+     * Forget applied timestamps older than the watermark TTL
+     */
+    @Scheduled(fixedDelayString = "${app.webhook.watermark-ttl-ms:600000}")
+    public void evictWatermarks() {
+        long cutoff = System.currentTimeMillis() - watermarkTtlMs;
+        appliedWatermarks.values().removeIf(watermark -> watermark[1] < cutoff);
+    }
+
+    /**
+     * Apply all held events before shutdown
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        for (String accountId : new ArrayList<>(windows.keySet())) {
+            flush(accountId);
+        }
+    }
+
+    /**
+     * Events of one account received within a window; guarded by the map's
+     * compute lock while open
+     */
+    private static final class Window {
+
+        private final List<Event> events = new ArrayList<>();
+
+        private Event newest;
+
+        /**
+         * Whether another event shares the newest created timestamp
+         */
+        private boolean tied;
+
+        void add(Event event) {
+            for (Event held : events) {
+                if (held.getId().equals(event.getId())) {
+                    return; // Redelivery within the window
+                }
+            }
+            events.add(event);
+            if (newest == null || event.getCreated() > newest.getCreated()) {
+                newest = event;
+                tied = false;
+            } else if (event.getCreated().equals(newest.getCreated())) {
+                tied = true;
+            }
+        }
+    }
+}
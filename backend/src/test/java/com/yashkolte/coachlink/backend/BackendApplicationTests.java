@@ -2,6 +2,7 @@ package com.yashkolte.coachlink.backend;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
 /**
  * Integration Tests for CoachLink Backend Application
@@ -11,14 +12,18 @@ import org.springframework.boot.test.context.SpringBootTest;
  * dependencies properly wired.
  *
  * The @SpringBootTest annotation loads the complete application context,
- * including: - MongoDB configuration and connections - Stripe service
- * configuration - CORS settings - All REST controllers and services
+ * including: - MongoDB configuration - Stripe service configuration - CORS
+ * settings - All REST controllers and services
+ *
+ * The context runs with the inmemory profile, so coaches are stored in
+ * InMemoryCoachRepository and no MongoDB server is needed to start it.
  *
  * @author Yash Kolte
  * @version 1.0
  * @since 2024
  */
 @SpringBootTest
+@ActiveProfiles("inmemory")
 class BackendApplicationTests {
 
     /**
@@ -26,8 +31,7 @@ class BackendApplicationTests {
      *
      * This test verifies that: - All Spring beans can be created without errors
      * - Configuration classes are properly loaded - Dependencies are correctly
-     * injected - MongoDB connection can be established - No circular
-     * dependencies exist
+     * injected - No circular dependencies exist
      *
      * If this test fails, it indicates a fundamental configuration issue that
      * needs to be resolved before the application can start.
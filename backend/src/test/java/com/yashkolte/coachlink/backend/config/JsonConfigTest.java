@@ -0,0 +1,45 @@
+package com.yashkolte.coachlink.backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yashkolte.coachlink.backend.dto.AccountStatusResponse;
+import com.yashkolte.coachlink.backend.dto.ApiResponse;
+import com.yashkolte.coachlink.backend.dto.CoachResponse;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for JsonConfig
+ *
+ * The hand-written serializers must write exactly what Jackson's default bean
+ * serializers write, so clients never see a difference.
+ */
+class JsonConfigTest {
+
+    private final ObjectMapper defaultMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final ObjectMapper configuredMapper = Jackson2ObjectMapperBuilder.json()
+            .modules(new JsonConfig().coachLinkJsonModule())
+            .build();
+
+    static List<Object> responses() {
+        return List.of(
+                ApiResponse.success(new CoachResponse("66f1c0ffee0123456789abcd", "coach@example.com",
+                        "Sample \"Coach\" é", "acct_1SampleAccount00", "complete", true)),
+                ApiResponse.success(new CoachResponse(null, "new@example.com", null, null, "not_registered", false)),
+                ApiResponse.success("Status checked", AccountStatusResponse.of("acct_1SampleAccount00", true, null)),
+                ApiResponse.success(List.of(AccountStatusResponse.of("acct_1", false, false))),
+                ApiResponse.error("Request timed out, please retry"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("responses")
+    void handWrittenSerializersMatchDefaultOutput(Object response) throws Exception {
+        assertThat(configuredMapper.writeValueAsString(response))
+                .isEqualTo(defaultMapper.writeValueAsString(response));
+    }
+}
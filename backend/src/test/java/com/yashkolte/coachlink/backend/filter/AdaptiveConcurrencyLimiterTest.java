@@ -0,0 +1,107 @@
+package com.yashkolte.coachlink.backend.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the gradient algorithm of AdaptiveConcurrencyLimiter
+ *
+ * Latencies are passed in directly, so the tests are deterministic. A cycle
+ * fills the current limit and then releases every admitted request with the
+ * same latency, which is what a saturated lane looks like.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = 10_000_000L;
+
+    private static final long SLOW = 100_000_000L;
+
+    @Test
+    void rejectsRequestsBeyondTheLimitUntilOneIsReleased() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("api", 2, 1, 10);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getRejected()).isEqualTo(1);
+
+        limiter.release(FAST);
+
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void growsUpToTheMaximumWhileSaturatedAtSteadyLatency() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("api", 10, 1, 100);
+
+        cycle(limiter, FAST);
+        assertThat(limiter.getLimit()).isGreaterThan(10);
+
+        cycles(limiter, FAST, 20);
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void shrinksAsSoonAsLatencyRisesAboveTheBaseline() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("api", 10, 1, 100);
+        cycles(limiter, FAST, 20);
+        int healthy = limiter.getLimit();
+
+        cycle(limiter, SLOW);
+
+        assertThat(limiter.getLimit()).isLessThan(healthy / 2);
+    }
+
+    @Test
+    void neverShrinksBelowTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("api", 50, 10, 100);
+        cycles(limiter, FAST, 20);
+
+        cycle(limiter, SLOW);
+
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void baselineFollowsASustainedLatencyChange() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("api", 10, 1, 100);
+        cycles(limiter, FAST, 20);
+        cycle(limiter, SLOW);
+        int shed = limiter.getLimit();
+
+        // Once the slower latency is the new normal, the limit recovers
+        cycles(limiter, SLOW, 40);
+
+        assertThat(limiter.getLimit()).isGreaterThan(shed);
+    }
+
+    @Test
+    void doesNotGrowWhileMostOfTheLimitIsUnused() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("api", 20, 1, 100);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.release(FAST);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+
+    private static void cycles(AdaptiveConcurrencyLimiter limiter, long rttNanos, int count) {
+        for (int i = 0; i < count; i++) {
+            cycle(limiter, rttNanos);
+        }
+    }
+
+    private static void cycle(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        int admitted = 0;
+        while (limiter.tryAcquire()) {
+            admitted++;
+        }
+        for (int i = 0; i < admitted; i++) {
+            limiter.release(rttNanos);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.yashkolte.coachlink.backend.filter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for ClientRateLimiter
+ *
+ * Limits use an emission interval of 1000 s so no token is refilled while a
+ * test runs, except where a test relies on refilling.
+ */
+class ClientRateLimiterTest {
+
+    private static final double ONE_PER_1000_SECONDS = 0.001;
+
+    @Test
+    void admitsBurstThenRejectsWithRetryDelay() {
+        ClientRateLimiter limiter = new ClientRateLimiter("test", ONE_PER_1000_SECONDS, 3, 100);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isZero();
+
+        long wait = limiter.tryAcquire("a");
+        assertThat(wait).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1000));
+        assertThat(limiter.getRejected()).isEqualTo(1);
+    }
+
+    @Test
+    void clientsHaveSeparateBuckets() {
+        ClientRateLimiter limiter = new ClientRateLimiter("test", ONE_PER_1000_SECONDS, 1, 100);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        assertThat(limiter.tryAcquire("b")).isZero();
+        assertThat(limiter.getTrackedClients()).isEqualTo(2);
+    }
+
+    @Test
+    void clientsBeyondMaxClientsShareTheOverflowBucket() {
+        ClientRateLimiter limiter = new ClientRateLimiter("test", ONE_PER_1000_SECONDS, 2, 1);
+
+        assertThat(limiter.tryAcquire("tracked")).isZero();
+        assertThat(limiter.tryAcquire("spray-1")).isZero();
+        assertThat(limiter.tryAcquire("spray-2")).isZero();
+        assertThat(limiter.tryAcquire("spray-3")).isPositive();
+
+        assertThat(limiter.getTrackedClients()).isEqualTo(1);
+        assertThat(limiter.tryAcquire("tracked")).isZero();
+    }
+
+    @Test
+    void evictsOnlyBucketsThatAreFullAgain() throws InterruptedException {
+        ClientRateLimiter fast = new ClientRateLimiter("fast", 1_000_000, 1, 100);
+        fast.tryAcquire("a");
+        Thread.sleep(5);
+
+        assertThat(fast.evictIdle()).isEqualTo(1);
+        assertThat(fast.getTrackedClients()).isZero();
+        assertThat(fast.tryAcquire("a")).isZero();
+
+        ClientRateLimiter slow = new ClientRateLimiter("slow", ONE_PER_1000_SECONDS, 1, 100);
+        slow.tryAcquire("a");
+
+        assertThat(slow.evictIdle()).isZero();
+        assertThat(slow.tryAcquire("a")).isPositive();
+    }
+}
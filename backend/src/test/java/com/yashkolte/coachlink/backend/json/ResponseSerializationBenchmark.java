@@ -0,0 +1,99 @@
+package com.yashkolte.coachlink.backend.json;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.yashkolte.coachlink.backend.config.JsonConfig;
+import com.yashkolte.coachlink.backend.dto.AccountStatusResponse;
+import com.yashkolte.coachlink.backend.dto.ApiResponse;
+import com.yashkolte.coachlink.backend.dto.CoachResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH comparison of Jackson's default bean serializers and the hand-written
+ * serializers registered by JsonConfig
+ *
+ * Each payload is a representative response of a hot endpoint, written to a
+ * discarding stream the way the HTTP message converter writes to the response.
+ * Run main (or org.openjdk.jmh.Main on the test classpath) to get time per
+ * response and, from the GC profiler, gc.alloc.rate.norm bytes allocated per
+ * response for both paths. JsonConfigTest checks that both paths write the
+ * same bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"check-email", "check-email-unregistered", "check-status", "error"})
+    private String payload;
+
+    private Object response;
+
+    private ObjectWriter defaultWriter;
+
+    private ObjectWriter handWrittenWriter;
+
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    @Setup
+    public void setUp() {
+        defaultWriter = Jackson2ObjectMapperBuilder.json().build().writer();
+        handWrittenWriter = Jackson2ObjectMapperBuilder.json()
+                .modules(new JsonConfig().coachLinkJsonModule())
+                .build()
+                .writer();
+        response = switch (payload) {
+            case "check-email" -> ApiResponse.success(new CoachResponse("66f1c0ffee0123456789abcd",
+                    "coach@example.com", "Sample Coach", "acct_1SampleAccount00", "complete", true));
+            case "check-email-unregistered" -> ApiResponse.success(
+                    new CoachResponse(null, "new@example.com", null, null, "not_registered", false));
+            case "check-status" -> ApiResponse.success(AccountStatusResponse.of("acct_1SampleAccount00", true, true));
+            default -> ApiResponse.error("Request timed out, please retry");
+        };
+    }
+
+    @Benchmark
+    public void defaultSerializers() throws IOException {
+        defaultWriter.writeValue(sink, response);
+    }
+
+    @Benchmark
+    public void handWrittenSerializers() throws IOException {
+        handWrittenWriter.writeValue(sink, response);
+    }
+
+    /**
+     * Run the benchmark with the GC profiler
+     *
+     * @param args Ignored
+     * @throws RunnerException if the benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ResponseSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
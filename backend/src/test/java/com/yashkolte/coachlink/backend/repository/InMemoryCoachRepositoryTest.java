@@ -0,0 +1,108 @@
+package com.yashkolte.coachlink.backend.repository;
+
+import com.yashkolte.coachlink.backend.entity.Coach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for InMemoryCoachRepository
+ *
+ * Covers the behaviour callers rely on from the MongoDB repository: the unique
+ * email index, the Stripe account lookup, field updates and query by example.
+ */
+class InMemoryCoachRepositoryTest {
+
+    private InMemoryCoachRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryCoachRepository();
+    }
+
+    @Test
+    void insertRejectsDuplicateEmail() {
+        repository.insert(new Coach("ada@example.com", "Ada"));
+
+        assertThatThrownBy(() -> repository.insert(new Coach("ada@example.com", "Other")))
+                .isInstanceOf(DuplicateKeyException.class);
+        assertThat(repository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void storedCoachesAreCopies() {
+        Coach coach = repository.insert(new Coach("ada@example.com", "Ada"));
+        coach.setName("Changed");
+
+        assertThat(repository.findByEmail("ada@example.com")).get()
+                .extracting(Coach::getName).isEqualTo("Ada");
+    }
+
+    @Test
+    void compareAndSetStatusOnlyAppliesToExpectedStatus() {
+        Coach coach = repository.insert(new Coach("ada@example.com", "Ada"));
+        int onboarded = Coach.statusOf(true, false);
+
+        assertThat(repository.compareAndSetStatus(coach.getId(), 0, onboarded, 1000L)).isTrue();
+        assertThat(repository.compareAndSetStatus(coach.getId(), 0, Coach.statusOf(true, true), 2000L)).isFalse();
+
+        Coach stored = repository.findById(coach.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(onboarded);
+        assertThat(stored.getUpdated()).isEqualTo(1000L);
+    }
+
+    @Test
+    void updateStripeAccountIdMovesTheAccountIndex() {
+        Coach coach = repository.insert(new Coach("ada@example.com", "Ada"));
+        repository.updateStripeAccountId(coach.getId(), "acct_1", 1000L);
+        repository.updateStripeAccountId(coach.getId(), "acct_2", 2000L);
+
+        assertThat(repository.findByStripeAccountId("acct_1")).isEmpty();
+        assertThat(repository.findByStripeAccountId("acct_2")).get()
+                .extracting(Coach::getId).isEqualTo(coach.getId());
+        assertThat(repository.updateTimestamp("missing", 3000L)).isFalse();
+    }
+
+    @Test
+    void findAllByExampleMatchesNonNullProbeProperties() {
+        repository.insert(new Coach("ada@example.com", "Ada Lovelace"));
+        repository.insert(new Coach("grace@example.com", "Grace Hopper"));
+        repository.insert(new Coach("alan@example.org", "Alan Turing"));
+
+        ExampleMatcher matcher = ExampleMatcher.matching()
+                .withIgnorePaths("status")
+                .withMatcher("email", ExampleMatcher.GenericPropertyMatchers.endsWith())
+                .withMatcher("name", ExampleMatcher.GenericPropertyMatchers.startsWith().ignoreCase());
+        Coach probe = new Coach("@example.com", "a");
+        probe.setCreated(null);
+        probe.setUpdated(null);
+
+        List<Coach> matches = repository.findAll(Example.of(probe, matcher), Sort.by("email"));
+
+        assertThat(matches).extracting(Coach::getEmail).containsExactly("ada@example.com");
+    }
+
+    @Test
+    void findOneByExampleRejectsSeveralMatches() {
+        repository.insert(new Coach("ada@example.com", "Ada"));
+        repository.insert(new Coach("grace@example.com", "Grace"));
+
+        Coach probe = new Coach();
+        Example<Coach> example = Example.of(probe, ExampleMatcher.matching().withIgnorePaths("status"));
+
+        assertThat(repository.count(example)).isEqualTo(2);
+        assertThatThrownBy(() -> repository.findOne(example))
+                .isInstanceOf(IncorrectResultSizeDataAccessException.class);
+        assertThat(repository.findBy(example, query -> query.sortBy(Sort.by("name").descending()).firstValue()))
+                .extracting(Coach::getName).isEqualTo("Grace");
+    }
+}
@@ -0,0 +1,148 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.yashkolte.coachlink.backend.entity.AccountCreationJob;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import com.yashkolte.coachlink.backend.repository.AccountCreationJobRepository;
+import com.yashkolte.coachlink.backend.repository.CoachRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for AccountCreationQueueService.enqueue and process
+ *
+ * The unique email index on AccountCreationJob is what keeps a second active
+ * or completed job out; these tests cover the query that relies on it, the
+ * handling of the resulting duplicate key errors, and the check that keeps an
+ * already linked coach from getting a second Stripe account.
+ */
+class AccountCreationQueueServiceTest {
+
+    private MongoTemplate mongoTemplate;
+
+    private CoachRepository coachRepository;
+
+    private CoachStatusService coachStatusService;
+
+    private StripeService stripeService;
+
+    private AccountCreationQueueService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        coachRepository = mock(CoachRepository.class);
+        coachStatusService = mock(CoachStatusService.class);
+        stripeService = mock(StripeService.class);
+        service = new AccountCreationQueueService(mock(AccountCreationJobRepository.class), coachRepository,
+                stripeService, coachStatusService, mongoTemplate, new SimpleMeterRegistry(),
+                mock(LogSamplingService.class));
+    }
+
+    @Test
+    void upsertOnlyResetsFailedJobs() {
+        when(coachRepository.findByEmail("ada@example.com"))
+                .thenReturn(Optional.of(new Coach("ada@example.com", "Ada")));
+
+        service.enqueue("ada@example.com", "Ada");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(AccountCreationJob.class));
+
+        Document filter = query.getValue().getQueryObject();
+        assertThat(filter.get("email")).isEqualTo("ada@example.com");
+        // A completed job must not be reset: the bumped generation would change
+        // the idempotency key and create a second Stripe account
+        assertThat(filter.get("status")).isEqualTo(AccountCreationJob.Status.FAILED);
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set.get("status")).isEqualTo(AccountCreationJob.Status.PENDING);
+        assertThat(set.get("attempts")).isEqualTo(0);
+    }
+
+    @Test
+    void activeOrCompletedJobRejectedByUniqueIndexStillReturnsTheCoach() {
+        Coach existing = new Coach("ada@example.com", "Ada");
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(AccountCreationJob.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+        when(coachRepository.findByEmail("ada@example.com")).thenReturn(Optional.of(existing));
+
+        assertThat(service.enqueue("ada@example.com", "Ada")).isSameAs(existing);
+        verify(coachStatusService, never()).create(any());
+    }
+
+    @Test
+    void createsPendingCoachWhenNoneExists() {
+        Coach created = new Coach("ada@example.com", "Ada");
+        when(coachRepository.findByEmail("ada@example.com")).thenReturn(Optional.empty());
+        when(coachStatusService.create(any(Coach.class))).thenReturn(created);
+
+        assertThat(service.enqueue("ada@example.com", "Ada")).isSameAs(created);
+    }
+
+    @Test
+    void concurrentRegistrationReusesTheWinningCoach() {
+        Coach winner = new Coach("ada@example.com", "Ada");
+        when(coachRepository.findByEmail("ada@example.com"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(winner));
+        when(coachStatusService.create(any(Coach.class))).thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+
+        assertThat(service.enqueue("ada@example.com", "Ada")).isSameAs(winner);
+    }
+
+    @Test
+    void jobForAnAlreadyLinkedCoachCompletesWithoutCallingStripe() throws Exception {
+        Coach linked = new Coach("ada@example.com", "Ada");
+        linked.setStripeAccountId("acct_1");
+        when(coachRepository.findByEmail("ada@example.com")).thenReturn(Optional.of(linked));
+
+        service.process(job());
+
+        verify(stripeService, never()).createStripeAccount(any(), any(), any());
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(AccountCreationJob.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set.get("status")).isEqualTo(AccountCreationJob.Status.COMPLETED);
+        assertThat(set.get("stripeAccountId")).isEqualTo("acct_1");
+    }
+
+    @Test
+    void jobForAnUnlinkedCoachCallsStripeWithTheGenerationKey() throws Exception {
+        when(coachRepository.findByEmail("ada@example.com"))
+                .thenReturn(Optional.of(new Coach("ada@example.com", "Ada")));
+        when(stripeService.createStripeAccount(any(), any(), any())).thenReturn("acct_2");
+
+        service.process(job());
+
+        verify(stripeService).createStripeAccount("ada@example.com", "Ada",
+                EmailLockService.accountCreationKey("ada@example.com", 3));
+    }
+
+    private static AccountCreationJob job() {
+        AccountCreationJob job = new AccountCreationJob();
+        job.setId("job_1");
+        job.setEmail("ada@example.com");
+        job.setName("Ada");
+        job.setStatus(AccountCreationJob.Status.IN_PROGRESS);
+        job.setAttempts(1);
+        job.setGeneration(3);
+        return job;
+    }
+}
@@ -0,0 +1,129 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.yashkolte.coachlink.backend.entity.Coach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the CSV written by CoachExportService
+ *
+ * The cursor is a mocked stream; each test checks the exact bytes written,
+ * since finance imports the file into spreadsheets as is.
+ */
+class CoachExportServiceTest {
+
+    private static final String HEADER =
+            "id,email,name,stripeAccountId,onboardingComplete,payoutsEnabled,createdAt,updatedAt\n";
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 1, 31, 8, 0);
+
+    private static final LocalDateTime UPDATED = LocalDateTime.of(2025, 2, 1, 9, 30, 15);
+
+    private MongoTemplate mongoTemplate;
+
+    private CoachExportService service;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        service = new CoachExportService(mongoTemplate);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+    }
+
+    @Test
+    void writesHeaderAndOneRowPerCoach() throws IOException {
+        Coach onboarded = coach("c1", "ada@example.com", "Ada Lovelace");
+        onboarded.setStripeAccountId("acct_1");
+        onboarded.setOnboardingComplete(true);
+        onboarded.setPayoutsEnabled(false);
+        Coach pending = coach("c2", "grace@example.com", "Grace Hopper");
+        Coach third = coach("c3", "alan@example.com", "Alan Turing");
+        cursor(onboarded, pending, third);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThat(service.exportCsv(out, false)).isEqualTo(3);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(HEADER
+                + "c1,ada@example.com,Ada Lovelace,acct_1,true,false,2025-01-31T08:00,2025-02-01T09:30:15\n"
+                + "c2,grace@example.com,Grace Hopper,,false,false,2025-01-31T08:00,2025-02-01T09:30:15\n"
+                + "c3,alan@example.com,Alan Turing,,false,false,2025-01-31T08:00,2025-02-01T09:30:15\n");
+    }
+
+    @Test
+    void quotesSeparatorsAndDoublesQuotes() throws IOException {
+        cursor(coach("c1", "ada@example.com", "Lovelace, \"Ada\""),
+                coach("c2", "grace@example.com", "Grace\nHopper"));
+
+        String csv = export(false);
+
+        assertThat(csv).contains("c1,ada@example.com,\"Lovelace, \"\"Ada\"\"\",")
+                .contains("c2,grace@example.com,\"Grace\nHopper\",");
+    }
+
+    @Test
+    void neutralizesSpreadsheetFormulas() throws IOException {
+        cursor(coach("c1", "ada@example.com", "=HYPERLINK(\"http://evil\")"),
+                coach("c2", "@grace@example.com", "-1+2"));
+
+        String csv = export(false);
+
+        assertThat(csv).contains("c1,ada@example.com,\"'=HYPERLINK(\"\"http://evil\"\")\",")
+                .contains("c2,\"'@grace@example.com\",\"'-1+2\",");
+    }
+
+    @Test
+    void gzipOutputDecompressesToTheSameCsv() throws IOException {
+        cursor(coach("c1", "ada@example.com", "Ada"));
+        String plain = export(false);
+        cursor(coach("c1", "ada@example.com", "Ada"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportCsv(out, true);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(plain);
+        }
+    }
+
+    @Test
+    void emptyCollectionWritesOnlyTheHeader() throws IOException {
+        cursor();
+
+        assertThat(export(false)).isEqualTo(HEADER);
+    }
+
+    private String export(boolean gzip) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportCsv(out, gzip);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private void cursor(Coach... coaches) {
+        when(mongoTemplate.stream(any(Query.class), eq(Coach.class))).thenReturn(Stream.of(coaches));
+    }
+
+    private static Coach coach(String id, String email, String name) {
+        Coach coach = new Coach(email, name);
+        coach.setId(id);
+        coach.setCreatedAt(CREATED);
+        coach.setUpdatedAt(UPDATED);
+        return coach;
+    }
+}
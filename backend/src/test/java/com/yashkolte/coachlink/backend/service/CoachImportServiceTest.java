@@ -0,0 +1,141 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.yashkolte.coachlink.backend.dto.CoachImportReport;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for CSV parsing and row accounting of CoachImportService
+ *
+ * MongoDB is mocked: the registered-email lookup finds nothing unless a test
+ * says otherwise, and bulk inserts are captured.
+ */
+class CoachImportServiceTest {
+
+    private MongoTemplate mongoTemplate;
+
+    private BulkOperations bulk;
+
+    private FunnelStatsService funnelStatsService;
+
+    private CoachImportService service;
+
+    private final List<Coach> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        funnelStatsService = mock(FunnelStatsService.class);
+        when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(Coach.class))).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenAnswer(invocation -> {
+            List<?> coaches = invocation.getArgument(0);
+            coaches.forEach(coach -> inserted.add((Coach) coach));
+            return bulk;
+        });
+        service = new CoachImportService(mongoTemplate, funnelStatsService, mock(CoachSchemaMigrationService.class));
+        ReflectionTestUtils.setField(service, "batchSize", 1000);
+        ReflectionTestUtils.setField(service, "maxReportedErrors", 1000);
+    }
+
+    @Test
+    void stripsTheByteOrderMarkBeforeTheHeader() throws IOException {
+        CoachImportReport report = importCsv("\uFEFFemail,name\nada@example.com,Ada Lovelace\n");
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(inserted).extracting(Coach::getEmail).containsExactly("ada@example.com");
+    }
+
+    @Test
+    void parsesQuotedFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        CoachImportReport report = importCsv("Name,Phone,EMAIL\r\n"
+                + "\"Lovelace, \"\"Ada\"\"\",555,ada@example.com\r\n"
+                + "\"Grace\nHopper\",,\"GRACE@example.com\"\r\n");
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(inserted)
+                .extracting(Coach::getEmail, Coach::getName)
+                .containsExactly(
+                        tuple("ada@example.com", "Lovelace, \"Ada\""),
+                        tuple("grace@example.com", "Grace\nHopper"));
+    }
+
+    @Test
+    void countsEveryRowInExactlyOneOutcome() throws IOException {
+        when(mongoTemplate.find(any(Query.class), eq(Coach.class)))
+                .thenReturn(List.of(new Coach("known@example.com", "Known")));
+
+        CoachImportReport report = importCsv("email,name\n"
+                + "ada@example.com,Ada\n"
+                + "\n"
+                + "not-an-email,Broken\n"
+                + "ADA@example.com,Ada Again\n"
+                + "known@example.com,Known\n"
+                + "x@example.com,X\n");
+
+        assertThat(report.getTotalRows()).isEqualTo(5);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getInvalid()).isEqualTo(2);
+        assertThat(report.getDuplicateInFile()).isEqualTo(1);
+        assertThat(report.getAlreadyRegistered()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(CoachImportReport.RowError::getRow)
+                .containsExactlyInAnyOrder(2L, 3L, 4L, 5L);
+        verify(funnelStatsService).recordCreated(1);
+    }
+
+    @Test
+    void duplicateKeyOnInsertCountsAsAlreadyRegistered() throws IOException {
+        BulkOperationException rejected = mock(BulkOperationException.class);
+        when(rejected.getErrors()).thenReturn(List.of(
+                new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0),
+                new BulkWriteError(121, "Document failed validation", new BsonDocument(), 1)));
+        when(bulk.execute()).thenThrow(rejected);
+
+        CoachImportReport report = importCsv("email,name\nada@example.com,Ada\ngrace@example.com,Grace\n"
+                + "alan@example.com,Alan\n");
+
+        assertThat(report.getAlreadyRegistered()).isEqualTo(1);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors())
+                .extracting(CoachImportReport.RowError::getEmail, CoachImportReport.RowError::getReason)
+                .containsExactly(
+                        tuple("ada@example.com", "Email already registered"),
+                        tuple("grace@example.com", "Document failed validation"));
+        verify(funnelStatsService).recordCreated(1);
+    }
+
+    @Test
+    void rejectsAHeaderWithoutEmailAndName() {
+        assertThatThrownBy(() -> importCsv("mail,full name\nada@example.com,Ada\n"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private CoachImportReport importCsv(String csv) throws IOException {
+        return service.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), false);
+    }
+}
@@ -0,0 +1,141 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.IndexOptions;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the document conversions of CoachSchemaMigrationService
+ *
+ * The migration, legacy reads and rollback all go through toCompact and
+ * toLegacy, so a conversion must keep every value and be safe to repeat.
+ * Index preparation runs against mocked collections.
+ */
+class CoachSchemaMigrationServiceTest {
+
+    private static final ObjectId ID = new ObjectId("66f1c0ffee0123456789abcd");
+
+    private static final Date CREATED = new Date(1_700_000_000_000L);
+
+    private static final Date UPDATED = new Date(1_700_000_360_000L);
+
+    @Test
+    void convertsLegacyDocumentToCompactFields() {
+        Document compact = CoachSchemaMigrationService.toCompact(legacy());
+
+        assertThat(compact).containsExactlyInAnyOrderEntriesOf(new Document("_id", ID)
+                .append("_class", "c")
+                .append("e", "ada@example.com")
+                .append("n", "Ada")
+                .append("a", "acct_1")
+                .append("s", Coach.STATUS_ONBOARDING_COMPLETE)
+                .append("c", CREATED.getTime())
+                .append("u", UPDATED.getTime()));
+    }
+
+    @Test
+    void compactConversionIsIdempotent() {
+        Document compact = CoachSchemaMigrationService.toCompact(legacy());
+
+        assertThat(CoachSchemaMigrationService.toCompact(compact)).isEqualTo(compact);
+    }
+
+    @Test
+    void legacyRoundTripKeepsEveryValue() {
+        Document legacy = legacy();
+
+        Document restored = CoachSchemaMigrationService.toLegacy(CoachSchemaMigrationService.toCompact(legacy));
+
+        assertThat(restored).isEqualTo(legacy);
+    }
+
+    @Test
+    void compactValuesWinOverLegacyValuesInMixedDocuments() {
+        // A compact write that landed on a document the migration has not converted yet
+        Document mixed = legacy()
+                .append("e", "ada@example.org")
+                .append("s", Coach.statusOf(true, true))
+                .append("u", UPDATED.getTime() + 1000);
+
+        Document compact = CoachSchemaMigrationService.toCompact(mixed);
+
+        assertThat(compact.getString("e")).isEqualTo("ada@example.org");
+        assertThat(compact.getInteger("s")).isEqualTo(Coach.statusOf(true, true));
+        assertThat(compact.getLong("u")).isEqualTo(UPDATED.getTime() + 1000);
+        assertThat(compact.getString("n")).isEqualTo("Ada");
+    }
+
+    @Test
+    void pendingCoachWithoutStripeAccountHasNoAccountField() {
+        Document legacy = new Document("_id", ID)
+                .append("email", "new@example.com")
+                .append("name", "New")
+                .append("onboardingComplete", false)
+                .append("payoutsEnabled", false)
+                .append("createdAt", CREATED);
+
+        Document compact = CoachSchemaMigrationService.toCompact(legacy);
+
+        assertThat(compact).doesNotContainKeys("a", "u", "stripeAccountId");
+        assertThat(compact.getInteger("s")).isZero();
+        assertThat(CoachSchemaMigrationService.toLegacy(compact)).doesNotContainKey("stripeAccountId");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relaxesTheLegacyUniqueEmailIndexBeforeTheWebServerStarts() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        ListIndexesIterable<Document> indexes = mock(ListIndexesIterable.class);
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        Document emailIndex = new Document("name", "email").append("unique", true)
+                .append("key", new Document("email", 1));
+        when(mongoTemplate.indexOps(Coach.class)).thenReturn(mock(IndexOperations.class));
+        when(mongoTemplate.getCollection(any())).thenReturn(collection);
+        when(collection.listIndexes()).thenReturn(indexes);
+        when(indexes.iterator()).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn(emailIndex);
+        CoachSchemaMigrationService service = new CoachSchemaMigrationService(mongoTemplate);
+        ReflectionTestUtils.setField(service, "checkOnStartup", true);
+
+        service.afterSingletonsInstantiated();
+
+        ArgumentCaptor<IndexOptions> options = ArgumentCaptor.forClass(IndexOptions.class);
+        verify(collection).dropIndex("email");
+        verify(collection).createIndex(eq(new Document("email", 1)), options.capture());
+        assertThat(options.getValue().isUnique()).isTrue();
+        assertThat(options.getValue().getPartialFilterExpression())
+                .isEqualTo(new Document("email", new Document("$exists", true)));
+    }
+
+    private static Document legacy() {
+        return new Document("_id", ID)
+                .append("email", "ada@example.com")
+                .append("name", "Ada")
+                .append("stripeAccountId", "acct_1")
+                .append("onboardingComplete", true)
+                .append("payoutsEnabled", false)
+                .append("createdAt", CREATED)
+                .append("updatedAt", UPDATED)
+                .append("_class", Coach.class.getName());
+    }
+}
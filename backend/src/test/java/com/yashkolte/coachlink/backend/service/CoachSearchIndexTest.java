@@ -0,0 +1,146 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.yashkolte.coachlink.backend.entity.Coach;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the ranking and rebuild replay of CoachSearchIndex
+ *
+ * The coaches collection is a mocked cursor; writes that happen while a
+ * rebuild is loading are injected from inside the cursor.
+ */
+class CoachSearchIndexTest {
+
+    private MongoTemplate mongoTemplate;
+
+    private CoachSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        index = new CoachSearchIndex(mongoTemplate);
+    }
+
+    @Test
+    void ranksEmailPrefixAboveSubstringAndBreaksTiesByEmail() {
+        load(coach("c1", "ada@example.com", "Ada Lovelace", "acct_1"),
+                coach("c2", "adam@example.org", "Adam Smith", null),
+                coach("c3", "grace.ada@example.com", "Grace Hopper", "acct_3"));
+
+        CoachSearchIndex.Page page = index.search("ADA", 0, 10);
+
+        assertThat(page.total()).isEqualTo(3);
+        assertThat(page.hits())
+                .extracting(CoachSearchIndex.Hit::id, CoachSearchIndex.Hit::score)
+                .containsExactly(tuple("c1", 80), tuple("c2", 80), tuple("c3", 40));
+    }
+
+    @Test
+    void exactEmailScoresHighestAndNameWordsMatch() {
+        load(coach("c1", "ada@example.com", "Ada Lovelace", "acct_1"),
+                coach("c2", "lovelace.fan@example.com", "Fan", null));
+
+        assertThat(index.search("ada@example.com", 0, 10).hits())
+                .extracting(CoachSearchIndex.Hit::id, CoachSearchIndex.Hit::score)
+                .containsExactly(tuple("c1", 100));
+        assertThat(index.search("love", 0, 10).hits())
+                .extracting(CoachSearchIndex.Hit::id, CoachSearchIndex.Hit::score)
+                .containsExactly(tuple("c2", 80), tuple("c1", 60));
+    }
+
+    @Test
+    void shortQueriesUsePrefixesOnly() {
+        load(coach("c1", "grace@example.com", "Grace Hopper", null),
+                coach("c2", "ada@example.com", "Ada Lovelace", null));
+
+        // "ra" is inside "grace" but starts no term
+        assertThat(index.search("ra", 0, 10).total()).isZero();
+        assertThat(index.search("ho", 0, 10).hits())
+                .extracting(CoachSearchIndex.Hit::id)
+                .containsExactly("c1");
+    }
+
+    @Test
+    void pagesThroughRankedHits() {
+        load(coach("c1", "ann1@example.com", "Ann", null),
+                coach("c2", "ann2@example.com", "Ann", null),
+                coach("c3", "ann3@example.com", "Ann", null));
+
+        CoachSearchIndex.Page second = index.search("ann", 1, 2);
+
+        assertThat(second.total()).isEqualTo(3);
+        assertThat(second.hits()).extracting(CoachSearchIndex.Hit::id).containsExactly("c3");
+    }
+
+    @Test
+    void writesDuringARebuildWinOverTheLoadedCopy() {
+        Coach stale = coach("c1", "ada@example.com", "Ada", null);
+        Coach linked = coach("c1", "ada@example.com", "Ada", "acct_1");
+        Coach added = coach("c2", "grace@example.com", "Grace", null);
+        // The cursor yields the stale copy after the targeted update was indexed
+        when(mongoTemplate.stream(any(Query.class), eq(Coach.class))).thenAnswer(invocation -> Stream.of(stale)
+                .peek(coach -> {
+                    index.index(linked);
+                    index.index(added);
+                }));
+
+        index.rebuild();
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.search("ada", 0, 10).hits())
+                .extracting(CoachSearchIndex.Hit::stripeAccountId)
+                .containsExactly("acct_1");
+        assertThat(index.search("grace", 0, 10).total()).isEqualTo(1);
+    }
+
+    @Test
+    void deleteDuringARebuildRemovesTheLoadedCoach() {
+        Coach removed = coach("c1", "ada@example.com", "Ada", null);
+        when(mongoTemplate.stream(any(Query.class), eq(Coach.class))).thenAnswer(invocation -> Stream.of(removed)
+                .peek(coach -> index.onAfterDelete(
+                        new AfterDeleteEvent<>(new Document("_id", "c1"), Coach.class, "coaches"))));
+
+        index.rebuild();
+
+        assertThat(index.size()).isZero();
+        assertThat(index.search("ada", 0, 10).total()).isZero();
+    }
+
+    @Test
+    void failedRebuildKeepsTheCurrentIndex() {
+        load(coach("c1", "ada@example.com", "Ada", null));
+        when(mongoTemplate.stream(any(Query.class), eq(Coach.class)))
+                .thenThrow(new IllegalStateException("cursor killed"));
+
+        index.rebuild();
+
+        assertThat(index.search("ada", 0, 10).total()).isEqualTo(1);
+    }
+
+    private void load(Coach... coaches) {
+        when(mongoTemplate.stream(any(Query.class), eq(Coach.class))).thenReturn(Stream.of(coaches));
+        index.rebuild();
+    }
+
+    private static Coach coach(String id, String email, String name, String stripeAccountId) {
+        Coach coach = new Coach(email, name);
+        coach.setId(id);
+        coach.setStripeAccountId(stripeAccountId);
+        return coach;
+    }
+}
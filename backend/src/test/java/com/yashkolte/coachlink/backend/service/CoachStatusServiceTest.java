@@ -0,0 +1,179 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.yashkolte.coachlink.backend.entity.Coach;
+import com.yashkolte.coachlink.backend.entity.CoachStatusTransition;
+import com.yashkolte.coachlink.backend.repository.CoachRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the compare-and-set loop of CoachStatusService.updateStatus and
+ * its other targeted writes
+ *
+ * Funnel counters, history and status streams must be updated only by the
+ * writer whose compare-and-set matched, and always relative to the status it
+ * actually replaced.
+ */
+class CoachStatusServiceTest {
+
+    private static final int NOT_STARTED = Coach.statusOf(false, false);
+
+    private static final int ONBOARDED = Coach.statusOf(true, false);
+
+    private static final int COMPLETE = Coach.statusOf(true, true);
+
+    private MongoTemplate mongoTemplate;
+
+    private CoachRepository coachRepository;
+
+    private FunnelStatsService funnelStatsService;
+
+    private AccountStatusStreamService statusStreamService;
+
+    private StatusHistoryService statusHistoryService;
+
+    private CoachSearchIndex coachSearchIndex;
+
+    private CoachStatusService service;
+
+    @BeforeEach
+    void setUp() {
+        coachRepository = mock(CoachRepository.class);
+        funnelStatsService = mock(FunnelStatsService.class);
+        statusStreamService = mock(AccountStatusStreamService.class);
+        statusHistoryService = mock(StatusHistoryService.class);
+        coachSearchIndex = mock(CoachSearchIndex.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        CoachSchemaMigrationService schemaMigration = mock(CoachSchemaMigrationService.class);
+        when(schemaMigration.isComplete()).thenReturn(true);
+        service = new CoachStatusService(mongoTemplate, coachRepository, funnelStatsService,
+                statusStreamService, mock(CoachReadService.class), schemaMigration,
+                statusHistoryService, coachSearchIndex);
+    }
+
+    @Test
+    void appliesChangeWhenStoredStatusMatches() {
+        Coach coach = coach(NOT_STARTED);
+        when(coachRepository.compareAndSetStatus(eq("c1"), eq(NOT_STARTED), eq(ONBOARDED), anyLong()))
+                .thenReturn(true);
+
+        Coach updated = service.updateStatus(coach, true, false, CoachStatusTransition.Source.WEBHOOK);
+
+        assertThat(updated.getStatus()).isEqualTo(ONBOARDED);
+        verify(funnelStatsService).recordTransition(false, true, false, false);
+        verify(statusHistoryService).record(eq(coach), eq(ONBOARDED), anyLong(),
+                eq(CoachStatusTransition.Source.WEBHOOK));
+        verify(statusStreamService).publish(coach);
+    }
+
+    @Test
+    void retriesAgainstTheLatestStatusAfterLosingTheRace() {
+        Coach stale = coach(NOT_STARTED);
+        Coach latest = coach(ONBOARDED);
+        when(coachRepository.compareAndSetStatus(eq("c1"), eq(NOT_STARTED), anyInt(), anyLong())).thenReturn(false);
+        when(coachRepository.findById("c1")).thenReturn(Optional.of(latest));
+        when(coachRepository.compareAndSetStatus(eq("c1"), eq(ONBOARDED), eq(COMPLETE), anyLong()))
+                .thenReturn(true);
+
+        Coach updated = service.updateStatus(stale, true, true, CoachStatusTransition.Source.CHECK);
+
+        assertThat(updated).isSameAs(latest);
+        assertThat(updated.getStatus()).isEqualTo(COMPLETE);
+        // Only the payout flag changed relative to what the winner of the race wrote
+        verify(funnelStatsService, times(1)).recordTransition(true, true, false, true);
+        verify(statusStreamService, times(1)).publish(latest);
+    }
+
+    @Test
+    void returnsNullWhenTheCoachWasDeleted() {
+        when(coachRepository.compareAndSetStatus(any(), anyInt(), anyInt(), anyLong())).thenReturn(false);
+        when(coachRepository.findById("c1")).thenReturn(Optional.empty());
+
+        assertThat(service.updateStatus(coach(NOT_STARTED), true, false, CoachStatusTransition.Source.CHECK))
+                .isNull();
+        verifyNoInteractions(funnelStatsService, statusStreamService, statusHistoryService);
+    }
+
+    @Test
+    void givesUpOnAHeavilyContendedCoach() {
+        when(coachRepository.compareAndSetStatus(any(), anyInt(), anyInt(), anyLong())).thenReturn(false);
+        when(coachRepository.findById("c1")).thenReturn(Optional.of(coach(NOT_STARTED)));
+
+        assertThatThrownBy(() -> service.updateStatus(coach(NOT_STARTED), true, false,
+                CoachStatusTransition.Source.CHECK))
+                .isInstanceOf(IllegalStateException.class);
+        verify(funnelStatsService, never()).recordTransition(any(), any(), any(), any());
+    }
+
+    @Test
+    void assignedStripeAccountReachesTheSearchIndex() {
+        Coach coach = coach(NOT_STARTED);
+        coach.setStripeAccountId(null);
+        when(coachRepository.updateStripeAccountId(eq("c1"), eq("acct_2"), anyLong())).thenReturn(true);
+
+        assertThat(service.assignStripeAccount(coach, "acct_2")).isTrue();
+
+        // The targeted update emits no save event the index could pick up
+        assertThat(coach.getStripeAccountId()).isEqualTo("acct_2");
+        verify(coachSearchIndex).index(coach);
+    }
+
+    @Test
+    void unchangedStatusesOnlyBumpTheTimestampInTheSameBulkWrite() {
+        BulkOperations bulk = mock(BulkOperations.class);
+        BulkWriteResult result = mock(BulkWriteResult.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Coach.class)).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(result);
+        when(result.getMatchedCount()).thenReturn(2);
+        Coach changed = coach(NOT_STARTED);
+        Coach unchanged = coach(ONBOARDED);
+        unchanged.setId("c2");
+
+        List<Coach> updated = service.updateStatuses(List.of(
+                new CoachStatusService.StatusChange(changed, true, false),
+                new CoachStatusService.StatusChange(unchanged, true, false)));
+
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(any(Query.class), updates.capture());
+        verify(bulk, times(1)).execute();
+        assertThat(updates.getAllValues().get(0).modifies("status")).isTrue();
+        assertThat(updates.getAllValues().get(1).modifies("status")).isFalse();
+        assertThat(updates.getAllValues().get(1).modifies("updated")).isTrue();
+        assertThat(updated).containsExactly(changed, unchanged);
+        assertThat(unchanged.getUpdatedAt()).isNotNull();
+        // Only the real transition reaches history and status streams
+        verify(statusHistoryService, times(1)).record(eq(changed), eq(ONBOARDED), anyLong(),
+                eq(CoachStatusTransition.Source.BATCH));
+        verify(statusStreamService, never()).publish(unchanged);
+    }
+
+    private static Coach coach(int status) {
+        Coach coach = new Coach("ada@example.com", "Ada");
+        coach.setId("c1");
+        coach.setStripeAccountId("acct_1");
+        coach.setStatus(status);
+        return coach;
+    }
+}
@@ -0,0 +1,103 @@
+package com.yashkolte.coachlink.backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for the lock striping and idempotency keys of EmailLockService
+ *
+ * A second thread holds a stripe while the test thread tries to take it with
+ * a short timeout, so contention shows up as an IllegalStateException.
+ */
+class EmailLockServiceTest {
+
+    private final ExecutorService holder = Executors.newSingleThreadExecutor();
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        holder.shutdownNow();
+    }
+
+    @Test
+    void sameEmailInAnyCaseSharesAStripe() throws Exception {
+        EmailLockService service = service(256);
+        hold(service, "  Ada@Example.com ");
+
+        assertThatThrownBy(() -> service.withLock("ada@example.com", () -> "second"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("ada@example.com");
+    }
+
+    @Test
+    void emailsOnDifferentStripesDoNotContend() throws Exception {
+        EmailLockService service = service(256);
+        // These two emails hash to stripes 174 and 5 of 256
+        hold(service, "ada@example.com");
+
+        assertThat(service.withLock("grace@example.com", () -> "second")).isEqualTo("second");
+    }
+
+    @Test
+    void unrelatedEmailsContendWhenTheyShareAStripe() throws Exception {
+        EmailLockService service = service(1);
+        hold(service, "ada@example.com");
+
+        assertThatThrownBy(() -> service.withLock("grace@example.com", () -> "second"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void nestedLockOnTheSameEmailDoesNotDeadlock() throws Exception {
+        EmailLockService service = service(256);
+
+        String result = service.withLock("ada@example.com",
+                () -> service.withLock("ADA@example.com", () -> "inner"));
+
+        assertThat(result).isEqualTo("inner");
+    }
+
+    @Test
+    void idempotencyKeyDependsOnlyOnNormalizedEmailAndGeneration() {
+        String key = EmailLockService.accountCreationKey("ada@example.com", 1);
+
+        assertThat(EmailLockService.accountCreationKey(" ADA@example.com", 1)).isEqualTo(key);
+        assertThat(EmailLockService.accountCreationKey("ada@example.com", 2)).isNotEqualTo(key);
+        assertThat(EmailLockService.accountCreationKey("grace@example.com", 1)).isNotEqualTo(key);
+        assertThat(key).startsWith("coach-account-").endsWith("-1").doesNotContain("ada");
+    }
+
+    private static EmailLockService service(int stripes) {
+        EmailLockService service = new EmailLockService(stripes);
+        ReflectionTestUtils.setField(service, "lockTimeoutMs", 50L);
+        return service;
+    }
+
+    /**
+     * Take the stripe of an email on the holder thread and keep it until the
+     * test ends
+     */
+    private void hold(EmailLockService service, String email) throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        Future<?> holding = holder.submit(() -> service.withLock(email, () -> {
+            held.countDown();
+            return release.await(10, TimeUnit.SECONDS);
+        }));
+        if (!held.await(5, TimeUnit.SECONDS)) {
+            holding.cancel(true);
+            throw new IllegalStateException("Holder thread did not take the lock");
+        }
+    }
+}
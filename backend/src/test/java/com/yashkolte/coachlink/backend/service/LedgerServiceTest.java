@@ -0,0 +1,152 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.stripe.model.Event;
+import com.stripe.model.EventDataObjectDeserializer;
+import com.stripe.model.StripeObject;
+import com.stripe.model.Transfer;
+import com.stripe.model.TransferReversal;
+import com.stripe.model.TransferReversalCollection;
+import com.yashkolte.coachlink.backend.entity.LedgerBalance;
+import com.yashkolte.coachlink.backend.entity.LedgerDailyRollup;
+import com.yashkolte.coachlink.backend.entity.LedgerEntry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for LedgerService.record
+ *
+ * MongoTemplate is mocked with an insert that enforces the unique _id of
+ * ledger entries, which is what makes recording idempotent.
+ */
+class LedgerServiceTest {
+
+    private MongoTemplate mongoTemplate;
+
+    private LedgerService service;
+
+    private final Set<String> storedIds = new HashSet<>();
+
+    private final List<LedgerEntry> inserted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.insert(any(LedgerEntry.class))).thenAnswer(invocation -> {
+            LedgerEntry entry = invocation.getArgument(0);
+            if (!storedIds.add(entry.getId())) {
+                throw new DuplicateKeyException("E11000 duplicate key " + entry.getId());
+            }
+            inserted.add(entry);
+            return entry;
+        });
+        service = new LedgerService(mongoTemplate);
+    }
+
+    @Test
+    void redeliveredTransferIsCountedOnce() {
+        Transfer transfer = transfer(5000, 0);
+        Event event = event("evt_1", "transfer.created", transfer);
+
+        assertThat(service.record(event)).isTrue();
+        assertThat(service.record(event)).isFalse();
+
+        assertThat(inserted).singleElement()
+                .extracting(LedgerEntry::getId, LedgerEntry::getType, LedgerEntry::getAmount)
+                .containsExactly("evt_1", LedgerEntry.Type.TRANSFER, 5000L);
+        verify(mongoTemplate, times(1)).upsert(any(Query.class), any(Update.class), eq(LedgerBalance.class));
+        verify(mongoTemplate, times(1)).upsert(any(Query.class), any(Update.class), eq(LedgerDailyRollup.class));
+    }
+
+    @Test
+    void partialReversalsAreCountedOnceEach() {
+        TransferReversal first = reversal("trr_1", 300);
+        TransferReversal second = reversal("trr_2", 200);
+
+        // Each transfer.reversed event lists every reversal so far
+        assertThat(service.record(event("evt_1", "transfer.reversed", transfer(5000, 300, first)))).isTrue();
+        assertThat(service.record(event("evt_2", "transfer.reversed", transfer(5000, 500, first, second))))
+                .isTrue();
+
+        assertThat(inserted)
+                .extracting(LedgerEntry::getId, LedgerEntry::getType, LedgerEntry::getAmount)
+                .containsExactly(
+                        tuple("trr_1", LedgerEntry.Type.TRANSFER_REVERSAL, 300L),
+                        tuple("trr_2", LedgerEntry.Type.TRANSFER_REVERSAL, 200L));
+    }
+
+    @Test
+    void replayedReversalEventChangesNothing() {
+        Event event = event("evt_1", "transfer.reversed", transfer(5000, 300, reversal("trr_1", 300)));
+
+        assertThat(service.record(event)).isTrue();
+        assertThat(service.record(event)).isFalse();
+        assertThat(inserted).hasSize(1);
+    }
+
+    @Test
+    void reversalIncrementsReversedAndDecrementsNet() {
+        service.record(event("evt_1", "transfer.reversed", transfer(5000, 300, reversal("trr_1", 300))));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(any(Query.class), update.capture(), eq(LedgerBalance.class));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertThat(inc.get("reversed")).isEqualTo(300L);
+        assertThat(inc.get("net")).isEqualTo(-300L);
+        assertThat(inc.get("entries")).isEqualTo(1);
+    }
+
+    private static Transfer transfer(long amount, long amountReversed, TransferReversal... reversals) {
+        Transfer transfer = new Transfer();
+        transfer.setId("tr_1");
+        transfer.setAmount(amount);
+        transfer.setAmountReversed(amountReversed);
+        transfer.setCurrency("usd");
+        transfer.setDestination("acct_1");
+        TransferReversalCollection collection = new TransferReversalCollection();
+        collection.setData(List.of(reversals));
+        collection.setHasMore(false);
+        transfer.setReversals(collection);
+        return transfer;
+    }
+
+    private static TransferReversal reversal(String id, long amount) {
+        TransferReversal reversal = new TransferReversal();
+        reversal.setId(id);
+        reversal.setAmount(amount);
+        reversal.setCurrency("usd");
+        reversal.setCreated(1_760_000_000L);
+        return reversal;
+    }
+
+    private static Event event(String id, String type, StripeObject object) {
+        EventDataObjectDeserializer deserializer = mock(EventDataObjectDeserializer.class);
+        when(deserializer.getObject()).thenReturn(Optional.of(object));
+        Event event = mock(Event.class);
+        when(event.getId()).thenReturn(id);
+        when(event.getType()).thenReturn(type);
+        when(event.getCreated()).thenReturn(1_760_000_000L);
+        when(event.getDataObjectDeserializer()).thenReturn(deserializer);
+        return event;
+    }
+}
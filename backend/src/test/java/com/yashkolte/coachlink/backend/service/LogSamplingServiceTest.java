@@ -0,0 +1,104 @@
+package com.yashkolte.coachlink.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for the per-key sampling and GCRA rate limit of LogSamplingService
+ *
+ * Keys that are rate limited use emission intervals of a second or more, so
+ * no allowance is regained while a test runs.
+ */
+class LogSamplingServiceTest {
+
+    private MockEnvironment environment;
+
+    private LogSamplingService service;
+
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment();
+        service = new LogSamplingService(environment);
+        ReflectionTestUtils.setField(service, "defaultRate", 1.0);
+        ReflectionTestUtils.setField(service, "defaultPerSecond", 20.0);
+        ReflectionTestUtils.setField(service, "burst", 3);
+    }
+
+    @Test
+    void allowsTheBurstThenLimits() {
+        environment.setProperty("app.logging.sampling.slow.per-second", "1");
+
+        assertThat(service.shouldLog("slow")).isTrue();
+        assertThat(service.shouldLog("slow")).isTrue();
+        assertThat(service.shouldLog("slow")).isTrue();
+        assertThat(service.shouldLog("slow")).isFalse();
+    }
+
+    @Test
+    void keysHaveIndependentBuckets() {
+        environment.setProperty("app.logging.sampling.slow.per-second", "1");
+        for (int i = 0; i < 3; i++) {
+            service.shouldLog("slow");
+        }
+
+        assertThat(service.shouldLog("slow")).isFalse();
+        assertThat(service.shouldLog("other")).isTrue();
+    }
+
+    @Test
+    void zeroRateOrZeroPerSecondSuppressesEveryLine() {
+        environment.setProperty("app.logging.sampling.muted.rate", "0");
+        environment.setProperty("app.logging.sampling.stopped.per-second", "0");
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(service.shouldLog("muted")).isFalse();
+            assertThat(service.shouldLog("stopped")).isFalse();
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        ReflectionTestUtils.setField(service, "burst", 10);
+        environment.setProperty("app.logging.sampling.contended.per-second", "0.001");
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Callable<Integer> caller = () -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < 1000; i++) {
+                        if (service.shouldLog("contended")) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                };
+                results.add(executor.submit(caller));
+            }
+            start.countDown();
+
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get();
+            }
+            assertThat(allowed).isEqualTo(10);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.mongodb.client.result.UpdateResult;
+import com.stripe.model.Event;
+import com.stripe.param.EventListParams;
+import com.yashkolte.coachlink.backend.dto.StripeBackfillReport;
+import com.yashkolte.coachlink.backend.entity.StripeEventCheckpoint;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the checkpoint handling of StripeEventBackfillService
+ *
+ * Listing is stubbed with fixed events and MongoDB is mocked; the tests
+ * check where the checkpoint ends up and that it is only written under the
+ * run's lease.
+ */
+class StripeEventBackfillServiceTest {
+
+    private static final Instant STORED = Instant.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds(3600);
+
+    private StripeEventHandler stripeEventHandler;
+
+    private MongoTemplate mongoTemplate;
+
+    private StripeEventBackfillService service;
+
+    private final List<Event> listed = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        stripeEventHandler = mock(StripeEventHandler.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(StripeEventCheckpoint.class)))
+                .thenReturn(new StripeEventCheckpoint("stripe-events", STORED, null, "run", null));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(StripeEventCheckpoint.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        service = new StripeEventBackfillService(stripeEventHandler, mongoTemplate) {
+            @Override
+            List<Event> listStripeEvents(EventListParams params) {
+                return new ArrayList<>(listed);
+            }
+        };
+        ReflectionTestUtils.setField(service, "concurrency", 2);
+        ReflectionTestUtils.setField(service, "defaultLookbackHours", 24L);
+        ReflectionTestUtils.setField(service, "overlapSeconds", 300L);
+        ReflectionTestUtils.setField(service, "leaseMs", 60_000L);
+    }
+
+    @Test
+    void startsFromTheStoredCheckpointAndAdvancesBelowTheWindowEnd() throws Exception {
+        Event paid = event("evt_1", "acct_1", STORED.plusSeconds(600));
+        listed.add(paid);
+        when(stripeEventHandler.handle(paid, "backfill")).thenReturn(StripeEventHandler.Outcome.HANDLED);
+
+        StripeBackfillReport report = service.backfill();
+
+        assertThat(report.getFrom()).isEqualTo(STORED);
+        assertThat(report.getProcessed()).isEqualTo(1);
+        assertThat(report.getCheckpoint()).isEqualTo(report.getTo().minusSeconds(300));
+        assertThat(savedCheckpoint()).isEqualTo(report.getCheckpoint());
+    }
+
+    @Test
+    void stopsAtTheOldestFailedEventAcrossAccounts() throws Exception {
+        Event first = event("evt_1", "acct_1", STORED.plusSeconds(600));
+        Event olderFailure = event("evt_2", "acct_2", STORED.plusSeconds(1200));
+        Event newerFailure = event("evt_3", "acct_1", STORED.plusSeconds(1800));
+        listed.addAll(List.of(newerFailure, olderFailure, first));
+        when(stripeEventHandler.handle(first, "backfill")).thenReturn(StripeEventHandler.Outcome.HANDLED);
+        when(stripeEventHandler.handle(olderFailure, "backfill")).thenReturn(StripeEventHandler.Outcome.FAILED);
+        when(stripeEventHandler.handle(newerFailure, "backfill")).thenReturn(StripeEventHandler.Outcome.FAILED);
+
+        StripeBackfillReport report = service.backfill();
+
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getCheckpoint()).isEqualTo(STORED.plusSeconds(1200));
+        assertThat(savedCheckpoint()).isEqualTo(STORED.plusSeconds(1200));
+    }
+
+    @Test
+    void checkpointIsOnlyWrittenUnderTheRunsLease() throws Exception {
+        service.backfill();
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).updateFirst(queries.capture(), any(Update.class),
+                eq(StripeEventCheckpoint.class));
+        Document save = queries.getAllValues().get(0).getQueryObject();
+        Document release = queries.getAllValues().get(1).getQueryObject();
+        assertThat(save.get("lockedBy")).isNotNull().isEqualTo(release.get("lockedBy"));
+    }
+
+    @Test
+    void refusesToRunWhileAnotherNodeHoldsTheLease() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(StripeEventCheckpoint.class)))
+                .thenThrow(new DuplicateKeyException("E11000 duplicate key"));
+        listed.add(event("evt_1", "acct_1", STORED.plusSeconds(600)));
+
+        assertThatThrownBy(() -> service.backfill()).isInstanceOf(IllegalStateException.class);
+        verify(stripeEventHandler, never()).handle(any(Event.class), any());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class),
+                eq(StripeEventCheckpoint.class));
+    }
+
+    private Instant savedCheckpoint() {
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), updates.capture(),
+                eq(StripeEventCheckpoint.class));
+        Document set = (Document) updates.getAllValues().get(0).getUpdateObject().get("$set");
+        return (Instant) set.get("createdFrom");
+    }
+
+    private static Event event(String id, String accountId, Instant created) {
+        Event event = new Event();
+        event.setId(id);
+        event.setType("payout.paid");
+        event.setAccount(accountId);
+        event.setCreated(created.getEpochSecond());
+        return event;
+    }
+}
@@ -0,0 +1,119 @@
+package com.yashkolte.coachlink.backend.service;
+
+import com.stripe.model.Event;
+import com.yashkolte.coachlink.backend.entity.CoachStatusTransition;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the ordering rules of WebhookCoalescingService
+ *
+ * Windows are 50 ms long; verifications wait for the coalescer thread to flush
+ * them, and never() checks only follow a flush that has finished.
+ */
+class WebhookCoalescingServiceTest {
+
+    private static final long WAIT_MS = 2000;
+
+    private StripeEventHandler stripeEventHandler;
+
+    private StripeService stripeService;
+
+    private WebhookCoalescingService service;
+
+    @BeforeEach
+    void setUp() {
+        stripeEventHandler = mock(StripeEventHandler.class);
+        stripeService = mock(StripeService.class);
+        when(stripeEventHandler.handle(any(), anyString())).thenReturn(StripeEventHandler.Outcome.HANDLED);
+        service = new WebhookCoalescingService(stripeEventHandler, stripeService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "windowMs", 50L);
+        ReflectionTestUtils.setField(service, "watermarkTtlMs", 600_000L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    void appliesOnlyTheNewestEventWhateverTheDeliveryOrder() {
+        Event oldest = event("evt_1", 100);
+        Event newest = event("evt_3", 300);
+        Event middle = event("evt_2", 200);
+
+        service.submit(oldest);
+        service.submit(newest);
+        service.submit(middle);
+
+        verify(stripeEventHandler, timeout(WAIT_MS)).handle(newest, "webhook");
+        verify(stripeEventHandler, timeout(WAIT_MS)).markSuperseded(oldest, "webhook");
+        verify(stripeEventHandler, timeout(WAIT_MS)).markSuperseded(middle, "webhook");
+        verify(stripeEventHandler, never()).handle(oldest, "webhook");
+        verify(stripeEventHandler, never()).handle(middle, "webhook");
+    }
+
+    @Test
+    void tiedTimestampsAreResolvedFromStripeAsAWebhookTransition() throws Exception {
+        Event first = event("evt_1", 300);
+        Event second = event("evt_2", 300);
+
+        service.submit(first);
+        service.submit(second);
+
+        verify(stripeService, timeout(WAIT_MS)).getAccountStatus("acct_1", CoachStatusTransition.Source.WEBHOOK);
+        verify(stripeEventHandler, timeout(WAIT_MS)).markSuperseded(first, "webhook");
+        verify(stripeEventHandler, timeout(WAIT_MS)).markSuperseded(second, "webhook");
+        verify(stripeEventHandler, never()).handle(any(), anyString());
+    }
+
+    @Test
+    void lateDeliveryOlderThanTheAppliedEventIsNotApplied() {
+        Event applied = event("evt_2", 200);
+        service.submit(applied);
+        verify(stripeEventHandler, timeout(WAIT_MS)).handle(applied, "webhook");
+
+        Event late = event("evt_1", 100);
+        service.submit(late);
+
+        verify(stripeEventHandler, timeout(WAIT_MS)).markSuperseded(late, "webhook");
+        verify(stripeEventHandler, never()).handle(late, "webhook");
+    }
+
+    @Test
+    void failedApplyIsNotRecordedAsProcessed() throws InterruptedException {
+        Event failing = event("evt_1", 100);
+        Event older = event("evt_0", 50);
+        when(stripeEventHandler.handle(eq(failing), anyString())).thenReturn(StripeEventHandler.Outcome.FAILED);
+
+        service.submit(older);
+        service.submit(failing);
+
+        verify(stripeEventHandler, timeout(WAIT_MS)).handle(failing, "webhook");
+        // Shutting down waits for the running flush, so a marking after handle() would be seen
+        service.shutdown();
+        // Nothing is marked, so the scheduled backfill replays the whole window
+        verify(stripeEventHandler, never()).markSuperseded(any(), anyString());
+    }
+
+    private static Event event(String id, long created) {
+        Event event = new Event();
+        event.setId(id);
+        event.setType(WebhookCoalescingService.COALESCED_TYPE);
+        event.setAccount("acct_1");
+        event.setCreated(created);
+        return event;
+    }
+}
@@ -20,6 +20,10 @@ export default function OnboardingComplete() {
     const [error, setError] = useState('');
 
     useEffect(() => {
+        let unsubscribe: (() => void) | undefined;
+        // Set on unmount, so a check that resolves later does not open a stream
+        let cancelled = false;
+
         const checkOnboardingStatus = async () => {
             try {
                 // Try to get account ID from URL params first, then localStorage
@@ -36,20 +40,36 @@ export default function OnboardingComplete() {
                 }
 
                 const statusResponse = await stripeApi.checkAccountStatus(accountId);
+                if (cancelled) {
+                    return;
+                }
                 setStatus(statusResponse);
 
                 // Store account ID for future reference
                 localStorage.setItem('stripeAccountId', accountId);
 
+                // Receive later updates (e.g. from webhooks) without polling
+                unsubscribe = stripeApi.subscribeToAccountStatus(accountId, setStatus);
+
             } catch (err) {
+                if (cancelled) {
+                    return;
+                }
                 console.error('Error checking status:', err);
                 setError('Failed to check onboarding status. Please try again.');
             } finally {
-                setLoading(false);
+                if (!cancelled) {
+                    setLoading(false);
+                }
             }
         };
 
         checkOnboardingStatus();
+
+        return () => {
+            cancelled = true;
+            unsubscribe?.();
+        };
     }, [searchParams]);
 
     if (loading) {
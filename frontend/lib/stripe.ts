@@ -16,6 +16,13 @@ export interface CoachResponse {
   isRegistered: boolean;
 }
 
+export interface AccountStatusResponse {
+  accountId: string;
+  detailsSubmitted: boolean;
+  payoutsEnabled: boolean;
+  onboardingComplete: boolean;
+}
+
 export interface ApiResponse<T> {
   success: boolean;
   message: string;
@@ -31,7 +38,18 @@ class StripeApiClient {
 
   async createAccount(data: CoachRequest): Promise<CoachResponse> {
     const response = await axios.post(`${this.baseURL}/create-account`, data);
-    return response.data.data; // Extract data from ApiResponse
+    let coach: CoachResponse = response.data.data; // Extract data from ApiResponse
+
+    // New Stripe accounts are created asynchronously; wait until the account ID is assigned
+    const deadline = Date.now() + 30000;
+    for (let delay = 250; coach.status === 'pending'; delay = Math.min(delay * 2, 2000)) {
+      if (Date.now() > deadline) {
+        throw new Error('Timed out waiting for Stripe account creation');
+      }
+      await new Promise((resolve) => setTimeout(resolve, delay));
+      coach = await this.checkEmailRegistration(data.email);
+    }
+    return coach;
   }
 
   async generateOnboardingLink(data: { accountId: string }): Promise<{ onboardingUrl: string }> {
@@ -39,18 +57,22 @@ class StripeApiClient {
     return response.data.data; // Extract data from ApiResponse
   }
 
-  async checkAccountStatus(accountId: string): Promise<{
-    accountId: string;
-    detailsSubmitted: boolean;
-    payoutsEnabled: boolean;
-    onboardingComplete: boolean;
-  }> {
+  async checkAccountStatus(accountId: string): Promise<AccountStatusResponse> {
     const response = await axios.get(`${this.baseURL}/check-status`, {
       params: { accountId }
     });
     return response.data.data; // Extract data from ApiResponse
   }
 
+  // Push-based alternative to polling checkAccountStatus; returns an unsubscribe function
+  subscribeToAccountStatus(accountId: string, onStatus: (status: AccountStatusResponse) => void): () => void {
+    const source = new EventSource(`${this.baseURL}/status-stream?accountId=${encodeURIComponent(accountId)}`);
+    source.addEventListener('status', (event) => {
+      onStatus(JSON.parse((event as MessageEvent).data));
+    });
+    return () => source.close();
+  }
+
   async getDashboardLink(accountId: string): Promise<{ dashboardUrl: string }> {
     const response = await axios.get(`${this.baseURL}/dashboard-link`, {
       params: { accountId }